@@ -0,0 +1,105 @@
+package org.infinity.passport.async;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.core.task.TaskDecorator;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * Saturation metrics of a thread pool: gauges of the pool size, active threads, queue depth and remaining queue
+ * capacity, timers of the time the tasks wait in the queue and run, and a counter of the rejected tasks.
+ * <p>
+ * Tasks of a task executor are timed by using this as its task decorator, tasks of a scheduler by calling
+ * {@link #beforeExecute(Runnable)} and {@link #afterExecute()} from its executor, see
+ * {@link InstrumentedThreadPoolTaskScheduler}. The wait time of a scheduled task is the delay after its scheduled
+ * time.
+ */
+public class ExecutorMetrics implements TaskDecorator {
+
+    private static final ThreadLocal<Long> START_TIME = new ThreadLocal<>();
+
+    private final Timer                    waitTimer;
+
+    private final Timer                    runTimer;
+
+    private final Counter                  rejectedCounter;
+
+    /**
+     * @param metricRegistry registry
+     * @param name name of the executor, used in the metric names
+     * @param executorSupplier supplier of the underlying pool, called on each read of the gauges since the pool is
+     * only created when the executor is initialized
+     */
+    public ExecutorMetrics(MetricRegistry metricRegistry, String name, Supplier<ThreadPoolExecutor> executorSupplier) {
+        waitTimer = metricRegistry.timer(MetricRegistry.name(ExecutorMetrics.class, name, "wait"));
+        runTimer = metricRegistry.timer(MetricRegistry.name(ExecutorMetrics.class, name, "run"));
+        rejectedCounter = metricRegistry.counter(MetricRegistry.name(ExecutorMetrics.class, name, "rejected"));
+        metricRegistry.register(MetricRegistry.name(ExecutorMetrics.class, name, "pool-size"),
+                (Gauge<Integer>) () -> executorSupplier.get().getPoolSize());
+        metricRegistry.register(MetricRegistry.name(ExecutorMetrics.class, name, "active"),
+                (Gauge<Integer>) () -> executorSupplier.get().getActiveCount());
+        metricRegistry.register(MetricRegistry.name(ExecutorMetrics.class, name, "queue-size"),
+                (Gauge<Integer>) () -> executorSupplier.get().getQueue().size());
+        metricRegistry.register(MetricRegistry.name(ExecutorMetrics.class, name, "queue-remaining-capacity"),
+                (Gauge<Integer>) () -> executorSupplier.get().getQueue().remainingCapacity());
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        long submitTime = System.nanoTime();
+        return () -> {
+            long startTime = System.nanoTime();
+            waitTimer.update(startTime - submitTime, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                runTimer.update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    /**
+     * Count the rejected tasks before handing them to the delegate.
+     *
+     * @param delegate handler of the rejected tasks
+     * @return counting handler
+     */
+    public RejectedExecutionHandler countRejections(RejectedExecutionHandler delegate) {
+        return (task, executor) -> {
+            rejectedCounter.inc();
+            delegate.rejectedExecution(task, executor);
+        };
+    }
+
+    /**
+     * Called by the executing thread before running a task.
+     *
+     * @param task task to run
+     */
+    public void beforeExecute(Runnable task) {
+        if (task instanceof Delayed) {
+            // The remaining delay of a due task is the negative of its lateness
+            waitTimer.update(Math.max(0, -((Delayed) task).getDelay(TimeUnit.NANOSECONDS)), TimeUnit.NANOSECONDS);
+        }
+        START_TIME.set(System.nanoTime());
+    }
+
+    /**
+     * Called by the executing thread after running a task.
+     */
+    public void afterExecute() {
+        Long startTime = START_TIME.get();
+        if (startTime != null) {
+            runTimer.update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            START_TIME.remove();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.infinity.passport.async;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Task scheduler registering the saturation metrics of its pool.
+ */
+public class InstrumentedThreadPoolTaskScheduler extends ThreadPoolTaskScheduler {
+
+    private static final long     serialVersionUID = 6163390346383154658L;
+
+    private final ExecutorMetrics executorMetrics;
+
+    /**
+     * @param metricRegistry registry
+     * @param name name of the scheduler, used in the metric names
+     */
+    public InstrumentedThreadPoolTaskScheduler(MetricRegistry metricRegistry, String name) {
+        this.executorMetrics = new ExecutorMetrics(metricRegistry, name, this::getScheduledThreadPoolExecutor);
+    }
+
+    @Override
+    protected ScheduledExecutorService createExecutor(int poolSize, ThreadFactory threadFactory,
+            RejectedExecutionHandler rejectedExecutionHandler) {
+        return new ScheduledThreadPoolExecutor(poolSize, threadFactory,
+                executorMetrics.countRejections(rejectedExecutionHandler)) {
+
+            @Override
+            protected void beforeExecute(Thread thread, Runnable task) {
+                executorMetrics.beforeExecute(task);
+            }
+
+            @Override
+            protected void afterExecute(Runnable task, Throwable t) {
+                executorMetrics.afterExecute();
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package org.infinity.passport.component;
+
+import org.infinity.passport.domain.OAuth2AuthenticationAccessToken;
+import org.infinity.passport.service.ActiveUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the active users of the OAuth clients on each access token issuance, the client only tokens are not
+ * counted.
+ */
+@Component
+public class ActiveUserListener extends AbstractMongoEventListener<OAuth2AuthenticationAccessToken> {
+
+    @Autowired
+    private ActiveUserService activeUserService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<OAuth2AuthenticationAccessToken> event) {
+        OAuth2Authentication authentication = event.getSource().getAuthentication();
+        if (authentication != null && !authentication.isClientOnly()) {
+            activeUserService.recordActivity(event.getSource().getClientId(), event.getSource().getUserName());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.infinity.passport.component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinity.passport.async.InstrumentedThreadPoolTaskScheduler;
+import org.infinity.passport.config.ApplicationProperties;
+import org.infinity.passport.domain.PersistentAuditEvent;
+import org.infinity.passport.utils.BoundedRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Pushes the recorded audit events to the Server-Sent Events subscribers.
+ * Publishing only offers the event to the bounded buffers of the matching subscribers, dropping their oldest events
+ * when full, so a slow subscriber never slows down the producers. The buffers are drained and the heartbeats are sent
+ * by the threads of the broadcaster.
+ */
+@Component
+public class AuditEventBroadcaster implements InitializingBean, DisposableBean {
+
+    private static final Logger                        LOGGER            = LoggerFactory
+            .getLogger(AuditEventBroadcaster.class);
+
+    private static final long                          DISPATCH_INTERVAL = 200L;
+
+    @Autowired
+    private MetricRegistry                             metricRegistry;
+
+    @Autowired
+    private ApplicationProperties                      applicationProperties;
+
+    private final List<Subscriber>                     subscribers       = new CopyOnWriteArrayList<>();
+
+    private ThreadPoolTaskScheduler                    scheduler;
+
+    private ApplicationProperties.UserAuditEvent.Stream config;
+
+    private Meter                                      droppedMeter;
+
+    @Override
+    public void afterPropertiesSet() {
+        config = applicationProperties.getUserAuditEvent().getStream();
+        droppedMeter = metricRegistry.meter(MetricRegistry.name(AuditEventBroadcaster.class, "dropped"));
+        metricRegistry.register(MetricRegistry.name(AuditEventBroadcaster.class, "subscribers"),
+                (Gauge<Integer>) subscribers::size);
+
+        scheduler = new InstrumentedThreadPoolTaskScheduler(metricRegistry, "auditEventStream");
+        // One more thread than the senders, so stalled sends can not starve the dispatch
+        scheduler.setPoolSize(config.getSenderThreadCount() + 1);
+        scheduler.setThreadNamePrefix("audit-event-stream-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(this::dispatch, DISPATCH_INTERVAL);
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        scheduler.shutdown();
+    }
+
+    /**
+     * Subscribe to the audit events.
+     *
+     * @param types event types, empty means all
+     * @param principal principal, null means all
+     * @return emitter or null if the maximum number of subscribers has been reached
+     */
+    public SseEmitter subscribe(Set<String> types, String principal) {
+        if (subscribers.size() >= config.getMaxSubscribers()) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(config.getTimeoutInMinutes()));
+        Subscriber subscriber = new Subscriber(emitter, types, principal, config.getBufferSize());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Offer the event to the matching subscribers, never blocks.
+     *
+     * @param event audit event
+     */
+    public void publish(PersistentAuditEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(event)) {
+                while (!subscriber.buffer.offer(event)) {
+                    // Drop the oldest event to make room
+                    if (subscriber.buffer.poll() != null) {
+                        subscriber.dropped.incrementAndGet();
+                        droppedMeter.mark();
+                    }
+                }
+            }
+        }
+    }
+
+    private void dispatch() {
+        long now = System.currentTimeMillis();
+        long heartbeatInterval = TimeUnit.SECONDS.toMillis(config.getHeartbeatIntervalInSeconds());
+        for (Subscriber subscriber : subscribers) {
+            boolean heartbeatDue = now - subscriber.lastSentTime >= heartbeatInterval;
+            if ((subscriber.buffer.size() > 0 || heartbeatDue) && subscriber.sending.compareAndSet(false, true)) {
+                // At most one send in flight per subscriber, a stalled one only holds a single sender thread
+                scheduler.execute(() -> {
+                    try {
+                        send(subscriber, heartbeatDue);
+                    } finally {
+                        subscriber.sending.set(false);
+                    }
+                });
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, boolean heartbeatDue) {
+        try {
+            long dropped = subscriber.dropped.getAndSet(0);
+            if (dropped > 0) {
+                subscriber.emitter.send(SseEmitter.event().name("dropped").data(dropped));
+            }
+            PersistentAuditEvent event;
+            boolean sent = false;
+            while ((event = subscriber.buffer.poll()) != null) {
+                subscriber.emitter
+                        .send(SseEmitter.event().name("audit-event").data(event, MediaType.APPLICATION_JSON));
+                sent = true;
+            }
+            if (!sent && heartbeatDue) {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            subscriber.lastSentTime = System.currentTimeMillis();
+        } catch (IOException | IllegalStateException e) {
+            // The client has gone away
+            LOGGER.debug("Removing audit event subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private static class Subscriber {
+
+        private final SseEmitter                              emitter;
+
+        private final Set<String>                             types;
+
+        private final String                                  principal;
+
+        private final BoundedRingBuffer<PersistentAuditEvent> buffer;
+
+        private final AtomicLong                              dropped      = new AtomicLong();
+
+        private final AtomicBoolean                           sending      = new AtomicBoolean();
+
+        private volatile long                                 lastSentTime = System.currentTimeMillis();
+
+        Subscriber(SseEmitter emitter, Set<String> types, String principal, int bufferSize) {
+            this.emitter = emitter;
+            this.types = types;
+            this.principal = principal;
+            this.buffer = new BoundedRingBuffer<>(bufferSize);
+        }
+
+        boolean accepts(PersistentAuditEvent event) {
+            return (types.isEmpty() || types.contains(event.getAuditEventType()))
+                    && (principal == null || principal.equals(event.getPrincipal()));
+        }
+    }
+}
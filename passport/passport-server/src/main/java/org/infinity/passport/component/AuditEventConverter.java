@@ -1,6 +1,7 @@
 package org.infinity.passport.component;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -25,7 +26,9 @@ public class AuditEventConverter {
         if (persistentAuditEvents == null) {
             return Collections.emptyList();
         }
-        List<AuditEvent> auditEvents = new ArrayList<>();
+        List<AuditEvent> auditEvents = persistentAuditEvents instanceof Collection
+                ? new ArrayList<>(((Collection<?>) persistentAuditEvents).size())
+                : new ArrayList<>();
         for (PersistentAuditEvent persistentAuditEvent : persistentAuditEvents) {
             auditEvents.add(convertToAuditEvent(persistentAuditEvent));
         }
@@ -42,8 +45,16 @@ public class AuditEventConverter {
         if (persistentAuditEvent == null) {
             return null;
         }
+        Map<String, Object> data = convertDataToObjects(persistentAuditEvent.getData());
+        if (persistentAuditEvent.getCount() != null) {
+            // Expose the folding counters of a folded record
+            data = new HashMap<>(data);
+            data.put("count", persistentAuditEvent.getCount());
+            data.put("firstSeenDate", persistentAuditEvent.getFirstSeenDate());
+            data.put("lastSeenDate", persistentAuditEvent.getLastSeenDate());
+        }
         return new AuditEvent(Date.from(persistentAuditEvent.getAuditEventDate()), persistentAuditEvent.getPrincipal(),
-                persistentAuditEvent.getAuditEventType(), convertDataToObjects(persistentAuditEvent.getData()));
+                persistentAuditEvent.getAuditEventType(), data);
     }
 
     /**
@@ -53,14 +64,8 @@ public class AuditEventConverter {
      * @return a map of String, Object
      */
     public Map<String, Object> convertDataToObjects(Map<String, String> data) {
-        Map<String, Object> results = new HashMap<>();
-
-        if (data != null) {
-            for (Map.Entry<String, String> entry : data.entrySet()) {
-                results.put(entry.getKey(), entry.getValue());
-            }
-        }
-        return results;
+        // AuditEvent wraps the map as unmodifiable itself, so a read-only view avoids copying every entry
+        return data == null ? Collections.emptyMap() : Collections.unmodifiableMap(data);
     }
 
     /**
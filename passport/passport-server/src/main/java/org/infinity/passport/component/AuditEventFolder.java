@@ -0,0 +1,192 @@
+package org.infinity.passport.component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.infinity.passport.config.ApplicationProperties;
+import org.infinity.passport.domain.PersistentAuditEvent;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Collapses identical (principal, type, remoteAddress) audit events inside the folding window into one record with
+ * a count and the first and last seen time, the auditEventDate of the record is the first seen time.
+ * Failure events and the configured sensitive types are always written verbatim.
+ */
+@Component
+public class AuditEventFolder implements InitializingBean, DisposableBean {
+
+    private static final String                          FAILURE_SUFFIX = "_FAILURE";
+
+    private static final String                          REMOTE_ADDRESS = "remoteAddress";
+
+    @Autowired
+    private AuditEventWriter                             auditEventWriter;
+
+    @Autowired
+    private MetricRegistry                               metricRegistry;
+
+    @Autowired
+    private ApplicationProperties                        applicationProperties;
+
+    private final Map<FoldingKey, FoldedEvent>           foldedEvents   = new ConcurrentHashMap<>();
+
+    private ApplicationProperties.UserAuditEvent.Folding config;
+
+    private Set<String>                                  sensitiveTypes;
+
+    private Meter                                        foldedMeter;
+
+    @Override
+    public void afterPropertiesSet() {
+        config = applicationProperties.getUserAuditEvent().getFolding();
+        sensitiveTypes = Arrays.stream(config.getSensitiveTypes()).collect(Collectors.toSet());
+        foldedMeter = metricRegistry.meter(MetricRegistry.name(AuditEventFolder.class, "folded"));
+        metricRegistry.register(MetricRegistry.name(AuditEventFolder.class, "open-records"),
+                (Gauge<Integer>) foldedEvents::size);
+    }
+
+    @Override
+    public void destroy() {
+        flush(Instant.MAX);
+    }
+
+    /**
+     * Fold the event into the open record of its key.
+     *
+     * @param event audit event
+     * @return false if the event must be written verbatim
+     */
+    public boolean fold(PersistentAuditEvent event) {
+        if (!config.isEnabled() || event.getAuditEventType().endsWith(FAILURE_SUFFIX)
+                || sensitiveTypes.contains(event.getAuditEventType())) {
+            return false;
+        }
+        FoldingKey key = new FoldingKey(event.getPrincipal(), event.getAuditEventType(),
+                event.getData().get(REMOTE_ADDRESS));
+        if (foldedEvents.size() >= config.getMaxKeys() && !foldedEvents.containsKey(key)) {
+            // Bound the memory, too many distinct keys are not worth folding anyway
+            return false;
+        }
+        foldedEvents.compute(key, (k, folded) -> {
+            if (folded == null) {
+                return new FoldedEvent(event);
+            }
+            folded.add(event.getAuditEventDate());
+            return folded;
+        });
+        foldedMeter.mark();
+        return true;
+    }
+
+    /**
+     * Write the records whose window has elapsed.
+     */
+    @Scheduled(fixedDelay = 10000L)
+    public void flushExpired() {
+        flush(Instant.now().minusSeconds(config.getWindowInSeconds()));
+    }
+
+    private void flush(Instant openedBefore) {
+        for (Map.Entry<FoldingKey, FoldedEvent> entry : foldedEvents.entrySet()) {
+            FoldedEvent folded = entry.getValue();
+            // Removing under the map lock guarantees no fold is applied to the record afterwards
+            if (folded.openedTime.isBefore(openedBefore) && foldedEvents.remove(entry.getKey(), folded)) {
+                auditEventWriter.write(folded.toPersistentAuditEvent());
+            }
+        }
+    }
+
+    private static class FoldingKey {
+
+        private final String principal;
+
+        private final String type;
+
+        private final String remoteAddress;
+
+        FoldingKey(String principal, String type, String remoteAddress) {
+            this.principal = principal;
+            this.type = type;
+            this.remoteAddress = remoteAddress;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FoldingKey other = (FoldingKey) o;
+            return Objects.equals(principal, other.principal) && Objects.equals(type, other.type)
+                    && Objects.equals(remoteAddress, other.remoteAddress);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(principal, type, remoteAddress);
+        }
+    }
+
+    /**
+     * Only mutated inside ConcurrentHashMap.compute, which serializes the updates of a key.
+     */
+    private static class FoldedEvent {
+
+        private final PersistentAuditEvent first;
+
+        private final Instant              openedTime = Instant.now();
+
+        private Instant                    firstSeenDate;
+
+        private Instant                    lastSeenDate;
+
+        private long                       count      = 1;
+
+        FoldedEvent(PersistentAuditEvent first) {
+            this.first = first;
+            this.firstSeenDate = first.getAuditEventDate();
+            this.lastSeenDate = first.getAuditEventDate();
+        }
+
+        void add(Instant auditEventDate) {
+            count++;
+            if (auditEventDate.isBefore(firstSeenDate)) {
+                firstSeenDate = auditEventDate;
+            }
+            if (auditEventDate.isAfter(lastSeenDate)) {
+                lastSeenDate = auditEventDate;
+            }
+        }
+
+        PersistentAuditEvent toPersistentAuditEvent() {
+            if (count == 1) {
+                return first;
+            }
+            PersistentAuditEvent event = new PersistentAuditEvent();
+            event.setPrincipal(first.getPrincipal());
+            event.setAuditEventType(first.getAuditEventType());
+            event.setAuditEventDate(firstSeenDate);
+            // The data of the first event, the session ids of the others are not kept
+            event.setData(first.getData());
+            event.setCount(count);
+            event.setFirstSeenDate(firstSeenDate);
+            event.setLastSeenDate(lastSeenDate);
+            return event;
+        }
+    }
+}
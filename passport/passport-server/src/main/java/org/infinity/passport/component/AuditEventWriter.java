@@ -0,0 +1,301 @@
+package org.infinity.passport.component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.bson.types.ObjectId;
+import org.infinity.passport.config.ApplicationProperties;
+import org.infinity.passport.config.ApplicationProperties.UserAuditEvent.OverflowPolicy;
+import org.infinity.passport.domain.PersistentAuditEvent;
+import org.infinity.passport.repository.PersistenceAuditEventRepository;
+import org.infinity.passport.utils.BoundedRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.BulkWriteError;
+
+/**
+ * Writes the audit events to MongoDB in the background.
+ * The authentication threads only put the events into a bounded lock-free ring buffer, a single writer thread
+ * flushes them with unordered bulk inserts into the monthly buckets when a batch is full or the flush interval
+ * elapsed.
+ */
+@Component
+public class AuditEventWriter implements InitializingBean, DisposableBean {
+
+    private static final Logger                     LOGGER          = LoggerFactory.getLogger(AuditEventWriter.class);
+
+    private static final String                     SPILL_FILE_NAME = "audit-events.ndjson";
+
+    private static final long                       SHUTDOWN_WAIT   = TimeUnit.SECONDS.toMillis(10);
+
+    private static final int                        DUPLICATE_KEY   = 11000;
+
+    @Autowired
+    private MongoTemplate                           mongoTemplate;
+
+    @Autowired
+    private PersistenceAuditEventRepository         persistenceAuditEventRepository;
+
+    @Autowired
+    private MetricRegistry                          metricRegistry;
+
+    @Autowired
+    private ObjectMapper                            objectMapper;
+
+    @Autowired
+    private ApplicationProperties                   applicationProperties;
+
+    private final Object                            spillLock       = new Object();
+
+    private ApplicationProperties.UserAuditEvent.Writer config;
+
+    private BoundedRingBuffer<PersistentAuditEvent> buffer;
+
+    private Thread                                  writerThread;
+
+    private volatile boolean                        running;
+
+    private Meter                                   droppedMeter;
+
+    private Meter                                   spilledMeter;
+
+    private Meter                                   failedMeter;
+
+    private Timer                                   flushTimer;
+
+    private Histogram                               batchSizeHistogram;
+
+    @Override
+    public void afterPropertiesSet() {
+        config = applicationProperties.getUserAuditEvent().getWriter();
+        buffer = new BoundedRingBuffer<>(config.getQueueCapacity());
+        metricRegistry.register(MetricRegistry.name(AuditEventWriter.class, "queue-depth"),
+                (Gauge<Integer>) buffer::size);
+        droppedMeter = metricRegistry.meter(MetricRegistry.name(AuditEventWriter.class, "dropped"));
+        spilledMeter = metricRegistry.meter(MetricRegistry.name(AuditEventWriter.class, "spilled"));
+        failedMeter = metricRegistry.meter(MetricRegistry.name(AuditEventWriter.class, "failed"));
+        flushTimer = metricRegistry.timer(MetricRegistry.name(AuditEventWriter.class, "flush"));
+        batchSizeHistogram = metricRegistry.histogram(MetricRegistry.name(AuditEventWriter.class, "batch-size"));
+
+        replaySpilledEvents();
+
+        running = true;
+        writerThread = new Thread(this::writeLoop, "audit-event-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        // The writer thread drains the buffer before exiting
+        writerThread.join(SHUTDOWN_WAIT);
+        if (writerThread.isAlive()) {
+            LOGGER.warn("Audit event writer did not finish in {} ms, {} events may be lost", SHUTDOWN_WAIT,
+                    buffer.size());
+        }
+    }
+
+    /**
+     * Queue the event for writing, never touches the database on the calling thread.
+     *
+     * @param event audit event
+     */
+    public void write(PersistentAuditEvent event) {
+        if (running && buffer.offer(event)) {
+            return;
+        }
+        OverflowPolicy overflowPolicy = config.getOverflowPolicy();
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            while (running) {
+                if (buffer.offer(event)) {
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+            droppedMeter.mark();
+        } else if (overflowPolicy == OverflowPolicy.SPILL) {
+            spill(Collections.singletonList(event));
+        } else {
+            droppedMeter.mark();
+        }
+    }
+
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    private void writeLoop() {
+        int batchSize = config.getBatchSize();
+        long flushInterval = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalInMillis());
+        long idleWait = Math.min(flushInterval, TimeUnit.MILLISECONDS.toNanos(10));
+        List<PersistentAuditEvent> batch = new ArrayList<>(batchSize);
+        long batchStartTime = 0;
+        while (true) {
+            boolean stopping = !running;
+            PersistentAuditEvent event;
+            while (batch.size() < batchSize && (event = buffer.poll()) != null) {
+                if (batch.isEmpty()) {
+                    batchStartTime = System.nanoTime();
+                }
+                batch.add(event);
+            }
+            if (batch.size() >= batchSize
+                    || (!batch.isEmpty() && (stopping || System.nanoTime() - batchStartTime >= flushInterval))) {
+                flush(batch);
+                batch.clear();
+            } else if (stopping && buffer.size() == 0) {
+                return;
+            } else {
+                LockSupport.parkNanos(idleWait);
+            }
+        }
+    }
+
+    private void flush(List<PersistentAuditEvent> batch) {
+        Timer.Context context = flushTimer.time();
+        try {
+            batchSizeHistogram.update(batch.size());
+            for (Map.Entry<String, List<PersistentAuditEvent>> entry : groupByBucket(batch).entrySet()) {
+                List<PersistentAuditEvent> events = entry.getValue();
+                try {
+                    insert(entry.getKey(), events);
+                } catch (BulkOperationException e) {
+                    // Unordered bulk keeps going after an error, so only the failed events need special handling
+                    List<PersistentAuditEvent> failedEvents = new ArrayList<>(e.getErrors().size());
+                    for (BulkWriteError error : e.getErrors()) {
+                        failedEvents.add(events.get(error.getIndex()));
+                    }
+                    handleFailure(failedEvents, e);
+                } catch (RuntimeException e) {
+                    handleFailure(events, e);
+                }
+            }
+        } finally {
+            context.stop();
+        }
+    }
+
+    private Map<String, List<PersistentAuditEvent>> groupByBucket(List<PersistentAuditEvent> events) {
+        return events.stream().collect(Collectors.groupingBy(
+                event -> persistenceAuditEventRepository.getBucket(event.getAuditEventDate())));
+    }
+
+    private void insert(String bucket, List<PersistentAuditEvent> events) {
+        mongoTemplate.bulkOps(BulkMode.UNORDERED, PersistentAuditEvent.class, bucket).insert(events).execute();
+    }
+
+    private void handleFailure(List<PersistentAuditEvent> failedEvents, Exception e) {
+        failedMeter.mark(failedEvents.size());
+        LOGGER.error("Failed to write {} audit events", failedEvents.size(), e);
+        if (config.getOverflowPolicy() == OverflowPolicy.SPILL) {
+            spill(failedEvents);
+        }
+    }
+
+    private void spill(List<PersistentAuditEvent> events) {
+        synchronized (spillLock) {
+            Path spillFile = getSpillFile();
+            try {
+                Files.createDirectories(spillFile.getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (PersistentAuditEvent event : events) {
+                        if (event.getId() == null) {
+                            // A fixed id makes the replay idempotent, see replaySpilledEvents
+                            event.setId(new ObjectId().toHexString());
+                        }
+                        writer.write(objectMapper.writeValueAsString(event));
+                        writer.newLine();
+                    }
+                }
+                spilledMeter.mark(events.size());
+            } catch (IOException e) {
+                droppedMeter.mark(events.size());
+                LOGGER.error("Failed to spill {} audit events to {}", events.size(), spillFile, e);
+            }
+        }
+    }
+
+    private void replaySpilledEvents() {
+        Path spillFile = getSpillFile();
+        if (!Files.exists(spillFile)) {
+            return;
+        }
+        LOGGER.info("Replaying spilled audit events from {}", spillFile);
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(spillFile, StandardCharsets.UTF_8)) {
+            List<PersistentAuditEvent> batch = new ArrayList<>(config.getBatchSize());
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (StringUtils.isNotBlank(line)) {
+                    batch.add(objectMapper.readValue(line, PersistentAuditEvent.class));
+                }
+                if (batch.size() >= config.getBatchSize()) {
+                    groupByBucket(batch).forEach(this::insertIgnoringDuplicates);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                groupByBucket(batch).forEach(this::insertIgnoringDuplicates);
+                count += batch.size();
+            }
+            Files.delete(spillFile);
+            LOGGER.info("Replayed {} spilled audit events", count);
+        } catch (IOException | RuntimeException e) {
+            // Keep the file for the next startup
+            LOGGER.error("Failed to replay spilled audit events from {} after {} events", spillFile, count, e);
+        }
+    }
+
+    /**
+     * The spilled events carry the ids given when they were spilled, so the events inserted by a replay which failed
+     * partway are rejected as duplicates by the next replay instead of being written twice.
+     */
+    private void insertIgnoringDuplicates(String bucket, List<PersistentAuditEvent> events) {
+        try {
+            insert(bucket, events);
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+            LOGGER.info("Skipped {} audit events of {} replayed already", e.getErrors().size(), bucket);
+        }
+    }
+
+    private Path getSpillFile() {
+        return Paths.get(config.getSpillDirectory(), SPILL_FILE_NAME);
+    }
+}
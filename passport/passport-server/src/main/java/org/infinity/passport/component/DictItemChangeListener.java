@@ -0,0 +1,29 @@
+package org.infinity.passport.component;
+
+import org.infinity.passport.domain.DictItem;
+import org.infinity.passport.service.DictItemService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts the in-memory dict item snapshot whenever a dict item is written through the mongo template.
+ */
+@Component
+public class DictItemChangeListener extends AbstractMongoEventListener<DictItem> {
+
+    @Autowired
+    private DictItemService dictItemService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<DictItem> event) {
+        dictItemService.evictEnabledDictItemSnapshot();
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<DictItem> event) {
+        dictItemService.evictEnabledDictItemSnapshot();
+    }
+}
@@ -0,0 +1,75 @@
+package org.infinity.passport.component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.infinity.passport.domain.Dict;
+import org.infinity.passport.domain.DictItem;
+import org.infinity.passport.domain.DictTombstone;
+import org.infinity.passport.domain.base.RevisionedDomain;
+import org.infinity.passport.service.DictRevisionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.DBObject;
+
+/**
+ * Stamps every Dict and DictItem write with a new revision and records a tombstone for every deletion. The events of
+ * the other entities are filtered out by the {@link RevisionedDomain} type of the listener.
+ */
+@Component
+public class DictRevisionListener extends AbstractMongoEventListener<RevisionedDomain> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DictRevisionListener.class);
+
+    @Autowired
+    private DictRevisionService dictRevisionService;
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<RevisionedDomain> event) {
+        event.getSource().setRevision(dictRevisionService.nextRevision());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<RevisionedDomain> event) {
+        String type = Dict.class.equals(event.getType()) ? DictTombstone.TYPE_DICT
+                : DictItem.class.equals(event.getType()) ? DictTombstone.TYPE_DICT_ITEM : null;
+        if (type == null) {
+            return;
+        }
+        Collection<String> entityIds = extractIds(event.getSource());
+        if (entityIds == null) {
+            // Deletion by criteria other than the ID can not be tracked item by item
+            LOGGER.warn("Bulk deletion on {} detected, all dict clients will be forced to do a full sync", type);
+            dictRevisionService.requireFullSync();
+        } else {
+            dictRevisionService.recordDeletion(type, entityIds);
+        }
+    }
+
+    private Collection<String> extractIds(DBObject query) {
+        Object id = query == null ? null : query.get("_id");
+        if (id == null || query.keySet().size() > 1) {
+            return null;
+        }
+        if (!(id instanceof DBObject)) {
+            return Collections.singletonList(id.toString());
+        }
+        DBObject operator = (DBObject) id;
+        if (operator.keySet().size() != 1 || !(operator.get("$in") instanceof Iterable)) {
+            return null;
+        }
+        List<String> ids = new ArrayList<>();
+        for (Object element : (Iterable<?>) operator.get("$in")) {
+            ids.add(element.toString());
+        }
+        return ids;
+    }
+}
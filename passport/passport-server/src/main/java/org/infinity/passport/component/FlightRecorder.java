@@ -0,0 +1,292 @@
+package org.infinity.passport.component;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.infinity.passport.config.ApplicationProperties;
+import org.infinity.passport.dto.FlightRecordingDTO;
+import org.infinity.passport.dto.FlightRecordingDTO.Status;
+import org.infinity.passport.exception.CustomParameterizedException;
+import org.infinity.passport.exception.NoDataException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts Java Flight Recorder recordings through the diagnostic command MBean, the same commands as jcmd JFR.start,
+ * so no JFR API is needed at compile time. The recordings are bounded in duration and size, stopped by this class at
+ * the end of their duration, written to a temporary file in the configured directory, renamed once the dump returned
+ * and deleted after the retention. A file with the .jfr extension is therefore always complete, a temporary file left
+ * behind by a JVM killed during the dump is deleted after the retention as well.
+ */
+@Component
+public class FlightRecorder {
+
+    private static final Logger            LOGGER             = LoggerFactory.getLogger(FlightRecorder.class);
+
+    private static final String            DIAGNOSTIC_COMMAND = "com.sun.management:type=DiagnosticCommand";
+
+    private static final String            EXTENSION          = ".jfr";
+
+    private static final String            PART_EXTENSION     = EXTENSION + ".part";
+
+    private static final List<String>      SETTINGS           = Arrays.asList("default", "profile");
+
+    private static final Pattern           NAME_PATTERN       = Pattern.compile("passport-[0-9-]+");
+
+    private static final DateTimeFormatter NAME_FORMATTER     = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS")
+            .withZone(ZoneId.systemDefault());
+
+    @Autowired
+    private ApplicationProperties          applicationProperties;
+
+    /**
+     * Recordings started by this run, the finished ones are listed from the directory
+     */
+    private final Map<String, Recording>   recordings         = new ConcurrentHashMap<>();
+
+    /**
+     * Start a recording.
+     *
+     * @param settings default for continuous low overhead recording or profile for more detail
+     * @param durationInSeconds duration of the recording
+     * @return started recording
+     */
+    public synchronized FlightRecordingDTO start(String settings, long durationInSeconds) {
+        ApplicationProperties.FlightRecorder config = applicationProperties.getFlightRecorder();
+        if (!SETTINGS.contains(settings)) {
+            throw new CustomParameterizedException("flightRecordingSettings",
+                    "Settings must be one of " + SETTINGS, settings);
+        }
+        if (durationInSeconds <= 0 || durationInSeconds > config.getMaxDurationInSeconds()) {
+            throw new CustomParameterizedException("flightRecordingDuration",
+                    "Duration must be between 1 and " + config.getMaxDurationInSeconds() + " seconds",
+                    String.valueOf(durationInSeconds));
+        }
+        long running = recordings.values().stream().filter(Recording::isRunning).count();
+        if (running >= config.getMaxConcurrentRecordings()) {
+            throw new CustomParameterizedException("flightRecordingRunning",
+                    running + " recordings are running already", String.valueOf(running));
+        }
+
+        Instant startTime = Instant.now();
+        String name = "passport-" + NAME_FORMATTER.format(startTime);
+        Path file = getDirectory().resolve(name + EXTENSION);
+        try {
+            Files.createDirectories(file.getParent());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create the flight recording directory", e);
+        }
+        // Without a duration and a file name the recording is only written when stopped by stopFinished
+        String output = execute("jfrStart", "name=" + name, "settings=" + settings, "disk=true",
+                "maxsize=" + config.getMaxSizeInMb() + "M");
+        LOGGER.info("Started flight recording {} with {} settings for {} s: {}", name, settings, durationInSeconds,
+                output.trim());
+        Recording recording = new Recording(name, settings, startTime, durationInSeconds, file);
+        recordings.put(name, recording);
+        return recording.toDTO();
+    }
+
+    /**
+     * Get the running and failed recordings of this run and the recording files in the directory, the latest first.
+     *
+     * @return recordings
+     */
+    public List<FlightRecordingDTO> getRecordings() {
+        List<FlightRecordingDTO> results = new ArrayList<>();
+        recordings.values().stream().filter(recording -> recording.status != Status.FINISHED)
+                .forEach(recording -> results.add(recording.toDTO()));
+        try (Stream<Path> files = listFiles(EXTENSION)) {
+            files.forEach(file -> {
+                String name = getName(file, EXTENSION);
+                Recording recording = recordings.get(name);
+                if (recording == null) {
+                    File f = file.toFile();
+                    results.add(new FlightRecordingDTO(name, null, Instant.ofEpochMilli(f.lastModified()), 0,
+                            Status.FINISHED, f.length()));
+                } else if (recording.status == Status.FINISHED) {
+                    results.add(recording.toDTO());
+                }
+            });
+        }
+        results.sort(Comparator.comparing(FlightRecordingDTO::getStartTime).reversed());
+        return results;
+    }
+
+    /**
+     * Get the file of a finished recording.
+     *
+     * @param name name of the recording
+     * @return recording file
+     */
+    public File getFile(String name) {
+        // The name is validated before it is used in a path
+        if (!NAME_PATTERN.matcher(name).matches()) {
+            throw new NoDataException(name);
+        }
+        Recording recording = recordings.get(name);
+        if (recording != null && recording.isRunning()) {
+            throw new CustomParameterizedException("flightRecordingRunning", "Recording " + name + " is running",
+                    name);
+        }
+        File file = getDirectory().resolve(name + EXTENSION).toFile();
+        if (!file.isFile()) {
+            throw new NoDataException(name);
+        }
+        return file;
+    }
+
+    /**
+     * Stop the recordings at the end of their duration. The recording is dumped to a temporary file and only renamed
+     * to its final name, and marked finished, after the dump returned, so a partially written file is never served.
+     */
+    @Scheduled(fixedDelay = 1000L)
+    public void stopFinished() {
+        Instant now = Instant.now();
+        recordings.values().stream().filter(recording -> recording.isRunning() && !now.isBefore(recording.getEndTime()))
+                .forEach(this::stop);
+    }
+
+    @PreDestroy
+    public void stopRunning() {
+        recordings.values().stream().filter(Recording::isRunning).forEach(this::stop);
+    }
+
+    private void stop(Recording recording) {
+        Path part = recording.file.resolveSibling(recording.name + PART_EXTENSION);
+        try {
+            execute("jfrStop", "name=" + recording.name, "filename=" + part.toAbsolutePath());
+            Files.move(part, recording.file, StandardCopyOption.ATOMIC_MOVE);
+            recording.status = Status.FINISHED;
+            LOGGER.info("Finished flight recording {} of {} bytes", recording.name, recording.file.toFile().length());
+        } catch (IOException | RuntimeException e) {
+            recording.status = Status.FAILED;
+            LOGGER.warn("Failed to finish flight recording {}: {}", recording.name, e.getMessage());
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException ex) {
+                LOGGER.warn("Failed to delete partial flight recording {}: {}", part, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Delete the recording files and the temporary files older than the retention.
+     */
+    @Scheduled(fixedDelay = 3600000L)
+    public void deleteExpired() {
+        long expiration = System.currentTimeMillis()
+                - TimeUnit.HOURS.toMillis(applicationProperties.getFlightRecorder().getRetentionInHours());
+        recordings.values().removeIf(recording -> !recording.isRunning()
+                && recording.startTime.toEpochMilli() < expiration);
+        try (Stream<Path> files = Stream.concat(listFiles(EXTENSION), listFiles(PART_EXTENSION))) {
+            files.filter(file -> file.toFile().lastModified() < expiration).forEach(file -> {
+                try {
+                    Files.delete(file);
+                    LOGGER.info("Deleted expired flight recording {}", file);
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to delete expired flight recording {}: {}", file, e.getMessage());
+                }
+            });
+        }
+    }
+
+    private Path getDirectory() {
+        return Paths.get(applicationProperties.getFlightRecorder().getDirectory());
+    }
+
+    private Stream<Path> listFiles(String extension) {
+        Path directory = getDirectory();
+        if (!Files.isDirectory(directory)) {
+            return Stream.empty();
+        }
+        try {
+            return Files.list(directory).filter(file -> file.getFileName().toString().endsWith(extension)
+                    && NAME_PATTERN.matcher(getName(file, extension)).matches());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to list the flight recordings", e);
+        }
+    }
+
+    private static String getName(Path file, String extension) {
+        String fileName = file.getFileName().toString();
+        return fileName.substring(0, fileName.length() - extension.length());
+    }
+
+    private static String execute(String command, String... args) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            return (String) server.invoke(new ObjectName(DIAGNOSTIC_COMMAND), command, new Object[] { args },
+                    new String[] { String[].class.getName() });
+        } catch (JMException e) {
+            // E.g. a JDK without flight recorder or an Oracle JDK 8 without -XX:+UnlockCommercialFeatures
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            throw new CustomParameterizedException("flightRecorderUnavailable",
+                    "Flight recorder is unavailable: " + cause.getMessage(), command);
+        }
+    }
+
+    private static class Recording {
+
+        private final String    name;
+
+        private final String    settings;
+
+        private final Instant   startTime;
+
+        private final long      durationInSeconds;
+
+        private final Path      file;
+
+        /**
+         * Set once the recording is stopped and its file renamed, or failed
+         */
+        private volatile Status status = Status.RUNNING;
+
+        Recording(String name, String settings, Instant startTime, long durationInSeconds, Path file) {
+            this.name = name;
+            this.settings = settings;
+            this.startTime = startTime;
+            this.durationInSeconds = durationInSeconds;
+            this.file = file;
+        }
+
+        boolean isRunning() {
+            return status == Status.RUNNING;
+        }
+
+        Instant getEndTime() {
+            return startTime.plusSeconds(durationInSeconds);
+        }
+
+        FlightRecordingDTO toDTO() {
+            Status current = status;
+            return new FlightRecordingDTO(name, settings, startTime, durationInSeconds, current,
+                    current == Status.FINISHED ? file.toFile().length() : 0);
+        }
+    }
+}
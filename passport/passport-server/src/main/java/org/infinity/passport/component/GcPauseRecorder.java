@@ -0,0 +1,142 @@
+package org.infinity.passport.component;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.infinity.passport.config.ApplicationProperties;
+import org.infinity.passport.utils.HdrHistogramReservoir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+/**
+ * Listens to the garbage collection notifications of the JVM and records the duration of each collection in a timer
+ * per collector and cause, e.g. jvm.gc.pause.PS Scavenge.Allocation Failure. The bytes allocated between two
+ * collections are the growth of the young generation since the previous collection, the bytes promoted by a young
+ * collection are the growth of the old generation during it. Both are marked in meters, their rates are the
+ * allocation and promotion rates in bytes per second.
+ * <p>
+ * The duration of a concurrent collector, e.g. ConcurrentMarkSweep, includes its concurrent phases and is no pause.
+ */
+@Component
+public class GcPauseRecorder implements NotificationListener, InitializingBean, DisposableBean {
+
+    private static final Logger             LOGGER      = LoggerFactory.getLogger(GcPauseRecorder.class);
+
+    private static final String             PREFIX      = "jvm.gc";
+
+    @Autowired
+    private MetricRegistry                  metricRegistry;
+
+    @Autowired
+    private ApplicationProperties           applicationProperties;
+
+    private final List<NotificationEmitter> emitters    = new ArrayList<>();
+
+    private final Map<String, Timer>        pauseTimers = new ConcurrentHashMap<>();
+
+    private Meter                           allocatedMeter;
+
+    private Meter                           promotedMeter;
+
+    /**
+     * Young generation usage after the previous collection, notifications are delivered by a single thread
+     */
+    private long                            youngUsageAfterLastGc;
+
+    @Override
+    public void afterPropertiesSet() {
+        allocatedMeter = metricRegistry.meter(MetricRegistry.name(PREFIX, "allocated"));
+        promotedMeter = metricRegistry.meter(MetricRegistry.name(PREFIX, "promoted"));
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter) {
+                ((NotificationEmitter) gcBean).addNotificationListener(this, null, null);
+                emitters.add((NotificationEmitter) gcBean);
+            }
+        }
+        LOGGER.debug("Listening to the notifications of {} garbage collectors", emitters.size());
+    }
+
+    @Override
+    public void destroy() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (ListenerNotFoundException e) {
+                LOGGER.debug("Garbage collection listener was removed already");
+            }
+        }
+        emitters.clear();
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+                .from((CompositeData) notification.getUserData());
+        GcInfo gcInfo = info.getGcInfo();
+        getPauseTimer(info.getGcName(), info.getGcCause()).update(gcInfo.getDuration(), TimeUnit.MILLISECONDS);
+
+        long youngBefore = sumUsage(gcInfo.getMemoryUsageBeforeGc(), true);
+        long youngAfter = sumUsage(gcInfo.getMemoryUsageAfterGc(), true);
+        if (youngBefore > youngUsageAfterLastGc) {
+            allocatedMeter.mark(youngBefore - youngUsageAfterLastGc);
+        }
+        youngUsageAfterLastGc = youngAfter;
+
+        long oldBefore = sumUsage(gcInfo.getMemoryUsageBeforeGc(), false);
+        long oldAfter = sumUsage(gcInfo.getMemoryUsageAfterGc(), false);
+        // An old collection shrinks the old generation, only the growth is promotion
+        if (oldAfter > oldBefore) {
+            promotedMeter.mark(oldAfter - oldBefore);
+        }
+    }
+
+    private Timer getPauseTimer(String gcName, String gcCause) {
+        String name = MetricRegistry.name(PREFIX, "pause", gcName, gcCause);
+        Timer timer = pauseTimers.get(name);
+        if (timer == null) {
+            timer = pauseTimers.computeIfAbsent(name, key -> metricRegistry.register(key, new Timer(
+                    new HdrHistogramReservoir(applicationProperties.getMetrics().getLatency().getWindowInSeconds()))));
+        }
+        return timer;
+    }
+
+    /**
+     * Sum the usage of the young generation pools, eden and survivor, or of the old generation pools.
+     */
+    private static long sumUsage(Map<String, MemoryUsage> usages, boolean young) {
+        long sum = 0;
+        for (Map.Entry<String, MemoryUsage> entry : usages.entrySet()) {
+            String pool = entry.getKey();
+            if (young ? pool.contains("Eden") || pool.contains("Survivor")
+                    : pool.contains("Old Gen") || pool.contains("Tenured")) {
+                sum += entry.getValue().getUsed();
+            }
+        }
+        return sum;
+    }
+}
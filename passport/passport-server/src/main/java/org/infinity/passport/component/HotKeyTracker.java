@@ -0,0 +1,100 @@
+package org.infinity.passport.component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.infinity.passport.config.ApplicationProperties;
+import org.infinity.passport.dto.HotKeysDTO;
+import org.infinity.passport.dto.HotKeysDTO.HotKey;
+import org.infinity.passport.utils.HeavyHitters;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Interceptor tracking the clients, principals and routes sending the most requests over a sliding window with
+ * {@link HeavyHitters}, the memory is fixed by the sketch size and does not grow with the number of users. The client
+ * of a request authenticated by an access token is the client of the token, the client of a token request is the
+ * authenticated client itself.
+ */
+@Component
+public class HotKeyTracker extends HandlerInterceptorAdapter implements InitializingBean {
+
+    private static final String   TOKEN_ENDPOINT_PREFIX = "/oauth/";
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    private HeavyHitters          clients;
+
+    private HeavyHitters          principals;
+
+    private HeavyHitters          routes;
+
+    @Override
+    public void afterPropertiesSet() {
+        clients = newHeavyHitters();
+        principals = newHeavyHitters();
+        routes = newHeavyHitters();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!applicationProperties.getMetrics().getHotKeys().isEnabled()) {
+            return true;
+        }
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route != null) {
+            routes.offer(request.getMethod() + " " + route);
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // The anonymous token of the permitted requests is authenticated, its principal anonymousUser is no client
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return true;
+        }
+        if (authentication instanceof OAuth2Authentication) {
+            OAuth2Authentication oauth2Authentication = (OAuth2Authentication) authentication;
+            clients.offer(oauth2Authentication.getOAuth2Request().getClientId());
+            if (!oauth2Authentication.isClientOnly()) {
+                principals.offer(oauth2Authentication.getName());
+            }
+        } else if (route != null && route.toString().startsWith(TOKEN_ENDPOINT_PREFIX)) {
+            clients.offer(authentication.getName());
+        } else {
+            principals.offer(authentication.getName());
+        }
+        return true;
+    }
+
+    /**
+     * Get the clients, principals and routes sending the most requests in the window.
+     *
+     * @param limit maximum number of keys each
+     * @return hot keys
+     */
+    public HotKeysDTO getHotKeys(int limit) {
+        return new HotKeysDTO(applicationProperties.getMetrics().getHotKeys().getWindowInSeconds(),
+                top(clients, limit), top(principals, limit), top(routes, limit));
+    }
+
+    private HeavyHitters newHeavyHitters() {
+        ApplicationProperties.Metrics.HotKeys config = applicationProperties.getMetrics().getHotKeys();
+        return new HeavyHitters(config.getWindowInSeconds(), config.getBucketCount(), config.getDepth(),
+                config.getWidth(), config.getCapacity());
+    }
+
+    private static List<HotKey> top(HeavyHitters heavyHitters, int limit) {
+        return heavyHitters.top(limit).stream().map(entry -> new HotKey(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+}
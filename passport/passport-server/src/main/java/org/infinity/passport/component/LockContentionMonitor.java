@@ -0,0 +1,228 @@
+package org.infinity.passport.component;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.infinity.passport.dto.LockContentionDTO;
+import org.infinity.passport.dto.LockContentionDTO.ContentionSite;
+import org.infinity.passport.exception.CustomParameterizedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Samples the thread states for a time window with the JVM thread contention monitoring enabled, and aggregates the
+ * blocked and waiting threads by the class of the lock and by the top application frame, the first frame outside of
+ * the JDK, e.g. IdWorker.nextId blocked on its monitor. The blocked and waited times are the growth of the per thread
+ * contention counters between two samples, attributed to the lock the thread is found on. The contention monitoring
+ * is switched off again at the end of the window.
+ */
+@Component
+public class LockContentionMonitor implements DisposableBean {
+
+    private static final Logger               LOGGER                     = LoggerFactory
+            .getLogger(LockContentionMonitor.class);
+
+    private static final ThreadMXBean         THREAD_MXBEAN              = ManagementFactory.getThreadMXBean();
+
+    private static final long                 MAX_WINDOW_IN_SECONDS      = 600L;
+
+    private static final long                 MIN_SAMPLE_INTERVAL_MILLIS = 10L;
+
+    private static final int                  MAX_STACK_DEPTH            = 32;
+
+    private static final String[]             JDK_PACKAGES               = { "java.", "javax.", "sun.", "jdk.",
+            "com.sun." };
+
+    private final ScheduledExecutorService    sampler                    = Executors
+            .newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "lock-contention-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Map<String, ContentionSite> byLock                     = new HashMap<>();
+
+    private final Map<String, ContentionSite> byFrame                    = new HashMap<>();
+
+    /**
+     * Blocked and waited time of each thread at the previous sample
+     */
+    private final Map<Long, long[]>           previousTimes              = new HashMap<>();
+
+    private ScheduledFuture<?>                samplingFuture;
+
+    private Instant                           startTime;
+
+    private Instant                           endTime;
+
+    private long                              sampleCount;
+
+    private boolean                           contentionMonitoringWasEnabled;
+
+    /**
+     * Start sampling, the results of the previous window are discarded.
+     *
+     * @param windowInSeconds sampling window
+     * @param sampleIntervalInMillis interval between two samples
+     */
+    public synchronized void start(long windowInSeconds, long sampleIntervalInMillis) {
+        if (windowInSeconds <= 0 || windowInSeconds > MAX_WINDOW_IN_SECONDS) {
+            throw new CustomParameterizedException("lockContentionWindow",
+                    "Window must be between 1 and " + MAX_WINDOW_IN_SECONDS + " seconds",
+                    String.valueOf(windowInSeconds));
+        }
+        if (sampleIntervalInMillis < MIN_SAMPLE_INTERVAL_MILLIS) {
+            throw new CustomParameterizedException("lockContentionSampleInterval",
+                    "Sample interval must be at least " + MIN_SAMPLE_INTERVAL_MILLIS + " ms",
+                    String.valueOf(sampleIntervalInMillis));
+        }
+        if (!THREAD_MXBEAN.isThreadContentionMonitoringSupported()) {
+            throw new CustomParameterizedException("lockContentionUnsupported",
+                    "Thread contention monitoring is not supported by the JVM");
+        }
+        if (samplingFuture != null) {
+            stopSampling();
+        }
+        byLock.clear();
+        byFrame.clear();
+        previousTimes.clear();
+        sampleCount = 0;
+        contentionMonitoringWasEnabled = THREAD_MXBEAN.isThreadContentionMonitoringEnabled();
+        THREAD_MXBEAN.setThreadContentionMonitoringEnabled(true);
+        startTime = Instant.now();
+        endTime = startTime.plusSeconds(windowInSeconds);
+        samplingFuture = sampler.scheduleAtFixedRate(this::sample, 0, sampleIntervalInMillis, TimeUnit.MILLISECONDS);
+        LOGGER.info("Started lock contention sampling every {} ms for {} s", sampleIntervalInMillis,
+                windowInSeconds);
+    }
+
+    /**
+     * Get the most contended locks and frames of the current or last window.
+     *
+     * @param limit maximum number of locks and frames each
+     * @return lock contention
+     */
+    public synchronized LockContentionDTO getContention(int limit) {
+        if (limit < 0) {
+            throw new CustomParameterizedException("lockContentionLimit", "Limit must not be negative",
+                    String.valueOf(limit));
+        }
+        return new LockContentionDTO(samplingFuture != null, startTime, endTime, sampleCount, top(byLock, limit),
+                top(byFrame, limit));
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (samplingFuture != null) {
+            stopSampling();
+        }
+        sampler.shutdownNow();
+    }
+
+    private synchronized void sample() {
+        if (samplingFuture == null) {
+            // Stopped while this run was waiting for the lock
+            return;
+        }
+        if (Instant.now().isAfter(endTime)) {
+            stopSampling();
+            LOGGER.info("Finished lock contention sampling after {} samples", sampleCount);
+            return;
+        }
+        sampleCount++;
+        long samplerThreadId = Thread.currentThread().getId();
+        for (ThreadInfo info : THREAD_MXBEAN.getThreadInfo(THREAD_MXBEAN.getAllThreadIds(), MAX_STACK_DEPTH)) {
+            if (info == null || info.getThreadId() == samplerThreadId) {
+                continue;
+            }
+            long blockedTime = Math.max(0, info.getBlockedTime());
+            long waitedTime = Math.max(0, info.getWaitedTime());
+            long[] previous = previousTimes.put(info.getThreadId(), new long[] { blockedTime, waitedTime });
+            LockInfo lockInfo = info.getLockInfo();
+            Thread.State state = info.getThreadState();
+            boolean blocked = state == Thread.State.BLOCKED;
+            if (lockInfo == null || !blocked && state != Thread.State.WAITING && state != Thread.State.TIMED_WAITING) {
+                continue;
+            }
+            // The first sample of a thread has no baseline, only the state is counted
+            long blockedDelta = previous == null ? 0 : blockedTime - previous[0];
+            long waitedDelta = previous == null ? 0 : waitedTime - previous[1];
+            add(byLock.computeIfAbsent(lockInfo.getClassName(), ContentionSite::new), blocked, blockedDelta,
+                    waitedDelta);
+            add(byFrame.computeIfAbsent(getTopApplicationFrame(info.getStackTrace()), ContentionSite::new), blocked,
+                    blockedDelta, waitedDelta);
+        }
+    }
+
+    private void stopSampling() {
+        samplingFuture.cancel(false);
+        samplingFuture = null;
+        endTime = Instant.now();
+        THREAD_MXBEAN.setThreadContentionMonitoringEnabled(contentionMonitoringWasEnabled);
+    }
+
+    private static void add(ContentionSite site, boolean blocked, long blockedDelta, long waitedDelta) {
+        if (blocked) {
+            site.setBlockedSamples(site.getBlockedSamples() + 1);
+        } else {
+            site.setWaitingSamples(site.getWaitingSamples() + 1);
+        }
+        site.setBlockedTimeInMillis(site.getBlockedTimeInMillis() + blockedDelta);
+        site.setWaitedTimeInMillis(site.getWaitedTimeInMillis() + waitedDelta);
+    }
+
+    /**
+     * The frames inside the JDK, e.g. Unsafe.park of every waiting thread, say nothing about the contended code.
+     */
+    private static String getTopApplicationFrame(StackTraceElement[] stackTrace) {
+        if (stackTrace.length == 0) {
+            return "UNKNOWN";
+        }
+        for (StackTraceElement frame : stackTrace) {
+            if (!isJdkFrame(frame)) {
+                return frame.getClassName() + "." + frame.getMethodName();
+            }
+        }
+        return stackTrace[0].getClassName() + "." + stackTrace[0].getMethodName();
+    }
+
+    private static boolean isJdkFrame(StackTraceElement frame) {
+        for (String jdkPackage : JDK_PACKAGES) {
+            if (frame.getClassName().startsWith(jdkPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<ContentionSite> top(Map<String, ContentionSite> sites, int limit) {
+        List<ContentionSite> results = new ArrayList<>(sites.size());
+        // Copies, the sites keep changing while sampling
+        sites.values().forEach(site -> {
+            ContentionSite copy = new ContentionSite(site.getName());
+            copy.setBlockedSamples(site.getBlockedSamples());
+            copy.setBlockedTimeInMillis(site.getBlockedTimeInMillis());
+            copy.setWaitingSamples(site.getWaitingSamples());
+            copy.setWaitedTimeInMillis(site.getWaitedTimeInMillis());
+            results.add(copy);
+        });
+        results.sort(Comparator.comparingLong(ContentionSite::getBlockedTimeInMillis)
+                .thenComparingLong(ContentionSite::getBlockedSamples)
+                .thenComparingLong(ContentionSite::getWaitedTimeInMillis).reversed());
+        return results.size() > limit ? results.subList(0, limit) : results;
+    }
+}
@@ -0,0 +1,144 @@
+package org.infinity.passport.component;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.infinity.passport.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.MetricRegistry;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * Driver level listener recording a timer and an error counter per collection and command, and a timer per calling
+ * repository method, for every command sent by the MongoClient. The calling repository method is set by the
+ * repository aspect of {@link org.infinity.passport.config.MongoMetricsConfiguration} on the calling thread.
+ */
+@Component
+public class MongoCommandMetricsListener implements CommandListener {
+
+    private static final Logger                      LOGGER          = LoggerFactory
+            .getLogger(MongoCommandMetricsListener.class);
+
+    private static final String                      NO_COLLECTION   = "-";
+
+    private static final ThreadLocal<String>         CALLER          = new ThreadLocal<>();
+
+    /**
+     * The synchronous driver sends a command and waits for its reply on the calling thread, so a thread has one
+     * command in flight at most. A command whose completion is never notified, e.g. on a broken connection, is
+     * replaced by the next command of the thread instead of piling up.
+     */
+    private static final ThreadLocal<StartedCommand> STARTED_COMMAND = new ThreadLocal<>();
+
+    @Autowired
+    private MetricRegistry                           metricRegistry;
+
+    @Autowired
+    private ApplicationProperties                    applicationProperties;
+
+    /**
+     * Attribute the commands of the current thread to the caller.
+     *
+     * @param caller calling repository method
+     * @return previous caller, to be restored afterwards
+     */
+    public static String setCaller(String caller) {
+        String previous = CALLER.get();
+        CALLER.set(caller);
+        return previous;
+    }
+
+    /**
+     * @return calling repository method of the current thread, null outside of a repository
+     */
+    public static String getCaller() {
+        return CALLER.get();
+    }
+
+    public static void restoreCaller(String previous) {
+        if (previous == null) {
+            CALLER.remove();
+        } else {
+            CALLER.set(previous);
+        }
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        STARTED_COMMAND.set(new StartedCommand(event.getRequestId(),
+                getCollection(event.getCommandName(), event.getCommand()), CALLER.get()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        StartedCommand command = removeStartedCommand(event.getRequestId());
+        if (command != null) {
+            record(command, event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        StartedCommand command = removeStartedCommand(event.getRequestId());
+        if (command != null) {
+            record(command, event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+            metricRegistry.counter(MetricRegistry.name(MongoCommandMetricsListener.class, command.collection,
+                    event.getCommandName(), "errors")).inc();
+        }
+    }
+
+    private static StartedCommand removeStartedCommand(int requestId) {
+        StartedCommand command = STARTED_COMMAND.get();
+        if (command == null || command.requestId != requestId) {
+            return null;
+        }
+        STARTED_COMMAND.remove();
+        return command;
+    }
+
+    private void record(StartedCommand command, String commandName, long elapsedInNanos) {
+        metricRegistry.timer(MetricRegistry.name(MongoCommandMetricsListener.class, command.collection, commandName))
+                .update(elapsedInNanos, TimeUnit.NANOSECONDS);
+        if (command.caller != null) {
+            metricRegistry.timer(MetricRegistry.name(MongoCommandMetricsListener.class, "repository", command.caller))
+                    .update(elapsedInNanos, TimeUnit.NANOSECONDS);
+        }
+        long elapsedInMillis = TimeUnit.NANOSECONDS.toMillis(elapsedInNanos);
+        if (elapsedInMillis >= applicationProperties.getMetrics().getMongo().getSlowCommandThresholdInMillis()) {
+            LOGGER.warn("Slow Mongo command {} on {} took {} ms, called by {}", commandName, command.collection,
+                    elapsedInMillis, command.caller);
+        }
+    }
+
+    /**
+     * The collection is the value of the command name key for the CRUD commands, and of the collection key for
+     * getMore.
+     */
+    private static String getCollection(String commandName, BsonDocument command) {
+        BsonValue collection = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return collection != null && collection.isString() ? collection.asString().getValue() : NO_COLLECTION;
+    }
+
+    private static class StartedCommand {
+
+        private final int    requestId;
+
+        private final String collection;
+
+        private final String caller;
+
+        StartedCommand(int requestId, String collection, String caller) {
+            this.requestId = requestId;
+            this.collection = collection;
+            this.caller = caller;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.infinity.passport.component;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * Driver level listener recording a span per Mongo command in the trace of the calling thread, the synchronous
+ * driver sends the commands on the calling thread.
+ */
+@Component
+public class MongoCommandTracingListener implements CommandListener {
+
+    /**
+     * The succeeded and failed events only carry the request id of the started one. A thread has one command in
+     * flight at most, so a span whose command completion is never notified is replaced by the next command of the
+     * thread, the same as in {@link MongoCommandMetricsListener}.
+     */
+    private static final ThreadLocal<StartedSpan> STARTED_SPAN = new ThreadLocal<>();
+
+    @Autowired
+    private Tracer                                tracer;
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        STARTED_SPAN.remove();
+        if (!tracer.isTracing()) {
+            return;
+        }
+        Tracer.Span span = tracer.startSpan("mongo",
+                event.getCommandName() + " " + getCollection(event.getCommandName(), event.getCommand()));
+        if (span != null) {
+            STARTED_SPAN.set(new StartedSpan(event.getRequestId(), span));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        tracer.finishSpan(removeStartedSpan(event.getRequestId()), null);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        tracer.finishSpan(removeStartedSpan(event.getRequestId()), event.getThrowable());
+    }
+
+    private static Tracer.Span removeStartedSpan(int requestId) {
+        StartedSpan started = STARTED_SPAN.get();
+        if (started == null || started.requestId != requestId) {
+            return null;
+        }
+        STARTED_SPAN.remove();
+        return started.span;
+    }
+
+    private static String getCollection(String commandName, BsonDocument command) {
+        BsonValue collection = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return collection != null && collection.isString() ? collection.asString().getValue() : "-";
+    }
+
+    private static class StartedSpan {
+
+        private final int         requestId;
+
+        private final Tracer.Span span;
+
+        StartedSpan(int requestId, Tracer.Span span) {
+            this.requestId = requestId;
+            this.span = span;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.infinity.passport.component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.infinity.passport.config.ApplicationProperties;
+import org.infinity.passport.dto.RequestLatencyDTO;
+import org.infinity.passport.utils.HdrHistogramReservoir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+/**
+ * Keeps the latency distribution of the requests per HTTP method, route template and status class in timers backed
+ * by {@link HdrHistogramReservoir}, they are published by the metric registry like any other timer.
+ */
+@Component
+public class RequestLatencyRecorder {
+
+    @Autowired
+    private MetricRegistry             metricRegistry;
+
+    @Autowired
+    private ApplicationProperties      applicationProperties;
+
+    private final Map<RouteKey, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Record the latency of a completed request.
+     *
+     * @param method HTTP method
+     * @param route route template, e.g. /api/user/users/{userName}
+     * @param status response status
+     * @param durationInNanos latency
+     */
+    public void record(String method, String route, int status, long durationInNanos) {
+        RouteKey key = new RouteKey(method, route, status / 100 + "xx");
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, this::registerTimer);
+        }
+        timer.update(durationInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the latency percentiles of the recent requests, slowest p99 first.
+     *
+     * @return request latencies
+     */
+    public List<RequestLatencyDTO> getLatencies() {
+        List<RequestLatencyDTO> results = new ArrayList<>(timers.size());
+        timers.forEach((key, timer) -> {
+            Snapshot snapshot = timer.getSnapshot();
+            results.add(new RequestLatencyDTO(key.method, key.route, key.statusClass, timer.getCount(),
+                    snapshot.size(), toMicros(snapshot.getMedian()), toMicros(snapshot.get99thPercentile()),
+                    toMicros(snapshot.get999thPercentile()), toMicros(snapshot.getMax())));
+        });
+        results.sort(Comparator.comparingLong(RequestLatencyDTO::getP99).reversed());
+        return results;
+    }
+
+    private Timer registerTimer(RouteKey key) {
+        Timer timer = new Timer(new HdrHistogramReservoir(
+                applicationProperties.getMetrics().getLatency().getWindowInSeconds()));
+        return metricRegistry.register(
+                MetricRegistry.name(RequestLatencyRecorder.class, key.method, key.route, key.statusClass), timer);
+    }
+
+    private static long toMicros(double nanos) {
+        return Math.round(nanos / 1000);
+    }
+
+    private static class RouteKey {
+
+        private final String method;
+
+        private final String route;
+
+        private final String statusClass;
+
+        RouteKey(String method, String route, String statusClass) {
+            this.method = method;
+            this.route = route;
+            this.statusClass = statusClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RouteKey other = (RouteKey) o;
+            return method.equals(other.method) && route.equals(other.route) && statusClass.equals(other.statusClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return (method.hashCode() * 31 + route.hashCode()) * 31 + statusClass.hashCode();
+        }
+    }
+}
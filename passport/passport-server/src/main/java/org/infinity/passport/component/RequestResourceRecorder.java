@@ -0,0 +1,164 @@
+package org.infinity.passport.component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.infinity.passport.config.ApplicationProperties;
+import org.infinity.passport.dto.RequestResourceUsageDTO;
+import org.infinity.passport.exception.CustomParameterizedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SlidingWindowReservoir;
+import com.codahale.metrics.Snapshot;
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Keeps the distribution of the heap allocated and the CPU time consumed by the request threads per HTTP method and
+ * route template, measured with the per thread counters of the {@link ThreadMXBean}. The recording can be switched
+ * at runtime, when disabled the filter costs a volatile read per request.
+ * <p>
+ * Two histograms are kept per route, so they are backed by a {@link SlidingWindowReservoir} of the latest
+ * sample-size requests, a few KB per route, instead of the time windowed latency reservoirs. The values are exact.
+ */
+@Component
+public class RequestResourceRecorder implements InitializingBean {
+
+    private static final Logger           LOGGER        = LoggerFactory.getLogger(RequestResourceRecorder.class);
+
+    private static final ThreadMXBean     THREAD_MXBEAN = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private MetricRegistry                metricRegistry;
+
+    @Autowired
+    private ApplicationProperties         applicationProperties;
+
+    private final Map<String, RouteUsage> usages        = new ConcurrentHashMap<>();
+
+    private volatile boolean              enabled;
+
+    @Override
+    public void afterPropertiesSet() {
+        setEnabled(applicationProperties.getMetrics().getResourceUsage().isEnabled());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switch the recording on or off, it stays off if the JVM does not support the per thread counters.
+     *
+     * @param enabled whether the requests are recorded
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled) {
+            if (!THREAD_MXBEAN.isThreadAllocatedMemorySupported() || !THREAD_MXBEAN.isCurrentThreadCpuTimeSupported()) {
+                LOGGER.warn("Per thread allocation or CPU time counters are not supported by the JVM");
+                return;
+            }
+            THREAD_MXBEAN.setThreadAllocatedMemoryEnabled(true);
+            THREAD_MXBEAN.setThreadCpuTimeEnabled(true);
+        }
+        this.enabled = enabled;
+        LOGGER.info("Request resource usage recording {}", enabled ? "enabled" : "disabled");
+    }
+
+    /**
+     * @return bytes allocated by the current thread since it started
+     */
+    public long getCurrentThreadAllocatedBytes() {
+        return THREAD_MXBEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * @return CPU time of the current thread in nanoseconds
+     */
+    public long getCurrentThreadCpuTime() {
+        return THREAD_MXBEAN.getCurrentThreadCpuTime();
+    }
+
+    /**
+     * Record the resources consumed by a completed request.
+     *
+     * @param method HTTP method
+     * @param route route template, e.g. /api/user/users/{userName}
+     * @param allocatedBytes bytes allocated by the request thread
+     * @param cpuTimeInNanos CPU time of the request thread
+     */
+    public void record(String method, String route, long allocatedBytes, long cpuTimeInNanos) {
+        String key = method + " " + route;
+        RouteUsage usage = usages.get(key);
+        if (usage == null) {
+            usage = usages.computeIfAbsent(key, k -> newRouteUsage(method, route));
+        }
+        usage.allocatedBytes.update(allocatedBytes);
+        usage.cpuTime.update(cpuTimeInNanos);
+    }
+
+    /**
+     * Get the heaviest routes by the 99th percentile of the allocated bytes.
+     *
+     * @param limit maximum number of routes
+     * @return resource usages
+     */
+    public List<RequestResourceUsageDTO> getUsages(int limit) {
+        if (limit < 0) {
+            throw new CustomParameterizedException("requestResourceUsageLimit", "Limit must not be negative",
+                    String.valueOf(limit));
+        }
+        List<RequestResourceUsageDTO> results = new ArrayList<>(usages.size());
+        usages.values().forEach(usage -> {
+            Snapshot allocated = usage.allocatedBytes.getSnapshot();
+            Snapshot cpu = usage.cpuTime.getSnapshot();
+            results.add(new RequestResourceUsageDTO(usage.method, usage.route, usage.allocatedBytes.getCount(),
+                    Math.round(allocated.getMedian()), Math.round(allocated.get99thPercentile()), allocated.getMax(),
+                    toMicros(cpu.getMedian()), toMicros(cpu.get99thPercentile()), toMicros(cpu.getMax())));
+        });
+        results.sort(Comparator.comparingLong(RequestResourceUsageDTO::getAllocatedBytesP99).reversed());
+        return results.size() > limit ? results.subList(0, limit) : results;
+    }
+
+    private RouteUsage newRouteUsage(String method, String route) {
+        int sampleSize = applicationProperties.getMetrics().getResourceUsage().getSampleSize();
+        Histogram allocatedBytes = metricRegistry.register(
+                MetricRegistry.name(RequestResourceRecorder.class, method, route, "allocated-bytes"),
+                new Histogram(new SlidingWindowReservoir(sampleSize)));
+        Histogram cpuTime = metricRegistry.register(
+                MetricRegistry.name(RequestResourceRecorder.class, method, route, "cpu-time"),
+                new Histogram(new SlidingWindowReservoir(sampleSize)));
+        return new RouteUsage(method, route, allocatedBytes, cpuTime);
+    }
+
+    private static long toMicros(double nanos) {
+        return Math.round(nanos / 1000);
+    }
+
+    private static class RouteUsage {
+
+        private final String    method;
+
+        private final String    route;
+
+        private final Histogram allocatedBytes;
+
+        private final Histogram cpuTime;
+
+        RouteUsage(String method, String route, Histogram allocatedBytes, Histogram cpuTime) {
+            this.method = method;
+            this.route = route;
+            this.allocatedBytes = allocatedBytes;
+            this.cpuTime = cpuTime;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package org.infinity.passport.component;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.infinity.passport.config.ApplicationProperties;
+import org.infinity.passport.dto.ServiceProfileDTO;
+import org.infinity.passport.dto.ServiceProfileDTO.MethodProfile;
+import org.infinity.passport.dto.ServiceProfileDTO.SlowInvocation;
+import org.infinity.passport.utils.HdrHistogramReservoir;
+import org.infinity.passport.utils.LogUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+
+/**
+ * Keeps a latency histogram per service method and the slowest recent invocations above the threshold of their
+ * method. The fast path of an invocation is a map lookup and a wait free histogram update. The slowest invocations are
+ * kept in stripes chosen by the thread, each with its own lock and its own top list merged on read, and a slow
+ * invocation too fast for its stripe skips the lock. The warning of the slow invocations is logged once per interval
+ * per method with the number of the suppressed ones. The settings are initialized from the application properties and
+ * can be changed at runtime.
+ */
+@Component
+public class ServiceProfiler implements InitializingBean {
+
+    private static final Logger                  LOGGER                    = LoggerFactory
+            .getLogger(ServiceProfiler.class);
+
+    private static final int                     STRIPE_COUNT              = 8;
+
+    private static final long                    WARN_INTERVAL_IN_MILLIS   = 10_000L;
+
+    @Autowired
+    private MetricRegistry                       metricRegistry;
+
+    @Autowired
+    private ApplicationProperties                applicationProperties;
+
+    private final Map<Method, MethodStats>       methodStats               = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer>             timers                    = new ConcurrentHashMap<>();
+
+    private final Map<String, Long>              thresholds                = new ConcurrentHashMap<>();
+
+    private final SlowestStripe[]                slowestStripes            = new SlowestStripe[STRIPE_COUNT];
+
+    private volatile boolean                     enabled;
+
+    private volatile long                        defaultThresholdInMillis;
+
+    public ServiceProfiler() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            slowestStripes[i] = new SlowestStripe();
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        ApplicationProperties.ServiceProfiler config = applicationProperties.getServiceProfiler();
+        enabled = config.isEnabled();
+        defaultThresholdInMillis = config.getDefaultThresholdInMillis();
+        thresholds.putAll(config.getThresholdsInMillis());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record an invocation.
+     *
+     * @param method invoked method
+     * @param targetClass class of the invoked bean
+     * @param args arguments
+     * @param durationInNanos duration
+     */
+    public void record(Method method, Class<?> targetClass, Object[] args, long durationInNanos) {
+        MethodStats stats = methodStats.get(method);
+        if (stats == null) {
+            stats = methodStats.computeIfAbsent(method, key -> newMethodStats(key, targetClass));
+        }
+        stats.timer.update(durationInNanos, TimeUnit.NANOSECONDS);
+        if (durationInNanos < TimeUnit.MILLISECONDS.toNanos(getThresholdInMillis(stats.name))) {
+            return;
+        }
+        long durationInMicros = TimeUnit.NANOSECONDS.toMicros(durationInNanos);
+        long now = System.currentTimeMillis();
+        SlowestStripe stripe = slowestStripes[(int) (Thread.currentThread().getId() % STRIPE_COUNT)];
+        boolean kept = stripe.admits(durationInMicros, now);
+        long suppressedWarnCount = stats.acquireWarning(now);
+        if (!kept && suppressedWarnCount < 0) {
+            return;
+        }
+        SlowInvocation invocation = new SlowInvocation(stats.name, Instant.ofEpochMilli(now), durationInMicros,
+                LogUtils.summarizeArguments(ClassUtils.getMostSpecificMethod(method, targetClass), args));
+        if (suppressedWarnCount >= 0) {
+            LOGGER.warn("Slow service invocation {}({}) took {} ms, {} more slow invocations since the last warning",
+                    stats.name, invocation.getArguments(), TimeUnit.NANOSECONDS.toMillis(durationInNanos),
+                    suppressedWarnCount);
+        }
+        if (kept) {
+            stripe.offer(invocation, applicationProperties.getServiceProfiler().getSlowestCount(),
+                    getWindowInMillis());
+        }
+    }
+
+    /**
+     * Get the latency statistics of the invoked methods and the slowest recent invocations.
+     *
+     * @return service profile
+     */
+    public ServiceProfileDTO getProfile() {
+        List<MethodProfile> methods = new ArrayList<>(methodStats.size());
+        for (MethodStats stats : methodStats.values()) {
+            Snapshot snapshot = stats.timer.getSnapshot();
+            methods.add(new MethodProfile(stats.name, stats.timer.getCount(), snapshot.size(),
+                    toMicros(snapshot.getMedian()), toMicros(snapshot.get99thPercentile()),
+                    toMicros(snapshot.getMax()), getThresholdInMillis(stats.name)));
+        }
+        methods.sort(Comparator.comparingLong(MethodProfile::getP99).reversed());
+        List<SlowInvocation> invocations = new ArrayList<>();
+        Instant expiration = getExpiration();
+        for (SlowestStripe stripe : slowestStripes) {
+            invocations.addAll(stripe.getInvocations(expiration));
+        }
+        // Every stripe keeps its own slowest ones, so the slowest of all are among them
+        invocations.sort(Comparator.comparingLong(SlowInvocation::getDurationInMicros).reversed());
+        int slowestCount = applicationProperties.getServiceProfiler().getSlowestCount();
+        if (invocations.size() > slowestCount) {
+            invocations = new ArrayList<>(invocations.subList(0, slowestCount));
+        }
+        return new ServiceProfileDTO(enabled, defaultThresholdInMillis, methods, invocations);
+    }
+
+    /**
+     * Change the settings at runtime, the null values are left unchanged.
+     *
+     * @param enabled whether invocations are profiled
+     * @param defaultThresholdInMillis threshold of the methods without their own one
+     * @param thresholdsInMillis method name, e.g. UserServiceImpl.insert, to threshold map, a null threshold removes
+     * the threshold of the method
+     */
+    public void update(Boolean enabled, Long defaultThresholdInMillis, Map<String, Long> thresholdsInMillis) {
+        if (enabled != null) {
+            this.enabled = enabled;
+        }
+        if (defaultThresholdInMillis != null) {
+            this.defaultThresholdInMillis = defaultThresholdInMillis;
+        }
+        if (thresholdsInMillis != null) {
+            thresholdsInMillis.forEach((name, threshold) -> {
+                if (threshold == null) {
+                    thresholds.remove(name);
+                } else {
+                    thresholds.put(name, threshold);
+                }
+            });
+        }
+        LOGGER.info("Updated service profiler settings, enabled: {}, default threshold: {} ms, thresholds: {}",
+                this.enabled, this.defaultThresholdInMillis, thresholds);
+    }
+
+    private long getThresholdInMillis(String name) {
+        Long threshold = thresholds.get(name);
+        return threshold == null ? defaultThresholdInMillis : threshold;
+    }
+
+    private MethodStats newMethodStats(Method method, Class<?> targetClass) {
+        // Named after the implementation, the method of a JDK proxy is declared by the interface
+        String name = ClassUtils.getUserClass(targetClass).getSimpleName() + "." + method.getName();
+        long windowInSeconds = applicationProperties.getMetrics().getLatency().getWindowInSeconds();
+        // Overloaded methods share the name and the timer
+        Timer timer = timers.computeIfAbsent(name, key -> metricRegistry.register(
+                MetricRegistry.name(ServiceProfiler.class, key), new Timer(new HdrHistogramReservoir(windowInSeconds))));
+        return new MethodStats(name, timer);
+    }
+
+    private Instant getExpiration() {
+        return Instant.now().minusMillis(getWindowInMillis());
+    }
+
+    private long getWindowInMillis() {
+        return TimeUnit.MINUTES.toMillis(applicationProperties.getServiceProfiler().getWindowInMinutes());
+    }
+
+    private static long toMicros(double nanos) {
+        return Math.round(nanos / 1000);
+    }
+
+    private static class MethodStats {
+
+        private final String     name;
+
+        private final Timer      timer;
+
+        private final AtomicLong nextWarnTime        = new AtomicLong();
+
+        private final AtomicLong suppressedWarnCount = new AtomicLong();
+
+        MethodStats(String name, Timer timer) {
+            this.name = name;
+            this.timer = timer;
+        }
+
+        /**
+         * @return number of warnings suppressed since the last one, -1 if this one is suppressed as well
+         */
+        long acquireWarning(long now) {
+            long next = nextWarnTime.get();
+            if (now < next || !nextWarnTime.compareAndSet(next, now + WARN_INTERVAL_IN_MILLIS)) {
+                suppressedWarnCount.incrementAndGet();
+                return -1;
+            }
+            return suppressedWarnCount.getAndSet(0);
+        }
+    }
+
+    private static class SlowestStripe {
+
+        /**
+         * Min heap on the duration, so the fastest of the kept invocations is the one to give way.
+         */
+        private final PriorityQueue<SlowInvocation> invocations    = new PriorityQueue<>(
+                Comparator.comparingLong(SlowInvocation::getDurationInMicros));
+
+        /**
+         * Duration of the fastest kept invocation once the stripe is full, a faster one is not kept.
+         */
+        private volatile long                       minDurationInMicros;
+
+        /**
+         * Time of the first kept invocation to expire, from then on the stripe may have room again.
+         */
+        private volatile long                       nextExpirationTime = Long.MAX_VALUE;
+
+        boolean admits(long durationInMicros, long now) {
+            return durationInMicros > minDurationInMicros || now >= nextExpirationTime;
+        }
+
+        synchronized void offer(SlowInvocation invocation, int capacity, long windowInMillis) {
+            evictExpired(invocation.getTime().minusMillis(windowInMillis));
+            invocations.offer(invocation);
+            while (invocations.size() > capacity) {
+                invocations.poll();
+            }
+            minDurationInMicros = invocations.size() >= capacity ? invocations.peek().getDurationInMicros() : 0;
+            nextExpirationTime = invocations.stream()
+                    .mapToLong(kept -> kept.getTime().toEpochMilli() + windowInMillis).min().orElse(Long.MAX_VALUE);
+        }
+
+        synchronized List<SlowInvocation> getInvocations(Instant expiration) {
+            evictExpired(expiration);
+            return new ArrayList<>(invocations);
+        }
+
+        private void evictExpired(Instant expiration) {
+            invocations.removeIf(invocation -> invocation.getTime().isBefore(expiration));
+        }
+    }
+}
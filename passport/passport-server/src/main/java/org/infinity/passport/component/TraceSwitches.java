@@ -0,0 +1,117 @@
+package org.infinity.passport.component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.infinity.passport.dto.TraceSwitchDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runtime switches of the entry and exit tracing of the logging aspect, per package or class. While no switch is on
+ * the aspect only reads one volatile field. The switch of a class is resolved once by the longest matching name and
+ * cached until the switches change.
+ */
+@Component
+public class TraceSwitches {
+
+    private static final TraceSwitch            OFF      = new TraceSwitch(new TraceSwitchDTO("", 0, 0));
+
+    private final Map<String, TraceSwitch>      switches = new ConcurrentHashMap<>();
+
+    /**
+     * Replaced as a whole on changes, so a resolution racing with a change can not be cached afterwards.
+     */
+    private volatile Map<Class<?>, TraceSwitch> resolved = new ConcurrentHashMap<>();
+
+    private volatile boolean                    anySwitchOn;
+
+    public boolean isAnySwitchOn() {
+        return anySwitchOn;
+    }
+
+    /**
+     * Decide whether the invocation of a method of the class is traced, applying the sampling and the rate limit of
+     * its switch.
+     *
+     * @param type class of the invoked bean
+     * @return true if traced
+     */
+    public boolean shouldTrace(Class<?> type) {
+        Map<Class<?>, TraceSwitch> resolvedSwitches = resolved;
+        TraceSwitch traceSwitch = resolvedSwitches.get(type);
+        if (traceSwitch == null) {
+            traceSwitch = resolvedSwitches.computeIfAbsent(type, this::resolve);
+        }
+        return traceSwitch != OFF && traceSwitch.tryAcquire();
+    }
+
+    public List<TraceSwitchDTO> getSwitches() {
+        return switches.values().stream().map(traceSwitch -> traceSwitch.config).collect(Collectors.toList());
+    }
+
+    public synchronized void turnOn(TraceSwitchDTO config) {
+        if (config.getSampleRate() <= 0 || config.getSampleRate() > 1) {
+            throw new IllegalArgumentException("Sample rate must be in (0, 1]: " + config.getSampleRate());
+        }
+        switches.put(config.getName(), new TraceSwitch(config));
+        changed();
+    }
+
+    public synchronized void turnOff(String name) {
+        switches.remove(name);
+        changed();
+    }
+
+    private void changed() {
+        resolved = new ConcurrentHashMap<>();
+        anySwitchOn = !switches.isEmpty();
+    }
+
+    private TraceSwitch resolve(Class<?> type) {
+        String typeName = type.getName();
+        TraceSwitch match = OFF;
+        int matchLength = -1;
+        for (Map.Entry<String, TraceSwitch> entry : switches.entrySet()) {
+            String name = entry.getKey();
+            boolean matches = typeName.equals(name) || typeName.startsWith(name + ".")
+                    || typeName.startsWith(name + "$");
+            if (matches && name.length() > matchLength) {
+                match = entry.getValue();
+                matchLength = name.length();
+            }
+        }
+        return match;
+    }
+
+    private static class TraceSwitch {
+
+        private final TraceSwitchDTO config;
+
+        private final AtomicLong     currentSecond  = new AtomicLong();
+
+        private final AtomicLong     tracedInSecond = new AtomicLong();
+
+        TraceSwitch(TraceSwitchDTO config) {
+            this.config = config;
+        }
+
+        boolean tryAcquire() {
+            if (config.getSampleRate() < 1 && ThreadLocalRandom.current().nextDouble() >= config.getSampleRate()) {
+                return false;
+            }
+            if (config.getMaxPerSecond() <= 0) {
+                return true;
+            }
+            long second = System.currentTimeMillis() / 1000;
+            long current = currentSecond.get();
+            if (second != current && currentSecond.compareAndSet(current, second)) {
+                tracedInSecond.set(0);
+            }
+            return tracedInSecond.incrementAndGet() <= config.getMaxPerSecond();
+        }
+    }
+}
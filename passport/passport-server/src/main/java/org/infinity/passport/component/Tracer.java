@@ -0,0 +1,302 @@
+package org.infinity.passport.component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.infinity.passport.config.ApplicationProperties;
+import org.infinity.passport.dto.TraceDTO;
+import org.infinity.passport.dto.TraceDTO.SpanDTO;
+import org.infinity.passport.exception.NoDataException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process tracing of the requests. A trace is bound to the request thread and collects the spans of the
+ * controller, service, repository, Mongo command and outbound HTTP invocations on that thread. The trace id is always
+ * generated here, put in the MDC as traceId and propagated to the outbound requests in the X-Trace-Id header, the
+ * X-Trace-Id of the caller is only kept as the parent trace id, so a caller can neither choose nor collide with the
+ * ids of this service. Every request is traced, because
+ * whether it is slow is only known at its end, but only the sampled and the slow traces are kept, each in a bounded
+ * queue of the latest ones. The spans of a trace are bounded as well, the surplus is only counted: a trace collects up
+ * to max-spans-per-slow-trace spans, all kept if it turns out slow, and a sampled trace is cut to max-spans-per-trace.
+ */
+@Component
+public class Tracer {
+
+    public static final String              TRACE_ID_HEADER  = "X-Trace-Id";
+
+    public static final String              MDC_KEY          = "traceId";
+
+    private static final Logger             LOGGER           = LoggerFactory.getLogger(Tracer.class);
+
+    private static final Pattern            TRACE_ID_PATTERN = Pattern.compile("[0-9a-zA-Z_-]{1,64}");
+
+    private static final ThreadLocal<Trace> CURRENT          = new ThreadLocal<>();
+
+    @Autowired
+    private ApplicationProperties           applicationProperties;
+
+    private final Deque<Trace>              sampledTraces    = new ArrayDeque<>();
+
+    private final Deque<Trace>              slowTraces       = new ArrayDeque<>();
+
+    /**
+     * Start a trace on the current thread.
+     *
+     * @param parentTraceId trace id propagated by the caller, ignored if null or malformed
+     * @return trace, null if tracing is disabled or the thread is traced already, e.g. on an error dispatch
+     */
+    public Trace start(String parentTraceId) {
+        ApplicationProperties.Metrics.Tracing config = applicationProperties.getMetrics().getTracing();
+        if (!config.isEnabled() || CURRENT.get() != null) {
+            return null;
+        }
+        String parentId = parentTraceId != null && TRACE_ID_PATTERN.matcher(parentTraceId).matches() ? parentTraceId
+                : null;
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < config.getSampleRate();
+        Trace trace = new Trace(newTraceId(), parentId, sampled, config.getMaxSpansPerTrace(),
+                Math.max(config.getMaxSpansPerTrace(), config.getMaxSpansPerSlowTrace()));
+        CURRENT.set(trace);
+        MDC.put(MDC_KEY, trace.traceId);
+        return trace;
+    }
+
+    /**
+     * Finish the trace of the current thread and keep it if sampled or slow.
+     *
+     * @param trace trace returned by {@link #start(String)}
+     * @param name HTTP method and route template
+     * @param status HTTP status
+     */
+    public void finish(Trace trace, String name, int status) {
+        trace.durationInNanos = System.nanoTime() - trace.startNanos;
+        trace.name = name;
+        trace.status = status;
+        CURRENT.remove();
+        MDC.remove(MDC_KEY);
+
+        ApplicationProperties.Metrics.Tracing config = applicationProperties.getMetrics().getTracing();
+        long durationInMillis = TimeUnit.NANOSECONDS.toMillis(trace.durationInNanos);
+        trace.slow = durationInMillis >= config.getSlowThresholdInMillis();
+        if (trace.slow) {
+            LOGGER.warn("Slow request {} took {} ms with {} spans, trace {}, parent trace {}", name, durationInMillis,
+                    trace.spans.size(), trace.traceId, trace.parentTraceId);
+            keep(slowTraces, trace, config.getSlowCapacity());
+        } else if (trace.sampled) {
+            trace.trimSpans();
+            keep(sampledTraces, trace, config.getSampledCapacity());
+        }
+    }
+
+    public boolean isTracing() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * @return trace id of the current thread, null if not traced
+     */
+    public String getTraceId() {
+        Trace trace = CURRENT.get();
+        return trace == null ? null : trace.traceId;
+    }
+
+    /**
+     * Start a span in the trace of the current thread, as a child of the innermost unfinished span.
+     *
+     * @param kind controller, service, repository, mongo or http
+     * @param name name of the invocation
+     * @return span, null if the thread is not traced or the trace is full
+     */
+    public Span startSpan(String kind, String name) {
+        Trace trace = CURRENT.get();
+        if (trace == null) {
+            return null;
+        }
+        if (trace.spans.size() >= trace.maxSlowSpans) {
+            trace.droppedSpanCount++;
+            return null;
+        }
+        Span span = new Span(trace, trace.spans.size() + 1, trace.currentSpanId, kind, name);
+        trace.spans.add(span);
+        trace.currentSpanId = span.id;
+        return span;
+    }
+
+    /**
+     * Finish a span, a null span is ignored.
+     *
+     * @param span span returned by {@link #startSpan(String, String)}
+     * @param error exception thrown by the invocation, null on success
+     */
+    public void finishSpan(Span span, Throwable error) {
+        if (span == null) {
+            return;
+        }
+        span.durationInNanos = System.nanoTime() - span.startNanos;
+        span.error = error == null ? null : error.getClass().getSimpleName();
+        span.trace.currentSpanId = span.parentId;
+    }
+
+    /**
+     * Get the latest kept traces without their spans, the latest first.
+     *
+     * @param slow true for the slow traces, false for the sampled ones
+     * @param limit maximum number of traces
+     * @return traces
+     */
+    public List<TraceDTO> getTraces(boolean slow, int limit) {
+        Deque<Trace> traces = slow ? slowTraces : sampledTraces;
+        List<TraceDTO> results = new ArrayList<>();
+        synchronized (traces) {
+            Iterator<Trace> iterator = traces.descendingIterator();
+            while (iterator.hasNext() && results.size() < limit) {
+                results.add(iterator.next().toDTO(false));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Get a kept trace with its spans.
+     *
+     * @param traceId trace id
+     * @return trace
+     */
+    public TraceDTO getTrace(String traceId) {
+        for (Deque<Trace> traces : Arrays.asList(slowTraces, sampledTraces)) {
+            synchronized (traces) {
+                for (Trace trace : traces) {
+                    if (trace.traceId.equals(traceId)) {
+                        return trace.toDTO(true);
+                    }
+                }
+            }
+        }
+        throw new NoDataException(traceId);
+    }
+
+    private static void keep(Deque<Trace> traces, Trace trace, int capacity) {
+        synchronized (traces) {
+            traces.addLast(trace);
+            while (traces.size() > capacity) {
+                traces.removeFirst();
+            }
+        }
+    }
+
+    private static String newTraceId() {
+        return Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * Trace of a request, only changed by the request thread until it is finished.
+     */
+    public static final class Trace {
+
+        private final String     traceId;
+
+        private final String     parentTraceId;
+
+        private final boolean    sampled;
+
+        private final int        maxSpans;
+
+        private final int        maxSlowSpans;
+
+        private final Instant    startTime  = Instant.now();
+
+        private final long       startNanos = System.nanoTime();
+
+        private final List<Span> spans      = new ArrayList<>();
+
+        private int              currentSpanId;
+
+        private int              droppedSpanCount;
+
+        private String           name;
+
+        private int              status;
+
+        private long             durationInNanos;
+
+        private boolean          slow;
+
+        Trace(String traceId, String parentTraceId, boolean sampled, int maxSpans, int maxSlowSpans) {
+            this.traceId = traceId;
+            this.parentTraceId = parentTraceId;
+            this.sampled = sampled;
+            this.maxSpans = maxSpans;
+            this.maxSlowSpans = maxSlowSpans;
+        }
+
+        public String getTraceId() {
+            return traceId;
+        }
+
+        /**
+         * Cut the spans to the bound of the traces which are not slow, the spans are in start order so the parents
+         * of the kept ones are kept as well.
+         */
+        void trimSpans() {
+            if (spans.size() > maxSpans) {
+                droppedSpanCount += spans.size() - maxSpans;
+                spans.subList(maxSpans, spans.size()).clear();
+            }
+        }
+
+        TraceDTO toDTO(boolean withSpans) {
+            List<SpanDTO> spanDTOs = null;
+            if (withSpans) {
+                spanDTOs = new ArrayList<>(spans.size());
+                for (Span span : spans) {
+                    spanDTOs.add(new SpanDTO(span.id, span.parentId, span.kind, span.name,
+                            toMicros(span.startNanos - startNanos), toMicros(span.durationInNanos), span.error));
+                }
+            }
+            return new TraceDTO(traceId, parentTraceId, name, status, startTime, toMicros(durationInNanos), sampled,
+                    slow, droppedSpanCount, spanDTOs);
+        }
+    }
+
+    public static final class Span {
+
+        private final Trace  trace;
+
+        private final int    id;
+
+        private final int    parentId;
+
+        private final String kind;
+
+        private final String name;
+
+        private final long   startNanos = System.nanoTime();
+
+        private long         durationInNanos;
+
+        private String       error;
+
+        Span(Trace trace, int id, int parentId, String kind, String name) {
+            this.trace = trace;
+            this.id = id;
+            this.parentId = parentId;
+            this.kind = kind;
+            this.name = name;
+        }
+    }
+}
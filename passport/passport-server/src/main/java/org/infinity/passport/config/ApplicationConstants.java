@@ -26,7 +26,7 @@ public final class ApplicationConstants {
     // Spring profile used to disable AOP logging
     public static final String              SPRING_PROFILE_NO_AOP_LOGGING  = "no-aop-logging";
 
-    // Spring profile used to enable service metrics
+    // Spring profile formerly used to enable service metrics, the service profiler is always on now
     public static final String              SPRING_PROFILE_SERVICE_METRICS = "service-metrics";
 
     // Spring profile used to tracing request with Spring Cloud Zipkin
@@ -1,5 +1,8 @@
 package org.infinity.passport.config;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -46,6 +49,14 @@ public class ApplicationProperties {
 
     private final Url                  url                  = new Url();
 
+    private final Dict                 dict                 = new Dict();
+
+    private final ServiceProfiler      serviceProfiler      = new ServiceProfiler();
+
+    private final FlightRecorder       flightRecorder       = new FlightRecorder();
+
+    private final QueryBudget          queryBudget          = new QueryBudget();
+
     public Directory getDirectory() {
         return directory;
     }
@@ -110,6 +121,22 @@ public class ApplicationProperties {
         return url;
     }
 
+    public Dict getDict() {
+        return dict;
+    }
+
+    public ServiceProfiler getServiceProfiler() {
+        return serviceProfiler;
+    }
+
+    public FlightRecorder getFlightRecorder() {
+        return flightRecorder;
+    }
+
+    public QueryBudget getQueryBudget() {
+        return queryBudget;
+    }
+
     public static class Directory {
         private String config    = "classpath:config";
 
@@ -338,13 +365,25 @@ public class ApplicationProperties {
 
     public static class Metrics {
 
-        private final Jmx      jmx      = new Jmx();
+        private final Jmx           jmx           = new Jmx();
+
+        private final Spark         spark         = new Spark();
 
-        private final Spark    spark    = new Spark();
+        private final Graphite      graphite      = new Graphite();
 
-        private final Graphite graphite = new Graphite();
+        private final Logs          logs          = new Logs();
 
-        private final Logs     logs     = new Logs();
+        private final Latency       latency       = new Latency();
+
+        private final Mongo         mongo         = new Mongo();
+
+        private final Health        health        = new Health();
+
+        private final ResourceUsage resourceUsage = new ResourceUsage();
+
+        private final HotKeys       hotKeys       = new HotKeys();
+
+        private final Tracing       tracing       = new Tracing();
 
         public Jmx getJmx() {
             return jmx;
@@ -362,6 +401,30 @@ public class ApplicationProperties {
             return logs;
         }
 
+        public Latency getLatency() {
+            return latency;
+        }
+
+        public Mongo getMongo() {
+            return mongo;
+        }
+
+        public Health getHealth() {
+            return health;
+        }
+
+        public ResourceUsage getResourceUsage() {
+            return resourceUsage;
+        }
+
+        public HotKeys getHotKeys() {
+            return hotKeys;
+        }
+
+        public Tracing getTracing() {
+            return tracing;
+        }
+
         public static class Jmx {
 
             private boolean enabled = true;
@@ -410,13 +473,23 @@ public class ApplicationProperties {
 
         public static class Graphite {
 
-            private boolean enabled = false;
+            private boolean  enabled                  = false;
 
-            private String  host    = "localhost";
+            private String   host                     = "localhost";
+
+            private int      port                     = 2003;
+
+            private String   prefix                   = "";
 
-            private int     port    = 2003;
+            private Protocol protocol                 = Protocol.PLAINTEXT;
 
-            private String  prefix  = "";
+            private int      batchSize                = 100;
+
+            private int      reportFrequencyInSeconds = 60;
+
+            private long     initialBackoffInMillis   = 1000L;
+
+            private long     maxBackoffInMillis       = 300000L;
 
             public boolean isEnabled() {
                 return enabled;
@@ -449,6 +522,321 @@ public class ApplicationProperties {
             public void setPrefix(String prefix) {
                 this.prefix = prefix;
             }
+
+            public Protocol getProtocol() {
+                return protocol;
+            }
+
+            public void setProtocol(Protocol protocol) {
+                this.protocol = protocol;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public int getReportFrequencyInSeconds() {
+                return reportFrequencyInSeconds;
+            }
+
+            public void setReportFrequencyInSeconds(int reportFrequencyInSeconds) {
+                this.reportFrequencyInSeconds = reportFrequencyInSeconds;
+            }
+
+            public long getInitialBackoffInMillis() {
+                return initialBackoffInMillis;
+            }
+
+            public void setInitialBackoffInMillis(long initialBackoffInMillis) {
+                this.initialBackoffInMillis = initialBackoffInMillis;
+            }
+
+            public long getMaxBackoffInMillis() {
+                return maxBackoffInMillis;
+            }
+
+            public void setMaxBackoffInMillis(long maxBackoffInMillis) {
+                this.maxBackoffInMillis = maxBackoffInMillis;
+            }
+
+            public enum Protocol {
+                PLAINTEXT, PICKLE
+            }
+        }
+
+        public static class Latency {
+
+            private long windowInSeconds = 60L;
+
+            public long getWindowInSeconds() {
+                return windowInSeconds;
+            }
+
+            public void setWindowInSeconds(long windowInSeconds) {
+                this.windowInSeconds = windowInSeconds;
+            }
+        }
+
+        public static class Mongo {
+
+            private long slowCommandThresholdInMillis = 100L;
+
+            public long getSlowCommandThresholdInMillis() {
+                return slowCommandThresholdInMillis;
+            }
+
+            public void setSlowCommandThresholdInMillis(long slowCommandThresholdInMillis) {
+                this.slowCommandThresholdInMillis = slowCommandThresholdInMillis;
+            }
+        }
+
+        public static class ResourceUsage {
+
+            private boolean enabled    = false;
+
+            private int     sampleSize = 128;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getSampleSize() {
+                return sampleSize;
+            }
+
+            public void setSampleSize(int sampleSize) {
+                this.sampleSize = sampleSize;
+            }
+        }
+
+        public static class HotKeys {
+
+            private boolean enabled         = true;
+
+            private long    windowInSeconds = 60L;
+
+            private int     bucketCount     = 6;
+
+            private int     depth           = 4;
+
+            private int     width           = 2048;
+
+            private int     capacity        = 100;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getWindowInSeconds() {
+                return windowInSeconds;
+            }
+
+            public void setWindowInSeconds(long windowInSeconds) {
+                this.windowInSeconds = windowInSeconds;
+            }
+
+            public int getBucketCount() {
+                return bucketCount;
+            }
+
+            public void setBucketCount(int bucketCount) {
+                this.bucketCount = bucketCount;
+            }
+
+            public int getDepth() {
+                return depth;
+            }
+
+            public void setDepth(int depth) {
+                this.depth = depth;
+            }
+
+            public int getWidth() {
+                return width;
+            }
+
+            public void setWidth(int width) {
+                this.width = width;
+            }
+
+            public int getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(int capacity) {
+                this.capacity = capacity;
+            }
+        }
+
+        public static class Tracing {
+
+            private boolean enabled               = true;
+
+            private double  sampleRate            = 0.01;
+
+            private long    slowThresholdInMillis = 1000L;
+
+            private int     maxSpansPerTrace      = 200;
+
+            private int     maxSpansPerSlowTrace  = 2000;
+
+            private int     sampledCapacity       = 100;
+
+            private int     slowCapacity          = 100;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public double getSampleRate() {
+                return sampleRate;
+            }
+
+            public void setSampleRate(double sampleRate) {
+                this.sampleRate = sampleRate;
+            }
+
+            public long getSlowThresholdInMillis() {
+                return slowThresholdInMillis;
+            }
+
+            public void setSlowThresholdInMillis(long slowThresholdInMillis) {
+                this.slowThresholdInMillis = slowThresholdInMillis;
+            }
+
+            public int getMaxSpansPerTrace() {
+                return maxSpansPerTrace;
+            }
+
+            public void setMaxSpansPerTrace(int maxSpansPerTrace) {
+                this.maxSpansPerTrace = maxSpansPerTrace;
+            }
+
+            public int getMaxSpansPerSlowTrace() {
+                return maxSpansPerSlowTrace;
+            }
+
+            public void setMaxSpansPerSlowTrace(int maxSpansPerSlowTrace) {
+                this.maxSpansPerSlowTrace = maxSpansPerSlowTrace;
+            }
+
+            public int getSampledCapacity() {
+                return sampledCapacity;
+            }
+
+            public void setSampledCapacity(int sampledCapacity) {
+                this.sampledCapacity = sampledCapacity;
+            }
+
+            public int getSlowCapacity() {
+                return slowCapacity;
+            }
+
+            public void setSlowCapacity(int slowCapacity) {
+                this.slowCapacity = slowCapacity;
+            }
+        }
+
+        public static class Health {
+
+            private long            cacheInSeconds     = 10L;
+
+            private final Threshold mongoPing          = new Threshold(50, 500, true);
+
+            private final Threshold executorSaturation = new Threshold(0.5, 0.9);
+
+            private final Threshold auditBacklog       = new Threshold(0.5, 0.9);
+
+            private final Threshold mailTransport      = new Threshold(1000, 5000);
+
+            private final Threshold hanlp              = new Threshold(100, 1000);
+
+            public long getCacheInSeconds() {
+                return cacheInSeconds;
+            }
+
+            public void setCacheInSeconds(long cacheInSeconds) {
+                this.cacheInSeconds = cacheInSeconds;
+            }
+
+            public Threshold getMongoPing() {
+                return mongoPing;
+            }
+
+            public Threshold getExecutorSaturation() {
+                return executorSaturation;
+            }
+
+            public Threshold getAuditBacklog() {
+                return auditBacklog;
+            }
+
+            public Threshold getMailTransport() {
+                return mailTransport;
+            }
+
+            public Threshold getHanlp() {
+                return hanlp;
+            }
+
+            public static class Threshold {
+
+                private double  degraded;
+
+                private double  unhealthy;
+
+                private boolean critical;
+
+                public Threshold(double degraded, double unhealthy) {
+                    this(degraded, unhealthy, false);
+                }
+
+                public Threshold(double degraded, double unhealthy, boolean critical) {
+                    this.degraded = degraded;
+                    this.unhealthy = unhealthy;
+                    this.critical = critical;
+                }
+
+                public double getDegraded() {
+                    return degraded;
+                }
+
+                public void setDegraded(double degraded) {
+                    this.degraded = degraded;
+                }
+
+                public double getUnhealthy() {
+                    return unhealthy;
+                }
+
+                public void setUnhealthy(double unhealthy) {
+                    this.unhealthy = unhealthy;
+                }
+
+                public boolean isCritical() {
+                    return critical;
+                }
+
+                public void setCritical(boolean critical) {
+                    this.critical = critical;
+                }
+            }
         }
 
         public static class Logs {
@@ -626,7 +1014,19 @@ public class ApplicationProperties {
 
     public static class UserAuditEvent {
 
-        private boolean enabled = false;
+        private boolean       enabled           = false;
+
+        private int           retentionInMonths = 0;
+
+        private int           maxFindResults    = 10000;
+
+        private final Writer  writer            = new Writer();
+
+        private final Folding folding           = new Folding();
+
+        private final Stream  stream            = new Stream();
+
+        private final Archive archive           = new Archive();
 
         public boolean isEnabled() {
             return enabled;
@@ -635,6 +1035,265 @@ public class ApplicationProperties {
         public void setEnabled(boolean enabled) {
             this.enabled = enabled;
         }
+
+        public int getRetentionInMonths() {
+            return retentionInMonths;
+        }
+
+        public void setRetentionInMonths(int retentionInMonths) {
+            this.retentionInMonths = retentionInMonths;
+        }
+
+        public int getMaxFindResults() {
+            return maxFindResults;
+        }
+
+        public void setMaxFindResults(int maxFindResults) {
+            this.maxFindResults = maxFindResults;
+        }
+
+        public Writer getWriter() {
+            return writer;
+        }
+
+        public Folding getFolding() {
+            return folding;
+        }
+
+        public Stream getStream() {
+            return stream;
+        }
+
+        public Archive getArchive() {
+            return archive;
+        }
+
+        public static class Writer {
+
+            private int            queueCapacity         = 8192;
+
+            private int            batchSize             = 500;
+
+            private long           flushIntervalInMillis = 1000L;
+
+            private OverflowPolicy overflowPolicy        = OverflowPolicy.SPILL;
+
+            private String         spillDirectory        = System.getProperty("user.home") + "/passport/audit-spill";
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public long getFlushIntervalInMillis() {
+                return flushIntervalInMillis;
+            }
+
+            public void setFlushIntervalInMillis(long flushIntervalInMillis) {
+                this.flushIntervalInMillis = flushIntervalInMillis;
+            }
+
+            public OverflowPolicy getOverflowPolicy() {
+                return overflowPolicy;
+            }
+
+            public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+                this.overflowPolicy = overflowPolicy;
+            }
+
+            public String getSpillDirectory() {
+                return spillDirectory;
+            }
+
+            public void setSpillDirectory(String spillDirectory) {
+                this.spillDirectory = spillDirectory;
+            }
+        }
+
+        public static class Archive {
+
+            private boolean enabled          = false;
+
+            private int     afterInMonths    = 3;
+
+            private String  directory        = System.getProperty("user.home") + "/passport/audit-archive";
+
+            private int     maxEventsPerFile = 100000;
+
+            private int     deleteBatchSize  = 1000;
+
+            private long    leaseInMinutes   = 60L;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getAfterInMonths() {
+                return afterInMonths;
+            }
+
+            public void setAfterInMonths(int afterInMonths) {
+                this.afterInMonths = afterInMonths;
+            }
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public void setDirectory(String directory) {
+                this.directory = directory;
+            }
+
+            public int getMaxEventsPerFile() {
+                return maxEventsPerFile;
+            }
+
+            public void setMaxEventsPerFile(int maxEventsPerFile) {
+                this.maxEventsPerFile = maxEventsPerFile;
+            }
+
+            public int getDeleteBatchSize() {
+                return deleteBatchSize;
+            }
+
+            public void setDeleteBatchSize(int deleteBatchSize) {
+                this.deleteBatchSize = deleteBatchSize;
+            }
+
+            public long getLeaseInMinutes() {
+                return leaseInMinutes;
+            }
+
+            public void setLeaseInMinutes(long leaseInMinutes) {
+                this.leaseInMinutes = leaseInMinutes;
+            }
+        }
+
+        public static class Folding {
+
+            private boolean  enabled         = false;
+
+            private long     windowInSeconds = 300L;
+
+            private int      maxKeys         = 100000;
+
+            private String[] sensitiveTypes  = new String[0];
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getWindowInSeconds() {
+                return windowInSeconds;
+            }
+
+            public void setWindowInSeconds(long windowInSeconds) {
+                this.windowInSeconds = windowInSeconds;
+            }
+
+            public int getMaxKeys() {
+                return maxKeys;
+            }
+
+            public void setMaxKeys(int maxKeys) {
+                this.maxKeys = maxKeys;
+            }
+
+            public String[] getSensitiveTypes() {
+                return sensitiveTypes;
+            }
+
+            public void setSensitiveTypes(String[] sensitiveTypes) {
+                this.sensitiveTypes = sensitiveTypes;
+            }
+        }
+
+        public static class Stream {
+
+            private int  maxSubscribers             = 20;
+
+            private int  bufferSize                 = 1024;
+
+            private long heartbeatIntervalInSeconds = 15L;
+
+            private long timeoutInMinutes           = 30L;
+
+            private int  senderThreadCount          = 2;
+
+            public int getMaxSubscribers() {
+                return maxSubscribers;
+            }
+
+            public void setMaxSubscribers(int maxSubscribers) {
+                this.maxSubscribers = maxSubscribers;
+            }
+
+            public int getBufferSize() {
+                return bufferSize;
+            }
+
+            public void setBufferSize(int bufferSize) {
+                this.bufferSize = bufferSize;
+            }
+
+            public long getHeartbeatIntervalInSeconds() {
+                return heartbeatIntervalInSeconds;
+            }
+
+            public void setHeartbeatIntervalInSeconds(long heartbeatIntervalInSeconds) {
+                this.heartbeatIntervalInSeconds = heartbeatIntervalInSeconds;
+            }
+
+            public long getTimeoutInMinutes() {
+                return timeoutInMinutes;
+            }
+
+            public void setTimeoutInMinutes(long timeoutInMinutes) {
+                this.timeoutInMinutes = timeoutInMinutes;
+            }
+
+            public int getSenderThreadCount() {
+                return senderThreadCount;
+            }
+
+            public void setSenderThreadCount(int senderThreadCount) {
+                this.senderThreadCount = senderThreadCount;
+            }
+        }
+
+        public enum OverflowPolicy {
+            /**
+             * Wait for free space in the queue
+             */
+            BLOCK,
+            /**
+             * Discard the event
+             */
+            DROP,
+            /**
+             * Append the event to a local file which is replayed on the next startup
+             */
+            SPILL
+        }
     }
 
     public static class Jenkins {
@@ -704,4 +1363,176 @@ public class ApplicationProperties {
 
     public static class Url {
     }
+
+    public static class Dict {
+
+        private long snapshotTimeToLiveInSeconds = 60L;
+
+        private long tombstoneRetentionInDays    = 30L;
+
+        private long syncLagInSeconds            = 10L;
+
+        public long getSnapshotTimeToLiveInSeconds() {
+            return snapshotTimeToLiveInSeconds;
+        }
+
+        public void setSnapshotTimeToLiveInSeconds(long snapshotTimeToLiveInSeconds) {
+            this.snapshotTimeToLiveInSeconds = snapshotTimeToLiveInSeconds;
+        }
+
+        public long getTombstoneRetentionInDays() {
+            return tombstoneRetentionInDays;
+        }
+
+        public void setTombstoneRetentionInDays(long tombstoneRetentionInDays) {
+            this.tombstoneRetentionInDays = tombstoneRetentionInDays;
+        }
+
+        public long getSyncLagInSeconds() {
+            return syncLagInSeconds;
+        }
+
+        public void setSyncLagInSeconds(long syncLagInSeconds) {
+            this.syncLagInSeconds = syncLagInSeconds;
+        }
+    }
+
+    public static class ServiceProfiler {
+
+        private boolean           enabled                  = true;
+
+        private long              defaultThresholdInMillis = 100L;
+
+        private Map<String, Long> thresholdsInMillis       = new HashMap<>();
+
+        private int               slowestCount             = 50;
+
+        private long              windowInMinutes          = 10L;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getDefaultThresholdInMillis() {
+            return defaultThresholdInMillis;
+        }
+
+        public void setDefaultThresholdInMillis(long defaultThresholdInMillis) {
+            this.defaultThresholdInMillis = defaultThresholdInMillis;
+        }
+
+        public Map<String, Long> getThresholdsInMillis() {
+            return thresholdsInMillis;
+        }
+
+        public void setThresholdsInMillis(Map<String, Long> thresholdsInMillis) {
+            this.thresholdsInMillis = thresholdsInMillis;
+        }
+
+        public int getSlowestCount() {
+            return slowestCount;
+        }
+
+        public void setSlowestCount(int slowestCount) {
+            this.slowestCount = slowestCount;
+        }
+
+        public long getWindowInMinutes() {
+            return windowInMinutes;
+        }
+
+        public void setWindowInMinutes(long windowInMinutes) {
+            this.windowInMinutes = windowInMinutes;
+        }
+    }
+
+    public static class FlightRecorder {
+
+        private String directory               = System.getProperty("user.home") + "/passport/flight-recordings";
+
+        private long   maxDurationInSeconds    = 600L;
+
+        private long   maxSizeInMb             = 100L;
+
+        private int    maxConcurrentRecordings = 1;
+
+        private long   retentionInHours        = 24L;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getMaxDurationInSeconds() {
+            return maxDurationInSeconds;
+        }
+
+        public void setMaxDurationInSeconds(long maxDurationInSeconds) {
+            this.maxDurationInSeconds = maxDurationInSeconds;
+        }
+
+        public long getMaxSizeInMb() {
+            return maxSizeInMb;
+        }
+
+        public void setMaxSizeInMb(long maxSizeInMb) {
+            this.maxSizeInMb = maxSizeInMb;
+        }
+
+        public int getMaxConcurrentRecordings() {
+            return maxConcurrentRecordings;
+        }
+
+        public void setMaxConcurrentRecordings(int maxConcurrentRecordings) {
+            this.maxConcurrentRecordings = maxConcurrentRecordings;
+        }
+
+        public long getRetentionInHours() {
+            return retentionInHours;
+        }
+
+        public void setRetentionInHours(long retentionInHours) {
+            this.retentionInHours = retentionInHours;
+        }
+    }
+
+    public static class QueryBudget {
+
+        private boolean           enabled                = true;
+
+        private long              defaultMaxTimeInMillis = 5000L;
+
+        private Map<String, Long> maxTimesInMillis       = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getDefaultMaxTimeInMillis() {
+            return defaultMaxTimeInMillis;
+        }
+
+        public void setDefaultMaxTimeInMillis(long defaultMaxTimeInMillis) {
+            this.defaultMaxTimeInMillis = defaultMaxTimeInMillis;
+        }
+
+        public Map<String, Long> getMaxTimesInMillis() {
+            return maxTimesInMillis;
+        }
+
+        public void setMaxTimesInMillis(Map<String, Long> maxTimesInMillis) {
+            this.maxTimesInMillis = maxTimesInMillis;
+        }
+    }
 }
@@ -1,8 +1,11 @@
 package org.infinity.passport.config;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import org.infinity.passport.async.ExceptionHandlingAsyncTaskExecutor;
+import org.infinity.passport.async.ExecutorMetrics;
+import org.infinity.passport.async.InstrumentedThreadPoolTaskScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
@@ -16,6 +19,8 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+import com.codahale.metrics.MetricRegistry;
+
 @Configuration
 @EnableAsync
 @EnableScheduling
@@ -26,6 +31,9 @@ public class AsyncConfiguration implements AsyncConfigurer {
     @Autowired
     private ApplicationProperties applicationProperties;
 
+    @Autowired
+    private MetricRegistry        metricRegistry;
+
     @Override
     @Bean(name = "asyncTaskExecutor")
     public Executor getAsyncExecutor() {
@@ -35,6 +43,10 @@ public class AsyncConfiguration implements AsyncConfigurer {
         executor.setMaxPoolSize(applicationProperties.getAsync().getMaxPoolSize());
         executor.setQueueCapacity(applicationProperties.getAsync().getQueueCapacity());
         executor.setThreadNamePrefix(ApplicationConstants.BASE_PACKAGE + ".asyn.executor-");
+        ExecutorMetrics executorMetrics = new ExecutorMetrics(metricRegistry, "asyncTaskExecutor",
+                executor::getThreadPoolExecutor);
+        executor.setTaskDecorator(executorMetrics);
+        executor.setRejectedExecutionHandler(executorMetrics.countRejections(new ThreadPoolExecutor.AbortPolicy()));
         LOGGER.debug("Created Async Task Executor");
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
@@ -46,7 +58,8 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     @Bean
     public ThreadPoolTaskScheduler taskScheduler() {
-        ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        ThreadPoolTaskScheduler taskScheduler = new InstrumentedThreadPoolTaskScheduler(metricRegistry,
+                "taskScheduler");
         taskScheduler.setPoolSize(10);
         taskScheduler.setRemoveOnCancelPolicy(true);
         taskScheduler.setErrorHandler(t -> LOGGER.error("Unexpected error occurred in scheduled task.", t));
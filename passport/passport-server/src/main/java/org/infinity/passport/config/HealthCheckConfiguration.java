@@ -0,0 +1,79 @@
+package org.infinity.passport.config;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.infinity.passport.config.ApplicationProperties.Metrics.Health.Threshold;
+import org.infinity.passport.health.AuditBacklogHealthCheck;
+import org.infinity.passport.health.ExecutorSaturationHealthCheck;
+import org.infinity.passport.health.HanlpHealthCheck;
+import org.infinity.passport.health.HealthCheckRegistryHealthIndicator;
+import org.infinity.passport.health.MailTransportHealthCheck;
+import org.infinity.passport.health.MongoPingHealthCheck;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+
+@Configuration
+public class HealthCheckConfiguration {
+
+    private static final Logger   LOGGER         = LoggerFactory.getLogger(HealthCheckConfiguration.class);
+
+    @Autowired
+    private HealthCheckRegistry   healthCheckRegistry;
+
+    @Autowired
+    private MetricRegistry        metricRegistry;
+
+    @Autowired
+    private MongoTemplate         mongoTemplate;
+
+    @Autowired
+    private JavaMailSenderImpl    javaMailSender;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    private final Set<String>     criticalChecks = new HashSet<>();
+
+    @PostConstruct
+    public void init() {
+        LOGGER.debug("Registering health checks");
+        ApplicationProperties.Metrics.Health health = applicationProperties.getMetrics().getHealth();
+        long cacheInMillis = TimeUnit.SECONDS.toMillis(health.getCacheInSeconds());
+        register("mongo-ping", health.getMongoPing(),
+                new MongoPingHealthCheck(mongoTemplate, health.getMongoPing(), cacheInMillis));
+        register("executor-saturation", health.getExecutorSaturation(),
+                new ExecutorSaturationHealthCheck(metricRegistry, health.getExecutorSaturation(), cacheInMillis));
+        register("audit-backlog", health.getAuditBacklog(), new AuditBacklogHealthCheck(metricRegistry,
+                applicationProperties.getUserAuditEvent().getWriter().getQueueCapacity(), health.getAuditBacklog(),
+                cacheInMillis));
+        register("mail-transport", health.getMailTransport(),
+                new MailTransportHealthCheck(javaMailSender, health.getMailTransport(), cacheInMillis));
+        register("hanlp", health.getHanlp(), new HanlpHealthCheck(health.getHanlp(), cacheInMillis));
+        LOGGER.debug("Registered health checks");
+    }
+
+    @Bean
+    public HealthCheckRegistryHealthIndicator healthCheckRegistryHealthIndicator() {
+        return new HealthCheckRegistryHealthIndicator(healthCheckRegistry, criticalChecks);
+    }
+
+    private void register(String name, Threshold threshold, HealthCheck healthCheck) {
+        healthCheckRegistry.register(name, healthCheck);
+        if (threshold.isCritical()) {
+            criticalChecks.add(name);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.infinity.passport.config;
+
+import org.infinity.passport.component.HotKeyTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+/**
+ * Registers the hot key tracker for the API requests, the token endpoints register it themselves in
+ * {@link UaaConfiguration}.
+ */
+@Configuration
+public class HotKeyConfiguration extends WebMvcConfigurerAdapter {
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(hotKeyTracker).addPathPatterns("/api/**", "/open-api/**");
+    }
+}
@@ -1,13 +1,14 @@
 package org.infinity.passport.config;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.Arrays;
 
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.infinity.passport.component.Tracer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -26,9 +27,12 @@ public class HttpClientConfiguration {
 
     private final ApplicationProperties applicationProperties;
 
+    private final Tracer                tracer;
+
     @Autowired
-    public HttpClientConfiguration(ApplicationProperties applicationProperties) {
+    public HttpClientConfiguration(ApplicationProperties applicationProperties, Tracer tracer) {
         this.applicationProperties = applicationProperties;
+        this.tracer = tracer;
     }
 
     @Bean
@@ -76,7 +80,8 @@ public class HttpClientConfiguration {
     public RestTemplate globalRestTemplate() {
         RestTemplate restTemplate = new RestTemplate();
         restTemplate.setRequestFactory(httpComponentsClientHttpRequestFactory());
-        restTemplate.setInterceptors(Collections.singletonList(new SecurityHeaderClientHttpRequestInterceptor()));
+        restTemplate.setInterceptors(Arrays.asList(new SecurityHeaderClientHttpRequestInterceptor(),
+                new TracingClientHttpRequestInterceptor()));
         return restTemplate;
     }
 
@@ -93,4 +98,31 @@ public class HttpClientConfiguration {
             return execution.execute(requestWrapper, body);
         }
     }
+
+    class TracingClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+                throws IOException {
+            String traceId = tracer.getTraceId();
+            if (traceId == null) {
+                return execution.execute(request, body);
+            }
+            HttpRequestWrapper requestWrapper = new HttpRequestWrapper(request);
+            // 将跟踪ID传给被调用方，被调用方生成自己的跟踪ID并将其记为父跟踪ID
+            requestWrapper.getHeaders().set(Tracer.TRACE_ID_HEADER, traceId);
+            // 查询参数可能包含敏感信息，跨度名称只取主机和路径
+            Tracer.Span span = tracer.startSpan("http",
+                    request.getMethod() + " " + request.getURI().getHost() + request.getURI().getPath());
+            IOException error = null;
+            try {
+                return execution.execute(requestWrapper, body);
+            } catch (IOException e) {
+                error = e;
+                throw e;
+            } finally {
+                tracer.finishSpan(span, error);
+            }
+        }
+    }
 }
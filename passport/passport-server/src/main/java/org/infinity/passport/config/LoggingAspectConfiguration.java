@@ -1,18 +1,26 @@
 package org.infinity.passport.config;
 
-import java.util.Arrays;
+import java.lang.reflect.Method;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.infinity.passport.component.TraceSwitches;
+import org.infinity.passport.utils.LogUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.util.ClassUtils;
 
 /**
  * Aspect for logging execution of service and controller Spring components.
+ * The entry and exit tracing is turned on per package or class at runtime through the LogsController, while every
+ * switch is off an invocation only pays for one volatile read.
  */
 @Aspect
 @Profile("!" + ApplicationConstants.SPRING_PROFILE_NO_AOP_LOGGING)
@@ -21,47 +29,44 @@ public class LoggingAspectConfiguration {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LoggingAspectConfiguration.class);
 
-    // @Autowired
-    // private Environment env;
+    @Autowired
+    private TraceSwitches       traceSwitches;
 
     @Pointcut("within(" + ApplicationConstants.BASE_PACKAGE + ".service..*) || within(" + ApplicationConstants.BASE_PACKAGE
             + ".controller..*)")
     public void loggingPointcut() {
     }
 
-    // @AfterThrowing(pointcut = "loggingPointcut()", throwing = "e")
-    // public void logAfterThrowing(JoinPoint joinPoint, Throwable e) {
-    // if (env.acceptsProfiles(Constants.SPRING_PROFILE_DEVELOPMENT)) {
-    // log.error("Exception in {}.{}() with cause = {} and exception {}",
-    // joinPoint.getSignature().getDeclaringTypeName(),
-    // joinPoint.getSignature().getName(), e.getCause(),
-    // e);
-    // } else {
-    // log.error("Exception in {}.{}() with cause = {}",
-    // joinPoint.getSignature().getDeclaringTypeName(),
-    // joinPoint.getSignature().getName(), e.getCause());
-    // }
-    // }
-
     @Around("loggingPointcut()")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Enter: {}.{}() with argument[s] = {}", joinPoint.getSignature().getDeclaringTypeName(),
-                    joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        boolean traced = traceSwitches.isAnySwitchOn() && traceSwitches.shouldTrace(joinPoint.getTarget().getClass());
+        if (traced) {
+            LOGGER.info("Enter: {}.{}() with argument[s] = {}", joinPoint.getSignature().getDeclaringTypeName(),
+                    joinPoint.getSignature().getName(), summarizeArguments(joinPoint));
         }
         try {
             Object result = joinPoint.proceed();
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Exit: {}.{}() with result = {}", joinPoint.getSignature().getDeclaringTypeName(),
-                        joinPoint.getSignature().getName(), result);
+            if (traced) {
+                LOGGER.info("Exit: {}.{}() with result = {}", joinPoint.getSignature().getDeclaringTypeName(),
+                        joinPoint.getSignature().getName(), LogUtils.summarize(result));
             }
             return result;
         }
         catch (IllegalArgumentException e) {
-            LOGGER.error("Illegal argument: {} in {}.{}()", Arrays.toString(joinPoint.getArgs()),
+            LOGGER.error("Illegal argument: {} in {}.{}()", summarizeArguments(joinPoint),
                     joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName());
 
             throw e;
         }
     }
+
+    /**
+     * The traced invocations may carry credentials, they are masked like in the slow service invocations.
+     */
+    private static String summarizeArguments(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return LogUtils.summarizeArguments(
+                ClassUtils.getMostSpecificMethod(method, AopUtils.getTargetClass(joinPoint.getTarget())),
+                joinPoint.getArgs());
+    }
 }
@@ -5,6 +5,7 @@ import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 
+import org.infinity.passport.utils.ResilientGraphiteSender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
@@ -16,6 +17,10 @@ import org.springframework.context.annotation.Configuration;
 import com.codahale.metrics.JmxReporter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Slf4jReporter;
+import com.codahale.metrics.graphite.Graphite;
+import com.codahale.metrics.graphite.GraphiteReporter;
+import com.codahale.metrics.graphite.GraphiteSender;
+import com.codahale.metrics.graphite.PickledGraphite;
 import com.codahale.metrics.health.HealthCheckRegistry;
 import com.codahale.metrics.jvm.BufferPoolMetricSet;
 import com.codahale.metrics.jvm.FileDescriptorRatioGauge;
@@ -86,5 +91,19 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
             reporter.start(applicationProperties.getMetrics().getLogs().getReportFrequency(), TimeUnit.SECONDS);
             LOGGER.info("Initialized Metrics Log reporting");
         }
+
+        ApplicationProperties.Metrics.Graphite graphite = applicationProperties.getMetrics().getGraphite();
+        if (graphite.isEnabled()) {
+            LOGGER.info("Initializing Metrics Graphite reporting");
+            GraphiteSender sender = graphite.getProtocol() == ApplicationProperties.Metrics.Graphite.Protocol.PICKLE
+                    ? new PickledGraphite(graphite.getHost(), graphite.getPort(), graphite.getBatchSize())
+                    : new Graphite(graphite.getHost(), graphite.getPort());
+            GraphiteReporter graphiteReporter = GraphiteReporter.forRegistry(metricRegistry)
+                    .prefixedWith(graphite.getPrefix()).convertRatesTo(TimeUnit.SECONDS)
+                    .convertDurationsTo(TimeUnit.MILLISECONDS).build(new ResilientGraphiteSender(sender,
+                            metricRegistry, graphite.getInitialBackoffInMillis(), graphite.getMaxBackoffInMillis()));
+            graphiteReporter.start(graphite.getReportFrequencyInSeconds(), TimeUnit.SECONDS);
+            LOGGER.info("Initialized Metrics Graphite reporting");
+        }
     }
 }
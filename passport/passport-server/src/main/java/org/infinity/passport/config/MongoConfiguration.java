@@ -7,6 +7,7 @@ import org.infinity.passport.config.oauth2.OAuth2AccessTokenReadConverter;
 import org.infinity.passport.config.oauth2.OAuth2AuthenticationReadConverter;
 import org.infinity.passport.config.oauth2.OAuth2RefreshTokenReadConverter;
 import org.infinity.passport.setup.DatabaseInitialSetup;
+import org.infinity.passport.utils.QueryBudgetMongoTemplate;
 import org.infinity.passport.utils.JSR310DateConverters.DateToZonedDateTimeConverter;
 import org.infinity.passport.utils.JSR310DateConverters.ZonedDateTimeToDateConverter;
 import org.slf4j.Logger;
@@ -28,6 +29,7 @@ import org.springframework.data.mongodb.core.mapping.event.ValidatingMongoEventL
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
+import com.codahale.metrics.MetricRegistry;
 import com.github.mongobee.Mongobee;
 import com.mongodb.MongoClient;
 
@@ -36,13 +38,19 @@ import com.mongodb.MongoClient;
 @EnableMongoAuditing(auditorAwareRef = "springSecurityAuditorAware")
 public class MongoConfiguration {
 
-    private final Logger         LOGGER = LoggerFactory.getLogger(MongoConfiguration.class);
+    private final Logger          LOGGER = LoggerFactory.getLogger(MongoConfiguration.class);
 
     @Autowired
-    private MongoMappingContext  mongoMappingContext;
+    private MongoMappingContext   mongoMappingContext;
 
     @Autowired
-    private SimpleMongoDbFactory mongoDbFactory;
+    private SimpleMongoDbFactory  mongoDbFactory;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MetricRegistry        metricRegistry;
 
     @Bean
     public LocalValidatorFactoryBean validator() {
@@ -77,7 +85,8 @@ public class MongoConfiguration {
 
     @Bean
     public MongoTemplate mongoTemplate() throws Exception {
-        return new MongoTemplate(mongoDbFactory, mappingMongoConverter());
+        return new QueryBudgetMongoTemplate(mongoDbFactory, mappingMongoConverter(), applicationProperties,
+                metricRegistry);
     }
 
     @Bean
@@ -0,0 +1,64 @@
+package org.infinity.passport.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.infinity.passport.component.MongoCommandMetricsListener;
+import org.infinity.passport.component.MongoCommandTracingListener;
+import org.infinity.passport.utils.QueryBudgetMongoTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+import com.mongodb.MongoClientOptions;
+
+/**
+ * Registers the metrics and tracing command listeners on the MongoClient created by Spring Boot, and attributes the
+ * commands to the calling repository method, which also starts the query budget of the call.
+ */
+@Aspect
+@Configuration
+public class MongoMetricsConfiguration {
+
+    private static final String REPOSITORY_PACKAGE = ApplicationConstants.BASE_PACKAGE + ".repository";
+
+    @Bean
+    public MongoClientOptions mongoClientOptions(MongoCommandMetricsListener mongoCommandMetricsListener,
+            MongoCommandTracingListener mongoCommandTracingListener) {
+        return MongoClientOptions.builder().addCommandListener(mongoCommandMetricsListener)
+                .addCommandListener(mongoCommandTracingListener).build();
+    }
+
+    @Pointcut("execution(* " + REPOSITORY_PACKAGE + "..*.*(..))")
+    public void repositoryPointcut() {
+    }
+
+    @Around("repositoryPointcut()")
+    public Object repositoryAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        String previous = MongoCommandMetricsListener
+                .setCaller(getRepositoryType(joinPoint).getSimpleName() + "." + joinPoint.getSignature().getName());
+        Long previousDeadline = QueryBudgetMongoTemplate.startDeadline();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            QueryBudgetMongoTemplate.restoreDeadline(previousDeadline);
+            MongoCommandMetricsListener.restoreCaller(previous);
+        }
+    }
+
+    /**
+     * The methods inherited from the Spring Data interfaces are attributed to the repository interface of the proxy.
+     */
+    static Class<?> getRepositoryType(ProceedingJoinPoint joinPoint) {
+        Class<?> declaringType = joinPoint.getSignature().getDeclaringType();
+        if (!declaringType.getName().startsWith(REPOSITORY_PACKAGE)) {
+            for (Class<?> type : ClassUtils.getAllInterfaces(joinPoint.getThis())) {
+                if (type.getName().startsWith(REPOSITORY_PACKAGE)) {
+                    return type;
+                }
+            }
+        }
+        return declaringType;
+    }
+}
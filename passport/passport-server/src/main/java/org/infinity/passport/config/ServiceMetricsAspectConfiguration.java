@@ -1,50 +1,70 @@
 package org.infinity.passport.config;
 
-import java.util.Arrays;
+import java.lang.reflect.Method;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.infinity.passport.component.ServiceProfiler;
+import org.infinity.passport.utils.LogUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Profile;
-import org.springframework.util.StopWatch;
+import org.springframework.util.ClassUtils;
 
 /**
- * Aspect for logging execution of service Spring components.
+ * Aspect for profiling execution of service Spring components.
  */
 @Aspect
-@Profile(ApplicationConstants.SPRING_PROFILE_SERVICE_METRICS)
 @Configuration
 public class ServiceMetricsAspectConfiguration {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ServiceMetricsAspectConfiguration.class);
 
+    @Autowired
+    private ServiceProfiler     serviceProfiler;
+
     @Pointcut("within(" + ApplicationConstants.BASE_PACKAGE + ".service.impl.*)")
     public void servicePointcut() {
     }
 
     @Around("servicePointcut()")
     public Object serviceAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        // The illegal arguments are logged whether the profiler is enabled or not
         try {
-            StopWatch stopWatch = new StopWatch();
-            stopWatch.start();
-            Object result = joinPoint.proceed();
-            stopWatch.stop();
-            long elapsed = stopWatch.getTotalTimeMillis();
-            long threshold = 10L;
-            if (elapsed > threshold) {
-                LOGGER.warn("@@@@@@@@@@@@@@@@@@@@@ Exit: {}.{}() with {} ms @@@@@@@@@@@@@@@@@@@@@",
-                        joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName(), elapsed);
-            }
-            return result;
+            return profile(joinPoint);
         } catch (IllegalArgumentException e) {
-            LOGGER.error("Illegal argument: {} in {}.{}()", Arrays.toString(joinPoint.getArgs()),
+            LOGGER.error("Illegal argument: {} in {}.{}()", summarizeArguments(joinPoint),
                     joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName());
 
             throw e;
         }
     }
+
+    private Object profile(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!serviceProfiler.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        long startTime = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            serviceProfiler.record(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                    joinPoint.getTarget().getClass(), joinPoint.getArgs(), System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * The service arguments may carry credentials, they are masked like in the logging aspect.
+     */
+    private static String summarizeArguments(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return LogUtils.summarizeArguments(
+                ClassUtils.getMostSpecificMethod(method, AopUtils.getTargetClass(joinPoint.getTarget())),
+                joinPoint.getArgs());
+    }
 }
@@ -0,0 +1,71 @@
+package org.infinity.passport.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.infinity.passport.component.Tracer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Aspect for recording the spans of the controller, service and repository invocations in the trace of the current
+ * request. An invocation outside of a traced request only pays for a thread local lookup.
+ */
+@Aspect
+@Configuration
+public class TracingAspectConfiguration {
+
+    @Autowired
+    private Tracer tracer;
+
+    @Pointcut("within(" + ApplicationConstants.BASE_PACKAGE + ".controller..*)")
+    public void controllerPointcut() {
+    }
+
+    @Pointcut("within(" + ApplicationConstants.BASE_PACKAGE + ".service.impl.*)")
+    public void servicePointcut() {
+    }
+
+    @Pointcut("execution(* " + ApplicationConstants.BASE_PACKAGE + ".repository..*.*(..))")
+    public void repositoryPointcut() {
+    }
+
+    @Around("controllerPointcut()")
+    public Object controllerAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!tracer.isTracing()) {
+            return joinPoint.proceed();
+        }
+        return trace(joinPoint, "controller", ClassUtils.getUserClass(joinPoint.getTarget()));
+    }
+
+    @Around("servicePointcut()")
+    public Object serviceAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!tracer.isTracing()) {
+            return joinPoint.proceed();
+        }
+        return trace(joinPoint, "service", ClassUtils.getUserClass(joinPoint.getTarget()));
+    }
+
+    @Around("repositoryPointcut()")
+    public Object repositoryAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!tracer.isTracing()) {
+            return joinPoint.proceed();
+        }
+        return trace(joinPoint, "repository", MongoMetricsConfiguration.getRepositoryType(joinPoint));
+    }
+
+    private Object trace(ProceedingJoinPoint joinPoint, String kind, Class<?> type) throws Throwable {
+        Tracer.Span span = tracer.startSpan(kind, type.getSimpleName() + "." + joinPoint.getSignature().getName());
+        Throwable error = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            error = t;
+            throw t;
+        } finally {
+            tracer.finishSpan(span, error);
+        }
+    }
+}
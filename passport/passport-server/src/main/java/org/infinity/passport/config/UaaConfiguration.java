@@ -4,6 +4,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import org.infinity.passport.component.HotKeyTracker;
+import org.infinity.passport.config.oauth2.ActiveUserAuthenticationEventPublisher;
 import org.infinity.passport.config.oauth2.MongoApprovalStore;
 import org.infinity.passport.config.oauth2.MongoAuthorizationCodeServices;
 import org.infinity.passport.config.oauth2.MongoClientDetailsService;
@@ -15,6 +17,7 @@ import org.infinity.passport.repository.OAuth2ClientDetailsRepository;
 import org.infinity.passport.repository.OAuth2CodeRepository;
 import org.infinity.passport.repository.OAuth2RefreshTokenRepository;
 import org.infinity.passport.security.AjaxLogoutSuccessHandler;
+import org.infinity.passport.service.ActiveUserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,6 +32,7 @@ import org.springframework.security.oauth2.config.annotation.web.configuration.E
 import org.springframework.security.oauth2.config.annotation.web.configuration.ResourceServerConfigurerAdapter;
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerEndpointsConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerSecurityConfigurer;
+import org.springframework.security.oauth2.config.annotation.web.configurers.ResourceServerSecurityConfigurer;
 import org.springframework.security.oauth2.provider.approval.ApprovalStore;
 import org.springframework.security.oauth2.provider.code.AuthorizationCodeServices;
 import org.springframework.security.oauth2.provider.token.TokenStore;
@@ -73,6 +77,15 @@ public class UaaConfiguration {
         @Autowired
         private AjaxLogoutSuccessHandler ajaxLogoutSuccessHandler;
 
+        @Autowired
+        private ActiveUserService        activeUserService;
+
+        @Override
+        public void configure(ResourceServerSecurityConfigurer resources) throws Exception {
+            // Count the users of the API calls as active users of their clients
+            resources.eventPublisher(new ActiveUserAuthenticationEventPublisher(activeUserService));
+        }
+
         @Override
         public void configure(HttpSecurity http) throws Exception {
             // @formatter:off
@@ -128,6 +141,9 @@ public class UaaConfiguration {
         @Autowired
         private OAuth2ClientDetailsRepository oAuth2ClientDetailsRepository;
 
+        @Autowired
+        private HotKeyTracker                 hotKeyTracker;
+
         @Override
         public void configure(ClientDetailsServiceConfigurer clients) throws Exception {
             clients.withClientDetails(new MongoClientDetailsService(oAuth2ClientDetailsRepository));
@@ -189,6 +205,7 @@ public class UaaConfiguration {
                     }
                 }
             });
+            endpoints.addInterceptor(hotKeyTracker);
         }
 
         @Override
@@ -10,8 +10,14 @@ import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRegistration;
 
+import org.infinity.passport.component.RequestLatencyRecorder;
+import org.infinity.passport.component.RequestResourceRecorder;
+import org.infinity.passport.component.Tracer;
 import org.infinity.passport.filter.CachingHttpHeadersFilter;
-import org.infinity.passport.filter.RequestExecutionTimeFilter;
+import org.infinity.passport.filter.RequestLatencyFilter;
+import org.infinity.passport.filter.RequestResourceFilter;
+import org.infinity.passport.filter.TracingFilter;
+import org.infinity.passport.servlet.PrometheusMetricsServlet;
 import org.infinity.passport.servlet.ResourceServlet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,16 +40,25 @@ import com.codahale.metrics.servlets.MetricsServlet;
 @Configuration
 public class WebConfigurer implements ServletContextInitializer, EmbeddedServletContainerCustomizer {
 
-    private static final Logger   LOGGER = LoggerFactory.getLogger(WebConfigurer.class);
+    private static final Logger     LOGGER = LoggerFactory.getLogger(WebConfigurer.class);
 
     @Autowired
-    private Environment           env;
+    private Environment             env;
 
     @Autowired
-    private ApplicationProperties applicationProperties;
+    private ApplicationProperties   applicationProperties;
 
     @Autowired(required = false)
-    private MetricRegistry        metricRegistry;
+    private MetricRegistry          metricRegistry;
+
+    @Autowired
+    private RequestLatencyRecorder  requestLatencyRecorder;
+
+    @Autowired
+    private RequestResourceRecorder requestResourceRecorder;
+
+    @Autowired
+    private Tracer                  tracer;
 
     @Override
     public void onStartup(ServletContext servletContext) throws ServletException {
@@ -118,12 +133,25 @@ public class WebConfigurer implements ServletContextInitializer, EmbeddedServlet
      * Initializes Metrics.
      */
     private void initMetrics(ServletContext servletContext, EnumSet<DispatcherType> disps) {
-        LOGGER.debug("Registering request execution time Filter");
-        FilterRegistration.Dynamic requestExecutionTimeFilter = servletContext.addFilter("requestExecuteTimeFilter",
-                new RequestExecutionTimeFilter());
-        requestExecutionTimeFilter.addMappingForUrlPatterns(disps, true, "/api/*", "/open-api/*");
-        requestExecutionTimeFilter.setAsyncSupported(true);
-        LOGGER.debug("Registered request execution time Filter");
+        LOGGER.debug("Registering tracing Filter");
+        FilterRegistration.Dynamic tracingFilter = servletContext.addFilter("tracingFilter", new TracingFilter(tracer));
+        tracingFilter.addMappingForUrlPatterns(disps, true, "/api/*", "/open-api/*");
+        tracingFilter.setAsyncSupported(true);
+        LOGGER.debug("Registered tracing Filter");
+
+        LOGGER.debug("Registering request latency Filter");
+        FilterRegistration.Dynamic requestLatencyFilter = servletContext.addFilter("requestLatencyFilter",
+                new RequestLatencyFilter(requestLatencyRecorder));
+        requestLatencyFilter.addMappingForUrlPatterns(disps, true, "/api/*", "/open-api/*");
+        requestLatencyFilter.setAsyncSupported(true);
+        LOGGER.debug("Registered request latency Filter");
+
+        LOGGER.debug("Registering request resource Filter");
+        FilterRegistration.Dynamic requestResourceFilter = servletContext.addFilter("requestResourceFilter",
+                new RequestResourceFilter(requestResourceRecorder));
+        requestResourceFilter.addMappingForUrlPatterns(disps, true, "/api/*", "/open-api/*");
+        requestResourceFilter.setAsyncSupported(true);
+        LOGGER.debug("Registered request resource Filter");
 
         LOGGER.debug("Initializing Metrics registries");
         servletContext.setAttribute(InstrumentedFilter.REGISTRY_ATTRIBUTE, metricRegistry);
@@ -144,6 +172,14 @@ public class WebConfigurer implements ServletContextInitializer, EmbeddedServlet
         metricsAdminServlet.setAsyncSupported(true);
         metricsAdminServlet.setLoadOnStartup(2);
         LOGGER.debug("Registered Metrics Servlet");
+
+        LOGGER.debug("Registering Prometheus Metrics Servlet");
+        ServletRegistration.Dynamic prometheusServlet = servletContext.addServlet("prometheusMetricsServlet",
+                new PrometheusMetricsServlet());
+        prometheusServlet.addMapping("/management/app/prometheus");
+        prometheusServlet.setAsyncSupported(true);
+        prometheusServlet.setLoadOnStartup(2);
+        LOGGER.debug("Registered Prometheus Metrics Servlet");
     }
 
     private void initResourceServlet(ServletContext servletContext, EnumSet<DispatcherType> disps) {
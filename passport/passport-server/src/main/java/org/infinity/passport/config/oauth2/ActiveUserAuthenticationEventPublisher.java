@@ -0,0 +1,36 @@
+package org.infinity.passport.config.oauth2;
+
+import org.infinity.passport.service.ActiveUserService;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+/**
+ * Records the users of the successful access token authentications as active users of their OAuth clients.
+ * It is deliberately not registered as an application event publisher, so the token authentication of every API
+ * call does not end up in the audit events.
+ */
+public class ActiveUserAuthenticationEventPublisher implements AuthenticationEventPublisher {
+
+    private final ActiveUserService activeUserService;
+
+    public ActiveUserAuthenticationEventPublisher(final ActiveUserService activeUserService) {
+        this.activeUserService = activeUserService;
+    }
+
+    @Override
+    public void publishAuthenticationSuccess(Authentication authentication) {
+        if (authentication instanceof OAuth2Authentication) {
+            OAuth2Authentication oAuth2Authentication = (OAuth2Authentication) authentication;
+            if (!oAuth2Authentication.isClientOnly()) {
+                activeUserService.recordActivity(oAuth2Authentication.getOAuth2Request().getClientId(),
+                        oAuth2Authentication.getName());
+            }
+        }
+    }
+
+    @Override
+    public void publishAuthenticationFailure(AuthenticationException exception, Authentication authentication) {
+    }
+}
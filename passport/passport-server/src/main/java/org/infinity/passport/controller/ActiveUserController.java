@@ -0,0 +1,42 @@
+package org.infinity.passport.controller;
+
+import java.time.LocalDate;
+
+import org.infinity.passport.domain.Authority;
+import org.infinity.passport.dto.ActiveUserStatsDTO;
+import org.infinity.passport.service.ActiveUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.codahale.metrics.annotation.Timed;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+/**
+ * REST controller for the active user statistics of the OAuth clients.
+ */
+@RestController
+@Api(tags = "活跃用户统计")
+public class ActiveUserController {
+
+    @Autowired
+    private ActiveUserService activeUserService;
+
+    @ApiOperation("获取客户端的每日活跃用户数及日期范围内的去重活跃用户数，为HyperLogLog估算值")
+    @GetMapping("/api/active-user/statistics")
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public ResponseEntity<ActiveUserStatsDTO> getActiveUserStatistics(
+            @ApiParam(value = "客户端ID，为空表示所有客户端", required = false) @RequestParam(value = "clientId", required = false) String clientId,
+            @ApiParam(value = "开始日期", required = true) @RequestParam(value = "from", required = true) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @ApiParam(value = "结束日期", required = true) @RequestParam(value = "to", required = true) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(activeUserService.getStatistics(clientId, from, to));
+    }
+}
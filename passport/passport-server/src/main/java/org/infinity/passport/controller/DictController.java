@@ -11,10 +11,12 @@ import javax.validation.Valid;
 import org.apache.commons.lang3.StringUtils;
 import org.infinity.passport.domain.Authority;
 import org.infinity.passport.domain.Dict;
+import org.infinity.passport.dto.DictChangesDTO;
 import org.infinity.passport.dto.DictDTO;
 import org.infinity.passport.exception.FieldValidationException;
 import org.infinity.passport.exception.NoDataException;
 import org.infinity.passport.repository.DictRepository;
+import org.infinity.passport.service.DictRevisionService;
 import org.infinity.passport.utils.HttpHeaderCreator;
 import org.infinity.passport.utils.PaginationUtils;
 import org.slf4j.Logger;
@@ -52,6 +54,9 @@ public class DictController {
     @Autowired
     private DictRepository      dictRepository;
 
+    @Autowired
+    private DictRevisionService dictRevisionService;
+
     @Autowired
     private HttpHeaderCreator   httpHeaderCreator;
 
@@ -113,6 +118,17 @@ public class DictController {
         return new ResponseEntity<>(dictDTOs, HttpStatus.OK);
     }
 
+    @ApiOperation(value = "获取指定修订号之后的数据字典增量变更", notes = "since为0或修订号过旧时返回全量数据")
+    @ApiResponses(value = { @ApiResponse(code = 200, message = "成功获取") })
+    @GetMapping("/api/dict/changes")
+    @Secured({ Authority.DEVELOPER, Authority.USER })
+    @Timed
+    public ResponseEntity<DictChangesDTO> getChanges(
+            @ApiParam(value = "客户端已同步的修订号", required = false, defaultValue = "0") @RequestParam(value = "since", required = false, defaultValue = "0") long since) {
+        LOGGER.debug("REST request to get dict changes since revision: {}", since);
+        return new ResponseEntity<>(dictRevisionService.findChangesSince(since), HttpStatus.OK);
+    }
+
     @ApiOperation("更新数据字典信息")
     @ApiResponses(value = { @ApiResponse(code = 200, message = "成功更新"), @ApiResponse(code = 400, message = "数据字典不存在") })
     @PutMapping("/api/dict/dicts")
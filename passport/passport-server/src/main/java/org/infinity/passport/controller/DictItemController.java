@@ -14,6 +14,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.infinity.passport.domain.Authority;
 import org.infinity.passport.domain.DictItem;
 import org.infinity.passport.dto.DictItemDTO;
+import org.infinity.passport.entity.DictItemSnapshot;
 import org.infinity.passport.exception.FieldValidationException;
 import org.infinity.passport.exception.NoDataException;
 import org.infinity.passport.repository.DictItemRepository;
@@ -27,6 +28,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -150,6 +152,20 @@ public class DictItemController {
         return new ResponseEntity<>(dictItemDTOs, HttpStatus.OK);
     }
 
+    @ApiOperation(value = "根据多个数据字典代码批量检索可用的数据字典项", notes = "数据来自内存快照，支持If-None-Match协商缓存")
+    @ApiResponses(value = { @ApiResponse(code = 200, message = "成功获取"), @ApiResponse(code = 304, message = "数据未变化") })
+    @GetMapping("/api/dict-item/enabled-items")
+    @Secured({ Authority.USER })
+    @Timed
+    public ResponseEntity<Map<String, List<DictItemDTO>>> getEnabledDictItems(
+            @ApiParam(value = "字典编号列表", required = true) @RequestParam(value = "dictCodes") List<String> dictCodes) {
+        LOGGER.debug("REST request to get enabled dict items : {}", dictCodes);
+        DictItemSnapshot snapshot = dictItemService.getEnabledDictItemSnapshot();
+        // The 304 response is generated by spring when the ETag matches the If-None-Match header
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(snapshot.getETag(dictCodes))
+                .body(snapshot.getDictItems(dictCodes));
+    }
+
     @ApiOperation("更新数据字典项信息")
     @ApiResponses(value = { @ApiResponse(code = 200, message = "成功更新"), @ApiResponse(code = 400, message = "字典项不存在") })
     @PutMapping("/api/dict-item/items")
@@ -0,0 +1,61 @@
+package org.infinity.passport.controller;
+
+import java.io.File;
+import java.util.List;
+
+import org.infinity.passport.component.FlightRecorder;
+import org.infinity.passport.domain.Authority;
+import org.infinity.passport.dto.FlightRecordingDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.codahale.metrics.annotation.Timed;
+
+/**
+ * Controller for starting Java Flight Recorder recordings at runtime and downloading them.
+ */
+@RestController
+public class FlightRecordingController {
+
+    @Autowired
+    private FlightRecorder flightRecorder;
+
+    @PostMapping("/management/app/flight-recordings")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public FlightRecordingDTO start(@RequestParam(value = "settings", defaultValue = "profile") String settings,
+            @RequestParam(value = "durationInSeconds", defaultValue = "60") long durationInSeconds) {
+        return flightRecorder.start(settings, durationInSeconds);
+    }
+
+    @GetMapping("/management/app/flight-recordings")
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public List<FlightRecordingDTO> getRecordings() {
+        return flightRecorder.getRecordings();
+    }
+
+    @GetMapping("/management/app/flight-recordings/{name}")
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public ResponseEntity<Resource> download(@PathVariable String name) {
+        File file = flightRecorder.getFile(name);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getName() + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM).contentLength(file.length())
+                .body(new FileSystemResource(file));
+    }
+}
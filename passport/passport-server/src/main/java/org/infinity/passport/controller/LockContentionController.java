@@ -0,0 +1,45 @@
+package org.infinity.passport.controller;
+
+import org.infinity.passport.component.LockContentionMonitor;
+import org.infinity.passport.domain.Authority;
+import org.infinity.passport.dto.LockContentionDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.codahale.metrics.annotation.Timed;
+
+/**
+ * Controller for sampling the lock contention at runtime.
+ */
+@RestController
+public class LockContentionController {
+
+    @Autowired
+    private LockContentionMonitor lockContentionMonitor;
+
+    @GetMapping("/management/app/lock-contention")
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public LockContentionDTO getContention(
+            @RequestParam(value = "limit", required = false, defaultValue = "20") int limit) {
+        return lockContentionMonitor.getContention(limit);
+    }
+
+    /**
+     * Start sampling the thread states, the results of the previous window are discarded.
+     */
+    @PutMapping("/management/app/lock-contention")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public void start(@RequestParam(value = "windowInSeconds", required = false, defaultValue = "60") long windowInSeconds,
+            @RequestParam(value = "sampleIntervalInMillis", required = false, defaultValue = "100") long sampleIntervalInMillis) {
+        lockContentionMonitor.start(windowInSeconds, sampleIntervalInMillis);
+    }
+}
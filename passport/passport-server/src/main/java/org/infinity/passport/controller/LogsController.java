@@ -3,14 +3,21 @@ package org.infinity.passport.controller;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import javax.validation.Valid;
+
+import org.infinity.passport.component.TraceSwitches;
 import org.infinity.passport.domain.Authority;
 import org.infinity.passport.dto.LoggerDTO;
+import org.infinity.passport.dto.TraceSwitchDTO;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -25,6 +32,9 @@ import ch.qos.logback.classic.LoggerContext;
 @RestController
 public class LogsController {
 
+    @Autowired
+    private TraceSwitches traceSwitches;
+
     @GetMapping("/management/app/logs")
     @Secured(Authority.DEVELOPER)
     @Timed
@@ -41,4 +51,30 @@ public class LogsController {
         LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
         context.getLogger(jsonLogger.getName()).setLevel(Level.valueOf(jsonLogger.getLevel()));
     }
+
+    @GetMapping("/management/app/logs/traces")
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public List<TraceSwitchDTO> getTraceSwitches() {
+        return traceSwitches.getSwitches();
+    }
+
+    /**
+     * Turn on the entry and exit tracing of the service and controller methods of a package or class.
+     */
+    @PutMapping("/management/app/logs/traces")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public void turnOnTrace(@Valid @RequestBody TraceSwitchDTO traceSwitch) {
+        traceSwitches.turnOn(traceSwitch);
+    }
+
+    @DeleteMapping("/management/app/logs/traces")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public void turnOffTrace(@RequestParam("name") String name) {
+        traceSwitches.turnOff(name);
+    }
 }
@@ -0,0 +1,41 @@
+package org.infinity.passport.controller;
+
+import org.infinity.passport.component.ServiceProfiler;
+import org.infinity.passport.domain.Authority;
+import org.infinity.passport.dto.ServiceProfileDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.codahale.metrics.annotation.Timed;
+
+/**
+ * Controller for view and managing the service profiler at runtime.
+ */
+@RestController
+public class ServiceProfileController {
+
+    @Autowired
+    private ServiceProfiler serviceProfiler;
+
+    @GetMapping("/management/app/service-profile")
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public ServiceProfileDTO getProfile() {
+        return serviceProfiler.getProfile();
+    }
+
+    @PutMapping("/management/app/service-profile")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public void changeSettings(@RequestBody ServiceProfileDTO.Settings settings) {
+        serviceProfiler.update(settings.getEnabled(), settings.getDefaultThresholdInMillis(),
+                settings.getThresholdsInMillis());
+    }
+}
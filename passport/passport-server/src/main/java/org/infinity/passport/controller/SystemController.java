@@ -3,26 +3,46 @@ package org.infinity.passport.controller;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.List;
 
 import javax.servlet.http.HttpServletResponse;
 
+import org.infinity.passport.component.HotKeyTracker;
+import org.infinity.passport.component.RequestLatencyRecorder;
+import org.infinity.passport.component.RequestResourceRecorder;
 import org.infinity.passport.config.ApplicationProperties;
 import org.infinity.passport.domain.Authority;
+import org.infinity.passport.dto.HotKeysDTO;
+import org.infinity.passport.dto.RequestLatencyDTO;
+import org.infinity.passport.dto.RequestResourceUsageDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
 
 @RestController
 @Api(tags = "系统")
 public class SystemController {
 
     @Autowired
-    private ApplicationProperties applicationProperties;
+    private ApplicationProperties   applicationProperties;
+
+    @Autowired
+    private RequestLatencyRecorder  requestLatencyRecorder;
+
+    @Autowired
+    private RequestResourceRecorder requestResourceRecorder;
+
+    @Autowired
+    private HotKeyTracker           hotKeyTracker;
 
     @GetMapping(value = "/api/system/redis-admin", produces = MediaType.TEXT_HTML_VALUE)
     @Secured(Authority.DEVELOPER)
@@ -42,4 +62,36 @@ public class SystemController {
     public String getIp() throws UnknownHostException {
         return InetAddress.getLocalHost().getHostAddress();
     }
+
+    @ApiOperation("获取各接口按响应状态类别的请求耗时百分位数(微秒)，按p99降序")
+    @GetMapping(value = "/api/system/request-latencies")
+    @Secured(Authority.DEVELOPER)
+    public ResponseEntity<List<RequestLatencyDTO>> getRequestLatencies() {
+        return ResponseEntity.ok(requestLatencyRecorder.getLatencies());
+    }
+
+    @ApiOperation("获取每个请求分配内存最多的接口的内存分配和CPU时间百分位数，按分配内存p99降序")
+    @GetMapping(value = "/api/system/request-resource-usages")
+    @Secured(Authority.DEVELOPER)
+    public ResponseEntity<List<RequestResourceUsageDTO>> getRequestResourceUsages(
+            @ApiParam(value = "最多返回的接口数", required = false, defaultValue = "20") @RequestParam(value = "limit", required = false, defaultValue = "20") int limit) {
+        return ResponseEntity.ok(requestResourceRecorder.getUsages(limit));
+    }
+
+    @ApiOperation("开启或关闭请求内存分配和CPU时间统计")
+    @PutMapping(value = "/api/system/request-resource-usages/enabled")
+    @Secured(Authority.DEVELOPER)
+    public ResponseEntity<Boolean> enableRequestResourceUsages(
+            @ApiParam(value = "是否开启", required = true) @RequestParam(value = "enabled", required = true) boolean enabled) {
+        requestResourceRecorder.setEnabled(enabled);
+        return ResponseEntity.ok(requestResourceRecorder.isEnabled());
+    }
+
+    @ApiOperation("获取统计窗口内请求最多的客户端、用户和接口")
+    @GetMapping(value = "/api/system/hot-keys")
+    @Secured(Authority.DEVELOPER)
+    public ResponseEntity<HotKeysDTO> getHotKeys(
+            @ApiParam(value = "每类最多返回的数量", required = false, defaultValue = "20") @RequestParam(value = "limit", required = false, defaultValue = "20") int limit) {
+        return ResponseEntity.ok(hotKeyTracker.getHotKeys(limit));
+    }
 }
@@ -0,0 +1,40 @@
+package org.infinity.passport.controller;
+
+import java.util.List;
+
+import org.infinity.passport.component.Tracer;
+import org.infinity.passport.domain.Authority;
+import org.infinity.passport.dto.TraceDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.codahale.metrics.annotation.Timed;
+
+/**
+ * Controller for viewing the sampled and slow request traces.
+ */
+@RestController
+public class TraceController {
+
+    @Autowired
+    private Tracer tracer;
+
+    @GetMapping("/management/app/traces")
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public List<TraceDTO> getTraces(@RequestParam(value = "slow", required = false, defaultValue = "false") boolean slow,
+            @RequestParam(value = "limit", required = false, defaultValue = "20") int limit) {
+        return tracer.getTraces(slow, limit);
+    }
+
+    @GetMapping("/management/app/traces/{traceId}")
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public TraceDTO getTrace(@PathVariable String traceId) {
+        return tracer.getTrace(traceId);
+    }
+}
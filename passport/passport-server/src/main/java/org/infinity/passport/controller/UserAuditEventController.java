@@ -1,13 +1,20 @@
 package org.infinity.passport.controller;
 
 import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 
 import org.apache.commons.lang3.time.DateUtils;
+import org.infinity.passport.component.AuditEventBroadcaster;
 import org.infinity.passport.domain.Authority;
 import org.infinity.passport.domain.PersistentAuditEvent;
+import org.infinity.passport.dto.UserAuditEventStatsDTO;
+import org.infinity.passport.dto.UserAuditEventStatsDTO.Interval;
 import org.infinity.passport.repository.PersistenceAuditEventRepository;
+import org.infinity.passport.service.UserAuditEventService;
 import org.infinity.passport.utils.PaginationUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -15,11 +22,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.codahale.metrics.annotation.Timed;
 
@@ -37,13 +46,20 @@ public class UserAuditEventController {
     @Autowired
     private PersistenceAuditEventRepository persistenceAuditEventRepository;
 
-    @ApiOperation("获取用户审计事件分页列表")
+    @Autowired
+    private UserAuditEventService           userAuditEventService;
+
+    @Autowired
+    private AuditEventBroadcaster           auditEventBroadcaster;
+
+    @ApiOperation("获取用户审计事件分页列表，只能按auditEventDate排序")
     @GetMapping("/api/user-audit-event/user-audit-events")
     @Secured(Authority.DEVELOPER)
     @Timed
     public ResponseEntity<List<PersistentAuditEvent>> getUserAuditEvents(Pageable pageable,
             @ApiParam(value = "开始日期", required = false) @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
-            @ApiParam(value = "结束日期", required = false) @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to)
+            @ApiParam(value = "结束日期", required = false) @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to,
+            @ApiParam(value = "是否查询已归档事件", required = false) @RequestParam(value = "archived", required = false, defaultValue = "false") boolean archived)
             throws URISyntaxException {
         Date fromTime = DateUtils.setHours(from, 0);
         fromTime = DateUtils.setMinutes(fromTime, 0);
@@ -52,10 +68,38 @@ public class UserAuditEventController {
         toTime = DateUtils.setMinutes(toTime, 59);
         toTime = DateUtils.setSeconds(toTime, 59);
 
-        Page<PersistentAuditEvent> userAuditEvents = persistenceAuditEventRepository
-                .findByAuditEventDateBetween(pageable, fromTime.toInstant(), toTime.toInstant());
+        Page<PersistentAuditEvent> userAuditEvents = archived
+                ? userAuditEventService.findArchivedEvents(pageable, fromTime.toInstant(), toTime.toInstant())
+                : persistenceAuditEventRepository.findByAuditEventDateBetween(pageable, fromTime.toInstant(),
+                        toTime.toInstant());
         HttpHeaders headers = PaginationUtils.generatePaginationHttpHeaders(userAuditEvents,
                 "/api/user-audit-event/user-audit-events");
         return new ResponseEntity<>(userAuditEvents.getContent(), headers, HttpStatus.OK);
     }
+
+    @ApiOperation("获取用户审计事件统计，包括各时间段按事件类型的数量、事件数最多的用户及失败率")
+    @GetMapping("/api/user-audit-event/statistics")
+    @Secured(Authority.DEVELOPER)
+    @Timed
+    public ResponseEntity<UserAuditEventStatsDTO> getUserAuditEventStatistics(
+            @ApiParam(value = "开始日期", required = true) @RequestParam(value = "from", required = true) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @ApiParam(value = "结束日期", required = true) @RequestParam(value = "to", required = true) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @ApiParam(value = "时间粒度", required = false, allowableValues = "HOUR,DAY,MONTH") @RequestParam(value = "interval", required = false, defaultValue = "DAY") Interval interval,
+            @ApiParam(value = "用户数量，0-100", required = false) @RequestParam(value = "top", required = false, defaultValue = "10") int top) {
+        return ResponseEntity.ok(userAuditEventService.getStatistics(from, to, interval, top));
+    }
+
+    @ApiOperation("订阅实时用户审计事件流(Server-Sent Events)，事件名为audit-event，订阅者缓冲区满时丢弃最早的事件并发送dropped事件")
+    @GetMapping(value = "/api/user-audit-event/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Secured(Authority.DEVELOPER)
+    public ResponseEntity<SseEmitter> streamUserAuditEvents(
+            @ApiParam(value = "事件类型", required = false) @RequestParam(value = "types", required = false) List<String> types,
+            @ApiParam(value = "用户名", required = false) @RequestParam(value = "principal", required = false) String principal) {
+        SseEmitter emitter = auditEventBroadcaster
+                .subscribe(types == null ? Collections.emptySet() : new HashSet<>(types), principal);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
 }
@@ -6,6 +6,8 @@ public final class ErrorCodeConstants {
 
     public static final String ERROR_SYSTEM_EXCEPTION          = "error.system.exception";
 
+    public static final String ERROR_QUERY_TIMEOUT             = "error.query.timeout";
+
     public static final String ERROR_LOGIN_USER_NOT_EXIST      = "error.login.user.not.exist";
 
     public static final String ERROR_NO_AUTHORITIES            = "error.no.authorities";
@@ -18,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -187,6 +188,20 @@ public class ExceptionTranslatorAdvice {
                 .body(new ErrorDTO(ErrorCodeConstants.ERROR_CONCURRENCY_EXCEPTION, errorMessage));
     }
 
+    /**
+     * Query timeout handler, the query exceeded its server side time budget
+     */
+    @ExceptionHandler(QueryTimeoutException.class)
+    @ResponseBody
+    public ResponseEntity<ErrorDTO> processQueryTimeoutException(QueryTimeoutException ex) {
+        String errorMessage = messageSource.getMessage(ErrorCodeConstants.ERROR_QUERY_TIMEOUT, null,
+                ApplicationConstants.SYSTEM_LOCALE);
+        LogUtils.error(ex, errorMessage);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .headers(httpHeaderCreator.createErrorHeader(ErrorCodeConstants.ERROR_QUERY_TIMEOUT))
+                .body(new ErrorDTO(ErrorCodeConstants.ERROR_QUERY_TIMEOUT, errorMessage));
+    }
+
     /**
      * Exception handler
      */
@@ -0,0 +1,104 @@
+package org.infinity.passport.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Spring Data MongoDB collection for the HyperLogLog sketches of the active users of an OAuth client per day.
+ */
+@Document(collection = "ActiveUserSketch")
+public class ActiveUserSketch implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * clientId:day
+     */
+    @Id
+    private String            id;
+
+    private String            clientId;
+
+    /**
+     * yyyy-MM-dd in the server time zone
+     */
+    @Indexed
+    private String            day;
+
+    /**
+     * HyperLogLog registers merged from all nodes
+     */
+    private byte[]            registers;
+
+    private Instant           modifiedTime;
+
+    /**
+     * Guards the read-merge-write of the nodes
+     */
+    @Version
+    private Long              version;
+
+    public ActiveUserSketch() {
+        super();
+    }
+
+    public ActiveUserSketch(String clientId, String day) {
+        super();
+        this.id = clientId + ":" + day;
+        this.clientId = clientId;
+        this.day = day;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public void setDay(String day) {
+        this.day = day;
+    }
+
+    public byte[] getRegisters() {
+        return registers;
+    }
+
+    public void setRegisters(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public Instant getModifiedTime() {
+        return modifiedTime;
+    }
+
+    public void setModifiedTime(Instant modifiedTime) {
+        this.modifiedTime = modifiedTime;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
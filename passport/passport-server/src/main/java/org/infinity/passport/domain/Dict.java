@@ -3,16 +3,18 @@ package org.infinity.passport.domain;
 import java.io.Serializable;
 
 import org.infinity.passport.domain.base.AbstractAuditableDomain;
+import org.infinity.passport.domain.base.RevisionedDomain;
 import org.infinity.passport.dto.DictDTO;
 import org.springframework.beans.BeanUtils;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
  * Spring Data MongoDB collection for the Dict entity.
  */
 @Document(collection = "Dict")
-public class Dict extends AbstractAuditableDomain implements Serializable {
+public class Dict extends AbstractAuditableDomain implements RevisionedDomain, Serializable {
 
     private static final long serialVersionUID = 1L;
 
@@ -27,6 +29,12 @@ public class Dict extends AbstractAuditableDomain implements Serializable {
 
     private Boolean           enabled;
 
+    /**
+     * Assigned from the dict revision sequence on every write, used by the delta-sync feed.
+     */
+    @Indexed
+    private Long              revision;
+
     public Dict() {
         super();
     }
@@ -86,6 +94,14 @@ public class Dict extends AbstractAuditableDomain implements Serializable {
         this.enabled = enabled;
     }
 
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+
     @Override
     public boolean equals(Object that) {
         if (this == that) {
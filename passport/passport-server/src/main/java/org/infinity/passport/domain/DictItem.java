@@ -3,16 +3,18 @@ package org.infinity.passport.domain;
 import java.io.Serializable;
 
 import org.infinity.passport.domain.base.AbstractAuditableDomain;
+import org.infinity.passport.domain.base.RevisionedDomain;
 import org.infinity.passport.dto.DictItemDTO;
 import org.springframework.beans.BeanUtils;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
  * Spring Data MongoDB collection for the DictItem entity.
  */
 @Document(collection = "DictItem")
-public class DictItem extends AbstractAuditableDomain implements Serializable {
+public class DictItem extends AbstractAuditableDomain implements RevisionedDomain, Serializable {
 
     private static final long serialVersionUID = 1L;
 
@@ -31,6 +33,12 @@ public class DictItem extends AbstractAuditableDomain implements Serializable {
 
     private Boolean           enabled;
 
+    /**
+     * Assigned from the dict revision sequence on every write, used by the delta-sync feed.
+     */
+    @Indexed
+    private Long              revision;
+
     public DictItem() {
         super();
     }
@@ -111,6 +119,14 @@ public class DictItem extends AbstractAuditableDomain implements Serializable {
         this.enabled = enabled;
     }
 
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+
     @Override
     public boolean equals(Object that) {
         if (this == that) {
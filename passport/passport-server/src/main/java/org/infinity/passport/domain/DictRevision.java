@@ -0,0 +1,55 @@
+package org.infinity.passport.domain;
+
+import java.io.Serializable;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Spring Data MongoDB collection for the single dict revision sequence document.
+ */
+@Document(collection = "DictRevision")
+public class DictRevision implements Serializable {
+
+    private static final long  serialVersionUID = 1L;
+
+    public static final String SEQUENCE_ID      = "dict";
+
+    @Id
+    private String             id;
+
+    /**
+     * Last assigned revision
+     */
+    private Long               revision;
+
+    /**
+     * Clients whose last synchronized revision is lower than this one must do a full synchronization, because the
+     * tombstones they need have been compacted or a bulk delete happened
+     */
+    private Long               fullSyncRevision;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+
+    public Long getFullSyncRevision() {
+        return fullSyncRevision;
+    }
+
+    public void setFullSyncRevision(Long fullSyncRevision) {
+        this.fullSyncRevision = fullSyncRevision;
+    }
+}
@@ -0,0 +1,88 @@
+package org.infinity.passport.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Spring Data MongoDB collection for the deleted Dict and DictItem records, used by the delta-sync feed.
+ */
+@Document(collection = "DictTombstone")
+public class DictTombstone implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String TYPE_DICT        = "Dict";
+
+    public static final String TYPE_DICT_ITEM   = "DictItem";
+
+    @Id
+    private String             id;
+
+    /**
+     * Dict or DictItem
+     */
+    private String             type;
+
+    private String             entityId;
+
+    @Indexed
+    private Long               revision;
+
+    private Instant            deletedTime;
+
+    public DictTombstone() {
+        super();
+    }
+
+    public DictTombstone(String type, String entityId, Long revision, Instant deletedTime) {
+        super();
+        this.type = type;
+        this.entityId = entityId;
+        this.revision = revision;
+        this.deletedTime = deletedTime;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(String entityId) {
+        this.entityId = entityId;
+    }
+
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+
+    public Instant getDeletedTime() {
+        return deletedTime;
+    }
+
+    public void setDeletedTime(Instant deletedTime) {
+        this.deletedTime = deletedTime;
+    }
+}
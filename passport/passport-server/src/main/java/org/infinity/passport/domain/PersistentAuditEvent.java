@@ -32,6 +32,15 @@ public class PersistentAuditEvent implements Serializable {
 
     private Map<String, String> data             = new HashMap<>();
 
+    /**
+     * Number of folded events, null for an event stored verbatim
+     */
+    private Long                count;
+
+    private Instant             firstSeenDate;
+
+    private Instant             lastSeenDate;
+
     public String getId() {
         return id;
     }
@@ -71,4 +80,28 @@ public class PersistentAuditEvent implements Serializable {
     public void setData(Map<String, String> data) {
         this.data = data;
     }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public Instant getFirstSeenDate() {
+        return firstSeenDate;
+    }
+
+    public void setFirstSeenDate(Instant firstSeenDate) {
+        this.firstSeenDate = firstSeenDate;
+    }
+
+    public Instant getLastSeenDate() {
+        return lastSeenDate;
+    }
+
+    public void setLastSeenDate(Instant lastSeenDate) {
+        this.lastSeenDate = lastSeenDate;
+    }
 }
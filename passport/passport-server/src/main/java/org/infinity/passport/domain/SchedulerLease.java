@@ -0,0 +1,56 @@
+package org.infinity.passport.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Spring Data MongoDB collection for the leases of the scheduled jobs which must run on a single node of the cluster.
+ */
+@Document(collection = "SchedulerLease")
+public class SchedulerLease implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Name of the scheduled job
+     */
+    @Id
+    private String            id;
+
+    /**
+     * Node holding the lease
+     */
+    private String            owner;
+
+    /**
+     * The lease can be taken over by another node after this time
+     */
+    private Instant           lockedUntil;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(Instant lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+}
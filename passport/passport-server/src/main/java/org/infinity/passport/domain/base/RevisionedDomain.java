@@ -0,0 +1,20 @@
+package org.infinity.passport.domain.base;
+
+import java.time.Instant;
+
+/**
+ * Domain whose writes are stamped with a revision of the dict revision sequence, used by the delta-sync feed.
+ */
+public interface RevisionedDomain {
+
+    String getId();
+
+    Long getRevision();
+
+    void setRevision(Long revision);
+
+    /**
+     * Set by the auditing in the same save as the revision, so it is also the time the revision was taken.
+     */
+    Instant getModifiedTime();
+}
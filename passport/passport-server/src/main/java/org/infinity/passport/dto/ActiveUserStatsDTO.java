@@ -0,0 +1,80 @@
+package org.infinity.passport.dto;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel("活跃用户统计DTO")
+public class ActiveUserStatsDTO implements Serializable {
+
+    private static final long serialVersionUID = -5328102617736140584L;
+
+    @ApiModelProperty(value = "客户端ID，为空表示所有客户端")
+    private String            clientId;
+
+    @ApiModelProperty(value = "开始日期")
+    private String            from;
+
+    @ApiModelProperty(value = "结束日期")
+    private String            to;
+
+    @ApiModelProperty(value = "每日活跃用户数(DAU)")
+    private Map<String, Long> dailyActiveUsers;
+
+    @ApiModelProperty(value = "整个日期范围内的去重活跃用户数，范围为一个月时即为MAU")
+    private long              activeUsers;
+
+    public ActiveUserStatsDTO() {
+    }
+
+    public ActiveUserStatsDTO(String clientId, String from, String to, Map<String, Long> dailyActiveUsers,
+            long activeUsers) {
+        this.clientId = clientId;
+        this.from = from;
+        this.to = to;
+        this.dailyActiveUsers = dailyActiveUsers;
+        this.activeUsers = activeUsers;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public Map<String, Long> getDailyActiveUsers() {
+        return dailyActiveUsers;
+    }
+
+    public void setDailyActiveUsers(Map<String, Long> dailyActiveUsers) {
+        this.dailyActiveUsers = dailyActiveUsers;
+    }
+
+    public long getActiveUsers() {
+        return activeUsers;
+    }
+
+    public void setActiveUsers(long activeUsers) {
+        this.activeUsers = activeUsers;
+    }
+}
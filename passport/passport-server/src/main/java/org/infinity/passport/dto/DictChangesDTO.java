@@ -0,0 +1,97 @@
+package org.infinity.passport.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel("数据字典增量变更DTO")
+public class DictChangesDTO implements Serializable {
+
+    private static final long serialVersionUID = -2377652785413349201L;
+
+    @ApiModelProperty(value = "本次同步到的修订号，下次请求作为since参数")
+    private long              revision;
+
+    @ApiModelProperty(value = "是否全量数据，为true时客户端需要丢弃本地缓存")
+    private boolean           fullSync;
+
+    @ApiModelProperty(value = "新增或更新的数据字典")
+    private List<DictDTO>     dicts;
+
+    @ApiModelProperty(value = "新增或更新的数据字典项")
+    private List<DictItemDTO> dictItems;
+
+    @ApiModelProperty(value = "已删除的数据字典ID")
+    private List<String>      deletedDictIds;
+
+    @ApiModelProperty(value = "已删除的数据字典项ID")
+    private List<String>      deletedDictItemIds;
+
+    public DictChangesDTO() {
+    }
+
+    public DictChangesDTO(long revision, boolean fullSync, List<DictDTO> dicts, List<DictItemDTO> dictItems,
+            List<String> deletedDictIds, List<String> deletedDictItemIds) {
+        this.revision = revision;
+        this.fullSync = fullSync;
+        this.dicts = dicts;
+        this.dictItems = dictItems;
+        this.deletedDictIds = deletedDictIds;
+        this.deletedDictItemIds = deletedDictItemIds;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public boolean isFullSync() {
+        return fullSync;
+    }
+
+    public void setFullSync(boolean fullSync) {
+        this.fullSync = fullSync;
+    }
+
+    public List<DictDTO> getDicts() {
+        return dicts;
+    }
+
+    public void setDicts(List<DictDTO> dicts) {
+        this.dicts = dicts;
+    }
+
+    public List<DictItemDTO> getDictItems() {
+        return dictItems;
+    }
+
+    public void setDictItems(List<DictItemDTO> dictItems) {
+        this.dictItems = dictItems;
+    }
+
+    public List<String> getDeletedDictIds() {
+        return deletedDictIds;
+    }
+
+    public void setDeletedDictIds(List<String> deletedDictIds) {
+        this.deletedDictIds = deletedDictIds;
+    }
+
+    public List<String> getDeletedDictItemIds() {
+        return deletedDictItemIds;
+    }
+
+    public void setDeletedDictItemIds(List<String> deletedDictItemIds) {
+        this.deletedDictItemIds = deletedDictItemIds;
+    }
+
+    @Override
+    public String toString() {
+        return "DictChangesDTO [revision=" + revision + ", fullSync=" + fullSync + "]";
+    }
+}
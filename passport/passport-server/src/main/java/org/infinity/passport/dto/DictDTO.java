@@ -32,6 +32,9 @@ public class DictDTO extends AbstractAuditableDomain implements Serializable {
     @ApiModelProperty(value = "是否可用")
     private Boolean           enabled;
 
+    @ApiModelProperty(value = "修订号", readOnly = true)
+    private Long              revision;
+
     public DictDTO() {
     }
 
@@ -75,6 +78,14 @@ public class DictDTO extends AbstractAuditableDomain implements Serializable {
         this.enabled = enabled;
     }
 
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+
     @Override
     public String toString() {
         return "DictDTO [dictId=" + id + ", dictCode=" + dictCode + ", dictName=" + dictName + ", remark=" + remark
@@ -43,6 +43,9 @@ public class DictItemDTO extends AbstractAuditableDomain implements Serializable
     @ApiModelProperty(value = "是否可用")
     private Boolean           enabled;
 
+    @ApiModelProperty(value = "修订号", readOnly = true)
+    private Long              revision;
+
     public DictItemDTO() {
     }
 
@@ -94,6 +97,14 @@ public class DictItemDTO extends AbstractAuditableDomain implements Serializable
         this.enabled = enabled;
     }
 
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+
     public String getDictName() {
         return dictName;
     }
@@ -0,0 +1,95 @@
+package org.infinity.passport.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+public class FlightRecordingDTO implements Serializable {
+
+    private static final long serialVersionUID = -6017529245315860946L;
+
+    public enum Status {
+        RUNNING, FINISHED, FAILED
+    }
+
+    /**
+     * Name of the recording, also the name of its file without the .jfr extension
+     */
+    private String            name;
+
+    /**
+     * Settings of the recording, default or profile, unknown for the recordings of a previous run
+     */
+    private String            settings;
+
+    private Instant           startTime;
+
+    private long              durationInSeconds;
+
+    private Status            status;
+
+    /**
+     * Size of the recording file, 0 while running
+     */
+    private long              sizeInBytes;
+
+    public FlightRecordingDTO() {
+    }
+
+    public FlightRecordingDTO(String name, String settings, Instant startTime, long durationInSeconds, Status status,
+            long sizeInBytes) {
+        this.name = name;
+        this.settings = settings;
+        this.startTime = startTime;
+        this.durationInSeconds = durationInSeconds;
+        this.status = status;
+        this.sizeInBytes = sizeInBytes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSettings() {
+        return settings;
+    }
+
+    public void setSettings(String settings) {
+        this.settings = settings;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getDurationInSeconds() {
+        return durationInSeconds;
+    }
+
+    public void setDurationInSeconds(long durationInSeconds) {
+        this.durationInSeconds = durationInSeconds;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public void setSizeInBytes(long sizeInBytes) {
+        this.sizeInBytes = sizeInBytes;
+    }
+}
@@ -0,0 +1,102 @@
+package org.infinity.passport.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel("热点请求来源DTO")
+public class HotKeysDTO implements Serializable {
+
+    private static final long serialVersionUID = 2467359131409781520L;
+
+    @ApiModelProperty(value = "统计窗口(秒)")
+    private long              windowInSeconds;
+
+    @ApiModelProperty(value = "请求最多的客户端，按请求数降序")
+    private List<HotKey>      clients;
+
+    @ApiModelProperty(value = "请求最多的用户，按请求数降序")
+    private List<HotKey>      principals;
+
+    @ApiModelProperty(value = "请求最多的接口，按请求数降序")
+    private List<HotKey>      routes;
+
+    public HotKeysDTO() {
+    }
+
+    public HotKeysDTO(long windowInSeconds, List<HotKey> clients, List<HotKey> principals, List<HotKey> routes) {
+        this.windowInSeconds = windowInSeconds;
+        this.clients = clients;
+        this.principals = principals;
+        this.routes = routes;
+    }
+
+    public long getWindowInSeconds() {
+        return windowInSeconds;
+    }
+
+    public void setWindowInSeconds(long windowInSeconds) {
+        this.windowInSeconds = windowInSeconds;
+    }
+
+    public List<HotKey> getClients() {
+        return clients;
+    }
+
+    public void setClients(List<HotKey> clients) {
+        this.clients = clients;
+    }
+
+    public List<HotKey> getPrincipals() {
+        return principals;
+    }
+
+    public void setPrincipals(List<HotKey> principals) {
+        this.principals = principals;
+    }
+
+    public List<HotKey> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<HotKey> routes) {
+        this.routes = routes;
+    }
+
+    public static class HotKey implements Serializable {
+
+        private static final long serialVersionUID = -4398245913378113625L;
+
+        @ApiModelProperty(value = "客户端ID、用户名或HTTP方法加路由模板")
+        private String            key;
+
+        @ApiModelProperty(value = "统计窗口内的估计请求数，不低于实际请求数")
+        private long              count;
+
+        public HotKey() {
+        }
+
+        public HotKey(String key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+}
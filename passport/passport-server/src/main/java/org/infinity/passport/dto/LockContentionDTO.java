@@ -0,0 +1,160 @@
+package org.infinity.passport.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel("锁竞争统计DTO")
+public class LockContentionDTO implements Serializable {
+
+    private static final long    serialVersionUID = 7282046425718903364L;
+
+    @ApiModelProperty(value = "是否正在采样")
+    private boolean              running;
+
+    @ApiModelProperty(value = "采样开始时间")
+    private Instant              startTime;
+
+    @ApiModelProperty(value = "采样结束时间")
+    private Instant              endTime;
+
+    @ApiModelProperty(value = "采样次数")
+    private long                 sampleCount;
+
+    @ApiModelProperty(value = "按锁类型统计，按阻塞时间降序")
+    private List<ContentionSite> byLock;
+
+    @ApiModelProperty(value = "按栈顶应用帧统计，按阻塞时间降序")
+    private List<ContentionSite> byFrame;
+
+    public LockContentionDTO() {
+    }
+
+    public LockContentionDTO(boolean running, Instant startTime, Instant endTime, long sampleCount,
+            List<ContentionSite> byLock, List<ContentionSite> byFrame) {
+        this.running = running;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.sampleCount = sampleCount;
+        this.byLock = byLock;
+        this.byFrame = byFrame;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Instant endTime) {
+        this.endTime = endTime;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    public List<ContentionSite> getByLock() {
+        return byLock;
+    }
+
+    public void setByLock(List<ContentionSite> byLock) {
+        this.byLock = byLock;
+    }
+
+    public List<ContentionSite> getByFrame() {
+        return byFrame;
+    }
+
+    public void setByFrame(List<ContentionSite> byFrame) {
+        this.byFrame = byFrame;
+    }
+
+    public static class ContentionSite implements Serializable {
+
+        private static final long serialVersionUID = -3302569921582618549L;
+
+        @ApiModelProperty(value = "锁的类名或栈帧")
+        private String            name;
+
+        @ApiModelProperty(value = "处于BLOCKED状态的采样数")
+        private long              blockedSamples;
+
+        @ApiModelProperty(value = "阻塞于监视器的累计时间(毫秒)")
+        private long              blockedTimeInMillis;
+
+        @ApiModelProperty(value = "处于WAITING或TIMED_WAITING状态的采样数")
+        private long              waitingSamples;
+
+        @ApiModelProperty(value = "等待的累计时间(毫秒)")
+        private long              waitedTimeInMillis;
+
+        public ContentionSite() {
+        }
+
+        public ContentionSite(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getBlockedSamples() {
+            return blockedSamples;
+        }
+
+        public void setBlockedSamples(long blockedSamples) {
+            this.blockedSamples = blockedSamples;
+        }
+
+        public long getBlockedTimeInMillis() {
+            return blockedTimeInMillis;
+        }
+
+        public void setBlockedTimeInMillis(long blockedTimeInMillis) {
+            this.blockedTimeInMillis = blockedTimeInMillis;
+        }
+
+        public long getWaitingSamples() {
+            return waitingSamples;
+        }
+
+        public void setWaitingSamples(long waitingSamples) {
+            this.waitingSamples = waitingSamples;
+        }
+
+        public long getWaitedTimeInMillis() {
+            return waitedTimeInMillis;
+        }
+
+        public void setWaitedTimeInMillis(long waitedTimeInMillis) {
+            this.waitedTimeInMillis = waitedTimeInMillis;
+        }
+    }
+}
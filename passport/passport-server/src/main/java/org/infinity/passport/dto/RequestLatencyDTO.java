@@ -0,0 +1,127 @@
+package org.infinity.passport.dto;
+
+import java.io.Serializable;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel("请求耗时统计DTO")
+public class RequestLatencyDTO implements Serializable {
+
+    private static final long serialVersionUID = 3092488618406367731L;
+
+    @ApiModelProperty(value = "HTTP方法")
+    private String            method;
+
+    @ApiModelProperty(value = "路由模板")
+    private String            route;
+
+    @ApiModelProperty(value = "响应状态类别，如2xx")
+    private String            statusClass;
+
+    @ApiModelProperty(value = "启动以来的请求数")
+    private long              count;
+
+    @ApiModelProperty(value = "统计窗口内的请求数")
+    private long              windowCount;
+
+    @ApiModelProperty(value = "统计窗口内耗时的中位数(微秒)")
+    private long              p50;
+
+    @ApiModelProperty(value = "统计窗口内耗时的99百分位数(微秒)")
+    private long              p99;
+
+    @ApiModelProperty(value = "统计窗口内耗时的99.9百分位数(微秒)")
+    private long              p999;
+
+    @ApiModelProperty(value = "统计窗口内的最大耗时(微秒)")
+    private long              max;
+
+    public RequestLatencyDTO() {
+    }
+
+    public RequestLatencyDTO(String method, String route, String statusClass, long count, long windowCount, long p50,
+            long p99, long p999, long max) {
+        this.method = method;
+        this.route = route;
+        this.statusClass = statusClass;
+        this.count = count;
+        this.windowCount = windowCount;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public void setRoute(String route) {
+        this.route = route;
+    }
+
+    public String getStatusClass() {
+        return statusClass;
+    }
+
+    public void setStatusClass(String statusClass) {
+        this.statusClass = statusClass;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getWindowCount() {
+        return windowCount;
+    }
+
+    public void setWindowCount(long windowCount) {
+        this.windowCount = windowCount;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public void setP50(long p50) {
+        this.p50 = p50;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public void setP99(long p99) {
+        this.p99 = p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    public void setP999(long p999) {
+        this.p999 = p999;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public void setMax(long max) {
+        this.max = max;
+    }
+}
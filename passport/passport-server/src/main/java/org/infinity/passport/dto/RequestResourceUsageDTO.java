@@ -0,0 +1,127 @@
+package org.infinity.passport.dto;
+
+import java.io.Serializable;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel("请求资源消耗统计DTO")
+public class RequestResourceUsageDTO implements Serializable {
+
+    private static final long serialVersionUID = -1584470216947404467L;
+
+    @ApiModelProperty(value = "HTTP方法")
+    private String            method;
+
+    @ApiModelProperty(value = "路由模板")
+    private String            route;
+
+    @ApiModelProperty(value = "开启统计以来的请求数")
+    private long              count;
+
+    @ApiModelProperty(value = "统计窗口内每个请求分配内存的中位数(字节)")
+    private long              allocatedBytesP50;
+
+    @ApiModelProperty(value = "统计窗口内每个请求分配内存的99百分位数(字节)")
+    private long              allocatedBytesP99;
+
+    @ApiModelProperty(value = "统计窗口内每个请求分配内存的最大值(字节)")
+    private long              allocatedBytesMax;
+
+    @ApiModelProperty(value = "统计窗口内每个请求CPU时间的中位数(微秒)")
+    private long              cpuTimeP50;
+
+    @ApiModelProperty(value = "统计窗口内每个请求CPU时间的99百分位数(微秒)")
+    private long              cpuTimeP99;
+
+    @ApiModelProperty(value = "统计窗口内每个请求CPU时间的最大值(微秒)")
+    private long              cpuTimeMax;
+
+    public RequestResourceUsageDTO() {
+    }
+
+    public RequestResourceUsageDTO(String method, String route, long count, long allocatedBytesP50,
+            long allocatedBytesP99, long allocatedBytesMax, long cpuTimeP50, long cpuTimeP99, long cpuTimeMax) {
+        this.method = method;
+        this.route = route;
+        this.count = count;
+        this.allocatedBytesP50 = allocatedBytesP50;
+        this.allocatedBytesP99 = allocatedBytesP99;
+        this.allocatedBytesMax = allocatedBytesMax;
+        this.cpuTimeP50 = cpuTimeP50;
+        this.cpuTimeP99 = cpuTimeP99;
+        this.cpuTimeMax = cpuTimeMax;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public void setRoute(String route) {
+        this.route = route;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getAllocatedBytesP50() {
+        return allocatedBytesP50;
+    }
+
+    public void setAllocatedBytesP50(long allocatedBytesP50) {
+        this.allocatedBytesP50 = allocatedBytesP50;
+    }
+
+    public long getAllocatedBytesP99() {
+        return allocatedBytesP99;
+    }
+
+    public void setAllocatedBytesP99(long allocatedBytesP99) {
+        this.allocatedBytesP99 = allocatedBytesP99;
+    }
+
+    public long getAllocatedBytesMax() {
+        return allocatedBytesMax;
+    }
+
+    public void setAllocatedBytesMax(long allocatedBytesMax) {
+        this.allocatedBytesMax = allocatedBytesMax;
+    }
+
+    public long getCpuTimeP50() {
+        return cpuTimeP50;
+    }
+
+    public void setCpuTimeP50(long cpuTimeP50) {
+        this.cpuTimeP50 = cpuTimeP50;
+    }
+
+    public long getCpuTimeP99() {
+        return cpuTimeP99;
+    }
+
+    public void setCpuTimeP99(long cpuTimeP99) {
+        this.cpuTimeP99 = cpuTimeP99;
+    }
+
+    public long getCpuTimeMax() {
+        return cpuTimeMax;
+    }
+
+    public void setCpuTimeMax(long cpuTimeMax) {
+        this.cpuTimeMax = cpuTimeMax;
+    }
+}
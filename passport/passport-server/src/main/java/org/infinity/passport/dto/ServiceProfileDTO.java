@@ -0,0 +1,266 @@
+package org.infinity.passport.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel("服务方法性能剖析DTO")
+public class ServiceProfileDTO implements Serializable {
+
+    private static final long    serialVersionUID = -2751946513120458113L;
+
+    @ApiModelProperty(value = "是否启用")
+    private boolean              enabled;
+
+    @ApiModelProperty(value = "默认慢调用阈值(毫秒)")
+    private long                 defaultThresholdInMillis;
+
+    @ApiModelProperty(value = "各方法的耗时统计，按p99降序")
+    private List<MethodProfile>  methods;
+
+    @ApiModelProperty(value = "最近最慢的调用，按耗时降序")
+    private List<SlowInvocation> slowestInvocations;
+
+    public ServiceProfileDTO() {
+    }
+
+    public ServiceProfileDTO(boolean enabled, long defaultThresholdInMillis, List<MethodProfile> methods,
+            List<SlowInvocation> slowestInvocations) {
+        this.enabled = enabled;
+        this.defaultThresholdInMillis = defaultThresholdInMillis;
+        this.methods = methods;
+        this.slowestInvocations = slowestInvocations;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getDefaultThresholdInMillis() {
+        return defaultThresholdInMillis;
+    }
+
+    public void setDefaultThresholdInMillis(long defaultThresholdInMillis) {
+        this.defaultThresholdInMillis = defaultThresholdInMillis;
+    }
+
+    public List<MethodProfile> getMethods() {
+        return methods;
+    }
+
+    public void setMethods(List<MethodProfile> methods) {
+        this.methods = methods;
+    }
+
+    public List<SlowInvocation> getSlowestInvocations() {
+        return slowestInvocations;
+    }
+
+    public void setSlowestInvocations(List<SlowInvocation> slowestInvocations) {
+        this.slowestInvocations = slowestInvocations;
+    }
+
+    public static class MethodProfile implements Serializable {
+
+        private static final long serialVersionUID = 5540178123908153671L;
+
+        @ApiModelProperty(value = "方法名，格式为类名.方法名")
+        private String            name;
+
+        @ApiModelProperty(value = "启动以来的调用数")
+        private long              count;
+
+        @ApiModelProperty(value = "统计窗口内的调用数")
+        private long              windowCount;
+
+        @ApiModelProperty(value = "统计窗口内耗时的中位数(微秒)")
+        private long              p50;
+
+        @ApiModelProperty(value = "统计窗口内耗时的99百分位数(微秒)")
+        private long              p99;
+
+        @ApiModelProperty(value = "统计窗口内的最大耗时(微秒)")
+        private long              max;
+
+        @ApiModelProperty(value = "慢调用阈值(毫秒)")
+        private long              thresholdInMillis;
+
+        public MethodProfile() {
+        }
+
+        public MethodProfile(String name, long count, long windowCount, long p50, long p99, long max,
+                long thresholdInMillis) {
+            this.name = name;
+            this.count = count;
+            this.windowCount = windowCount;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.max = max;
+            this.thresholdInMillis = thresholdInMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public long getWindowCount() {
+            return windowCount;
+        }
+
+        public void setWindowCount(long windowCount) {
+            this.windowCount = windowCount;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public void setP50(long p50) {
+            this.p50 = p50;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public void setP99(long p99) {
+            this.p99 = p99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public void setMax(long max) {
+            this.max = max;
+        }
+
+        public long getThresholdInMillis() {
+            return thresholdInMillis;
+        }
+
+        public void setThresholdInMillis(long thresholdInMillis) {
+            this.thresholdInMillis = thresholdInMillis;
+        }
+    }
+
+    public static class SlowInvocation implements Serializable {
+
+        private static final long serialVersionUID = -8122670318462570395L;
+
+        @ApiModelProperty(value = "方法名，格式为类名.方法名")
+        private String            method;
+
+        @ApiModelProperty(value = "调用结束时间")
+        private Instant           time;
+
+        @ApiModelProperty(value = "耗时(微秒)")
+        private long              durationInMicros;
+
+        @ApiModelProperty(value = "参数摘要，敏感参数已隐藏")
+        private String            arguments;
+
+        public SlowInvocation() {
+        }
+
+        public SlowInvocation(String method, Instant time, long durationInMicros, String arguments) {
+            this.method = method;
+            this.time = time;
+            this.durationInMicros = durationInMicros;
+            this.arguments = arguments;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public Instant getTime() {
+            return time;
+        }
+
+        public void setTime(Instant time) {
+            this.time = time;
+        }
+
+        public long getDurationInMicros() {
+            return durationInMicros;
+        }
+
+        public void setDurationInMicros(long durationInMicros) {
+            this.durationInMicros = durationInMicros;
+        }
+
+        public String getArguments() {
+            return arguments;
+        }
+
+        public void setArguments(String arguments) {
+            this.arguments = arguments;
+        }
+    }
+
+    public static class Settings implements Serializable {
+
+        private static final long serialVersionUID = 3359004836711291450L;
+
+        @ApiModelProperty(value = "是否启用，为空表示不修改")
+        private Boolean           enabled;
+
+        @ApiModelProperty(value = "默认慢调用阈值(毫秒)，为空表示不修改")
+        private Long              defaultThresholdInMillis;
+
+        @ApiModelProperty(value = "各方法的慢调用阈值(毫秒)，阈值为空表示删除该方法的阈值")
+        private Map<String, Long> thresholdsInMillis;
+
+        public Settings() {
+        }
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Long getDefaultThresholdInMillis() {
+            return defaultThresholdInMillis;
+        }
+
+        public void setDefaultThresholdInMillis(Long defaultThresholdInMillis) {
+            this.defaultThresholdInMillis = defaultThresholdInMillis;
+        }
+
+        public Map<String, Long> getThresholdsInMillis() {
+            return thresholdsInMillis;
+        }
+
+        public void setThresholdsInMillis(Map<String, Long> thresholdsInMillis) {
+            this.thresholdsInMillis = thresholdsInMillis;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.infinity.passport.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel("请求跟踪DTO")
+public class TraceDTO implements Serializable {
+
+    private static final long serialVersionUID = -3118620564951708113L;
+
+    @ApiModelProperty(value = "跟踪ID")
+    private String            traceId;
+
+    @ApiModelProperty(value = "调用方传入的跟踪ID，没有时为空")
+    private String            parentTraceId;
+
+    @ApiModelProperty(value = "HTTP方法加路由模板")
+    private String            name;
+
+    @ApiModelProperty(value = "HTTP状态码")
+    private int               status;
+
+    @ApiModelProperty(value = "开始时间")
+    private Instant           startTime;
+
+    @ApiModelProperty(value = "耗时(微秒)")
+    private long              durationInMicros;
+
+    @ApiModelProperty(value = "是否被采样")
+    private boolean           sampled;
+
+    @ApiModelProperty(value = "是否超过慢请求阈值")
+    private boolean           slow;
+
+    @ApiModelProperty(value = "超过单个跟踪上限而丢弃的跨度数")
+    private int               droppedSpanCount;
+
+    @ApiModelProperty(value = "跨度列表，按开始时间升序，列表查询时为空")
+    private List<SpanDTO>     spans;
+
+    public TraceDTO() {
+    }
+
+    public TraceDTO(String traceId, String parentTraceId, String name, int status, Instant startTime,
+            long durationInMicros, boolean sampled, boolean slow, int droppedSpanCount, List<SpanDTO> spans) {
+        this.traceId = traceId;
+        this.parentTraceId = parentTraceId;
+        this.name = name;
+        this.status = status;
+        this.startTime = startTime;
+        this.durationInMicros = durationInMicros;
+        this.sampled = sampled;
+        this.slow = slow;
+        this.droppedSpanCount = droppedSpanCount;
+        this.spans = spans;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public void setTraceId(String traceId) {
+        this.traceId = traceId;
+    }
+
+    public String getParentTraceId() {
+        return parentTraceId;
+    }
+
+    public void setParentTraceId(String parentTraceId) {
+        this.parentTraceId = parentTraceId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getDurationInMicros() {
+        return durationInMicros;
+    }
+
+    public void setDurationInMicros(long durationInMicros) {
+        this.durationInMicros = durationInMicros;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public void setSampled(boolean sampled) {
+        this.sampled = sampled;
+    }
+
+    public boolean isSlow() {
+        return slow;
+    }
+
+    public void setSlow(boolean slow) {
+        this.slow = slow;
+    }
+
+    public int getDroppedSpanCount() {
+        return droppedSpanCount;
+    }
+
+    public void setDroppedSpanCount(int droppedSpanCount) {
+        this.droppedSpanCount = droppedSpanCount;
+    }
+
+    public List<SpanDTO> getSpans() {
+        return spans;
+    }
+
+    public void setSpans(List<SpanDTO> spans) {
+        this.spans = spans;
+    }
+
+    public static class SpanDTO implements Serializable {
+
+        private static final long serialVersionUID = 5410387012954781726L;
+
+        @ApiModelProperty(value = "跨度ID，在跟踪内唯一")
+        private int               id;
+
+        @ApiModelProperty(value = "父跨度ID，0表示请求本身")
+        private int               parentId;
+
+        @ApiModelProperty(value = "类型，controller、service、repository、mongo或http")
+        private String            kind;
+
+        @ApiModelProperty(value = "类名加方法名、Mongo命令加集合名或HTTP方法加地址")
+        private String            name;
+
+        @ApiModelProperty(value = "相对请求开始的偏移(微秒)")
+        private long              startOffsetInMicros;
+
+        @ApiModelProperty(value = "耗时(微秒)")
+        private long              durationInMicros;
+
+        @ApiModelProperty(value = "异常类名，成功时为空")
+        private String            error;
+
+        public SpanDTO() {
+        }
+
+        public SpanDTO(int id, int parentId, String kind, String name, long startOffsetInMicros,
+                long durationInMicros, String error) {
+            this.id = id;
+            this.parentId = parentId;
+            this.kind = kind;
+            this.name = name;
+            this.startOffsetInMicros = startOffsetInMicros;
+            this.durationInMicros = durationInMicros;
+            this.error = error;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public int getParentId() {
+            return parentId;
+        }
+
+        public void setParentId(int parentId) {
+            this.parentId = parentId;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public void setKind(String kind) {
+            this.kind = kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getStartOffsetInMicros() {
+            return startOffsetInMicros;
+        }
+
+        public void setStartOffsetInMicros(long startOffsetInMicros) {
+            this.startOffsetInMicros = startOffsetInMicros;
+        }
+
+        public long getDurationInMicros() {
+            return durationInMicros;
+        }
+
+        public void setDurationInMicros(long durationInMicros) {
+            this.durationInMicros = durationInMicros;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.infinity.passport.dto;
+
+import java.io.Serializable;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+
+import org.hibernate.validator.constraints.NotEmpty;
+
+public class TraceSwitchDTO implements Serializable {
+
+    private static final long serialVersionUID = 4630147952801745170L;
+
+    /**
+     * Package or class name, the longest matching switch applies to a class
+     */
+    @NotEmpty
+    private String            name;
+
+    /**
+     * Fraction of the invocations traced, from 0 exclusive to 1 inclusive
+     */
+    @DecimalMin(value = "0", inclusive = false)
+    @DecimalMax("1")
+    private double            sampleRate       = 1.0D;
+
+    /**
+     * Maximum number of traced invocations per second, 0 means unlimited
+     */
+    @Min(0)
+    private int               maxPerSecond;
+
+    public TraceSwitchDTO() {
+    }
+
+    public TraceSwitchDTO(String name, double sampleRate, int maxPerSecond) {
+        this.name = name;
+        this.sampleRate = sampleRate;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public int getMaxPerSecond() {
+        return maxPerSecond;
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceSwitchDTO [name=" + name + ", sampleRate=" + sampleRate + ", maxPerSecond=" + maxPerSecond + "]";
+    }
+}
@@ -0,0 +1,269 @@
+package org.infinity.passport.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel("用户审计事件统计DTO")
+public class UserAuditEventStatsDTO implements Serializable {
+
+    private static final long     serialVersionUID = 6038271950473317921L;
+
+    @ApiModelProperty(value = "统计时间粒度")
+    private String                interval;
+
+    @ApiModelProperty(value = "各时间段按事件类型的统计，时间段为UTC时间")
+    private List<TimeBucketStats> timeBuckets;
+
+    @ApiModelProperty(value = "事件数最多的用户")
+    private List<PrincipalStats>  topPrincipals;
+
+    @ApiModelProperty(value = "事件总数")
+    private long                  total;
+
+    @ApiModelProperty(value = "失败事件数")
+    private long                  failures;
+
+    @ApiModelProperty(value = "失败率")
+    private double                failureRatio;
+
+    public UserAuditEventStatsDTO() {
+    }
+
+    public UserAuditEventStatsDTO(String interval, List<TimeBucketStats> timeBuckets,
+            List<PrincipalStats> topPrincipals, long total, long failures) {
+        this.interval = interval;
+        this.timeBuckets = timeBuckets;
+        this.topPrincipals = topPrincipals;
+        this.total = total;
+        this.failures = failures;
+        this.failureRatio = ratio(failures, total);
+    }
+
+    public String getInterval() {
+        return interval;
+    }
+
+    public void setInterval(String interval) {
+        this.interval = interval;
+    }
+
+    public List<TimeBucketStats> getTimeBuckets() {
+        return timeBuckets;
+    }
+
+    public void setTimeBuckets(List<TimeBucketStats> timeBuckets) {
+        this.timeBuckets = timeBuckets;
+    }
+
+    public List<PrincipalStats> getTopPrincipals() {
+        return topPrincipals;
+    }
+
+    public void setTopPrincipals(List<PrincipalStats> topPrincipals) {
+        this.topPrincipals = topPrincipals;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    public double getFailureRatio() {
+        return failureRatio;
+    }
+
+    public void setFailureRatio(double failureRatio) {
+        this.failureRatio = failureRatio;
+    }
+
+    private static double ratio(long failures, long total) {
+        return total == 0 ? 0D : (double) failures / total;
+    }
+
+    /**
+     * Time bucket granularity, the Java pattern and the $dateToString format of each must produce the same text.
+     */
+    public enum Interval {
+        HOUR(ChronoUnit.HOURS, "yyyy-MM-dd'T'HH", "%Y-%m-%dT%H"),
+        DAY(ChronoUnit.DAYS, "yyyy-MM-dd", "%Y-%m-%d"),
+        MONTH(ChronoUnit.MONTHS, "yyyy-MM", "%Y-%m");
+
+        private final ChronoUnit        unit;
+
+        private final DateTimeFormatter formatter;
+
+        private final String            mongoDateFormat;
+
+        Interval(ChronoUnit unit, String pattern, String mongoDateFormat) {
+            this.unit = unit;
+            this.formatter = DateTimeFormatter.ofPattern(pattern);
+            this.mongoDateFormat = mongoDateFormat;
+        }
+
+        public ChronoUnit getUnit() {
+            return unit;
+        }
+
+        public DateTimeFormatter getFormatter() {
+            return formatter;
+        }
+
+        public String getMongoDateFormat() {
+            return mongoDateFormat;
+        }
+
+        public LocalDateTime truncate(LocalDateTime time) {
+            return this == MONTH ? time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1) : time.truncatedTo(unit);
+        }
+    }
+
+    @ApiModel("时间段统计")
+    public static class TimeBucketStats implements Serializable {
+
+        private static final long serialVersionUID = -4467391372806470142L;
+
+        @ApiModelProperty(value = "时间段")
+        private String            timeBucket;
+
+        @ApiModelProperty(value = "各事件类型的事件数")
+        private Map<String, Long> counts;
+
+        @ApiModelProperty(value = "事件总数")
+        private long              total;
+
+        @ApiModelProperty(value = "失败事件数")
+        private long              failures;
+
+        @ApiModelProperty(value = "失败率")
+        private double            failureRatio;
+
+        public TimeBucketStats() {
+        }
+
+        public TimeBucketStats(String timeBucket, Map<String, Long> counts, long total, long failures) {
+            this.timeBucket = timeBucket;
+            this.counts = counts;
+            this.total = total;
+            this.failures = failures;
+            this.failureRatio = ratio(failures, total);
+        }
+
+        public String getTimeBucket() {
+            return timeBucket;
+        }
+
+        public void setTimeBucket(String timeBucket) {
+            this.timeBucket = timeBucket;
+        }
+
+        public Map<String, Long> getCounts() {
+            return counts;
+        }
+
+        public void setCounts(Map<String, Long> counts) {
+            this.counts = counts;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            this.total = total;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public void setFailures(long failures) {
+            this.failures = failures;
+        }
+
+        public double getFailureRatio() {
+            return failureRatio;
+        }
+
+        public void setFailureRatio(double failureRatio) {
+            this.failureRatio = failureRatio;
+        }
+    }
+
+    @ApiModel("用户统计")
+    public static class PrincipalStats implements Serializable {
+
+        private static final long serialVersionUID = 2170935869232471096L;
+
+        @ApiModelProperty(value = "用户名")
+        private String            principal;
+
+        @ApiModelProperty(value = "事件总数")
+        private long              total;
+
+        @ApiModelProperty(value = "失败事件数")
+        private long              failures;
+
+        @ApiModelProperty(value = "失败率")
+        private double            failureRatio;
+
+        public PrincipalStats() {
+        }
+
+        public PrincipalStats(String principal, long total, long failures) {
+            this.principal = principal;
+            this.total = total;
+            this.failures = failures;
+            this.failureRatio = ratio(failures, total);
+        }
+
+        public String getPrincipal() {
+            return principal;
+        }
+
+        public void setPrincipal(String principal) {
+            this.principal = principal;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            this.total = total;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public void setFailures(long failures) {
+            this.failures = failures;
+        }
+
+        public double getFailureRatio() {
+            return failureRatio;
+        }
+
+        public void setFailureRatio(double failureRatio) {
+            this.failureRatio = failureRatio;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.infinity.passport.entity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.infinity.passport.dto.DictItemDTO;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Immutable in-memory snapshot of the enabled dictionary items grouped by dict code.
+ * Each dict code carries its own digest, so the ETag of a bulk response only changes when one of the requested
+ * dictionaries has changed.
+ */
+public class DictItemSnapshot {
+
+    private final Map<String, List<DictItemDTO>> dictItems;
+
+    private final Map<String, String>            digests;
+
+    private final long                           createdTime;
+
+    public DictItemSnapshot(Map<String, List<DictItemDTO>> dictItems) {
+        Map<String, List<DictItemDTO>> items = new LinkedHashMap<>(dictItems.size());
+        Map<String, String> itemDigests = new LinkedHashMap<>(dictItems.size());
+        dictItems.forEach((dictCode, dtos) -> {
+            items.put(dictCode, Collections.unmodifiableList(dtos));
+            itemDigests.put(dictCode, digest(dtos));
+        });
+        this.dictItems = Collections.unmodifiableMap(items);
+        this.digests = Collections.unmodifiableMap(itemDigests);
+        this.createdTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Get the enabled items of the given dict codes, unknown codes are mapped to empty lists.
+     *
+     * @param dictCodes dict codes
+     * @return dict code to items map ordered by the requested codes
+     */
+    public Map<String, List<DictItemDTO>> getDictItems(Collection<String> dictCodes) {
+        Map<String, List<DictItemDTO>> results = new LinkedHashMap<>(dictCodes.size());
+        for (String dictCode : dictCodes) {
+            results.put(dictCode, dictItems.getOrDefault(dictCode, Collections.emptyList()));
+        }
+        return results;
+    }
+
+    /**
+     * Get the strong ETag for the given dict codes, which is independent of the request order of the codes.
+     *
+     * @param dictCodes dict codes
+     * @return quoted ETag value
+     */
+    public String getETag(Collection<String> dictCodes) {
+        StringBuilder sb = new StringBuilder();
+        for (String dictCode : new TreeSet<>(dictCodes)) {
+            sb.append(dictCode).append(':').append(digests.getOrDefault(dictCode, "")).append(';');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    public long getCreatedTime() {
+        return createdTime;
+    }
+
+    private static String digest(List<DictItemDTO> dtos) {
+        StringBuilder sb = new StringBuilder();
+        for (DictItemDTO dto : dtos) {
+            sb.append(dto.getId()).append('|').append(dto.getDictItemCode()).append('|')
+                    .append(dto.getDictItemName()).append('|').append(dto.getDictName()).append('|')
+                    .append(dto.getRemark()).append('|').append(dto.getModifiedTime()).append('\n');
+        }
+        return DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,61 @@
+package org.infinity.passport.filter;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.infinity.passport.component.RequestLatencyRecorder;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * This filter is used to record the latency of the requests per route template and status class, the route template
+ * keeps the number of distinct metrics bounded.
+ */
+public class RequestLatencyFilter implements Filter {
+
+    private static final String    UNMATCHED_ROUTE = "UNMATCHED";
+
+    private RequestLatencyRecorder requestLatencyRecorder;
+
+    public RequestLatencyFilter(RequestLatencyRecorder requestLatencyRecorder) {
+        this.requestLatencyRecorder = requestLatencyRecorder;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        // Nothing to initialize
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to destroy
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        long startTime = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            // The latency of an async request is the lifetime of the stream, which says nothing about the server
+            if (!request.isAsyncStarted()) {
+                HttpServletRequest httpRequest = (HttpServletRequest) request;
+                Object route = httpRequest.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR
+                        : ((HttpServletResponse) response).getStatus();
+                requestLatencyRecorder.record(httpRequest.getMethod(),
+                        route == null ? UNMATCHED_ROUTE : route.toString(), status, System.nanoTime() - startTime);
+            }
+        }
+    }
+}
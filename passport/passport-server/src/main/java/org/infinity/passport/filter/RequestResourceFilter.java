@@ -0,0 +1,63 @@
+package org.infinity.passport.filter;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+
+import org.infinity.passport.component.RequestResourceRecorder;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * This filter is used to record the heap allocated and the CPU time consumed by the request thread per route
+ * template while the recording is enabled.
+ */
+public class RequestResourceFilter implements Filter {
+
+    private static final String     UNMATCHED_ROUTE = "UNMATCHED";
+
+    private RequestResourceRecorder requestResourceRecorder;
+
+    public RequestResourceFilter(RequestResourceRecorder requestResourceRecorder) {
+        this.requestResourceRecorder = requestResourceRecorder;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        // Nothing to initialize
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to destroy
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!requestResourceRecorder.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long startAllocatedBytes = requestResourceRecorder.getCurrentThreadAllocatedBytes();
+        long startCpuTime = requestResourceRecorder.getCurrentThreadCpuTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // The rest of an async request runs on other threads
+            if (!request.isAsyncStarted()) {
+                Object route = ((HttpServletRequest) request)
+                        .getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                requestResourceRecorder.record(((HttpServletRequest) request).getMethod(),
+                        route == null ? UNMATCHED_ROUTE : route.toString(),
+                        requestResourceRecorder.getCurrentThreadAllocatedBytes() - startAllocatedBytes,
+                        requestResourceRecorder.getCurrentThreadCpuTime() - startCpuTime);
+            }
+        }
+    }
+}
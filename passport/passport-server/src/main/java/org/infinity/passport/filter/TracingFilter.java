@@ -0,0 +1,63 @@
+package org.infinity.passport.filter;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.infinity.passport.component.Tracer;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * This filter is used to trace the requests, it starts a trace with a new trace id, keeps the trace id propagated by
+ * the caller in the X-Trace-Id header as its parent and returns the new trace id in the same header. The trace is
+ * named after the route template once the request is handled.
+ */
+public class TracingFilter implements Filter {
+
+    private static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private Tracer              tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        // Nothing to initialize
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to destroy
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        Tracer.Trace trace = tracer.start(httpRequest.getHeader(Tracer.TRACE_ID_HEADER));
+        if (trace == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        httpResponse.setHeader(Tracer.TRACE_ID_HEADER, trace.getTraceId());
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            Object route = httpRequest.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : httpResponse.getStatus();
+            tracer.finish(trace, httpRequest.getMethod() + " " + (route == null ? UNMATCHED_ROUTE : route), status);
+        }
+    }
+}
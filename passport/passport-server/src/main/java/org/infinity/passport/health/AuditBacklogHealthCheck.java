@@ -0,0 +1,36 @@
+package org.infinity.passport.health;
+
+import org.infinity.passport.component.AuditEventWriter;
+import org.infinity.passport.config.ApplicationProperties.Metrics.Health.Threshold;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Measures the used ratio of the queue capacity of the {@link AuditEventWriter}.
+ */
+public class AuditBacklogHealthCheck extends ThresholdHealthCheck {
+
+    private static final String  QUEUE_DEPTH = MetricRegistry.name(AuditEventWriter.class, "queue-depth");
+
+    private final MetricRegistry metricRegistry;
+
+    private final int            queueCapacity;
+
+    public AuditBacklogHealthCheck(MetricRegistry metricRegistry, int queueCapacity, Threshold threshold,
+            long cacheInMillis) {
+        super(threshold, "", cacheInMillis);
+        this.metricRegistry = metricRegistry;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    protected double measure() {
+        Metric queueDepth = metricRegistry.getMetrics().get(QUEUE_DEPTH);
+        if (!(queueDepth instanceof Gauge)) {
+            throw new IllegalStateException("Audit event writer is not running");
+        }
+        return ((Number) ((Gauge<?>) queueDepth).getValue()).doubleValue() / queueCapacity;
+    }
+}
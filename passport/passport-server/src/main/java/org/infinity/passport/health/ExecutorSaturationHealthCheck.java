@@ -0,0 +1,49 @@
+package org.infinity.passport.health;
+
+import java.util.Map;
+
+import org.infinity.passport.async.ExecutorMetrics;
+import org.infinity.passport.config.ApplicationProperties.Metrics.Health.Threshold;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Measures the used ratio of the queue capacity of the most saturated executor registering {@link ExecutorMetrics}.
+ */
+public class ExecutorSaturationHealthCheck extends ThresholdHealthCheck {
+
+    private static final String  PREFIX             = ExecutorMetrics.class.getName() + ".";
+
+    private static final String  QUEUE_SIZE         = ".queue-size";
+
+    private static final String  REMAINING_CAPACITY = ".queue-remaining-capacity";
+
+    private final MetricRegistry metricRegistry;
+
+    public ExecutorSaturationHealthCheck(MetricRegistry metricRegistry, Threshold threshold, long cacheInMillis) {
+        super(threshold, "", cacheInMillis);
+        this.metricRegistry = metricRegistry;
+    }
+
+    @Override
+    protected double measure() {
+        Map<String, Metric> metrics = metricRegistry.getMetrics();
+        double saturation = 0;
+        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+            if (!entry.getKey().startsWith(PREFIX) || !entry.getKey().endsWith(QUEUE_SIZE)) {
+                continue;
+            }
+            String executor = entry.getKey().substring(0, entry.getKey().length() - QUEUE_SIZE.length());
+            Metric remainingCapacity = metrics.get(executor + REMAINING_CAPACITY);
+            if (!(entry.getValue() instanceof Gauge) || !(remainingCapacity instanceof Gauge)) {
+                continue;
+            }
+            double queueSize = ((Number) ((Gauge<?>) entry.getValue()).getValue()).doubleValue();
+            double capacity = queueSize + ((Number) ((Gauge<?>) remainingCapacity).getValue()).doubleValue();
+            saturation = Math.max(saturation, queueSize / capacity);
+        }
+        return saturation;
+    }
+}
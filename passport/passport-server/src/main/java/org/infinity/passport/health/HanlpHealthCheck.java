@@ -0,0 +1,29 @@
+package org.infinity.passport.health;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinity.passport.config.ApplicationProperties.Metrics.Health.Threshold;
+
+import com.hankcs.hanlp.HanLP;
+
+/**
+ * Measures the segmentation of a sample sentence in milliseconds. The first check loads the dictionaries, a check
+ * without terms means that the dictionaries are missing.
+ */
+public class HanlpHealthCheck extends ThresholdHealthCheck {
+
+    private static final String SAMPLE = "商品和服务";
+
+    public HanlpHealthCheck(Threshold threshold, long cacheInMillis) {
+        super(threshold, "ms", cacheInMillis);
+    }
+
+    @Override
+    protected double measure() {
+        long startTime = System.nanoTime();
+        if (HanLP.segment(SAMPLE).isEmpty()) {
+            throw new IllegalStateException("HanLP dictionaries are not loaded");
+        }
+        return (System.nanoTime() - startTime) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,44 @@
+package org.infinity.passport.health;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import com.codahale.metrics.health.HealthCheck.Result;
+import com.codahale.metrics.health.HealthCheckRegistry;
+
+/**
+ * Adds the results of the health check registry to the health endpoint probed by the load balancer. A degraded check
+ * keeps the application up, an unhealthy critical one takes it down and any other unhealthy one only reports it as
+ * {@link #DEGRADED}, which is ordered between DOWN and UP by management.health.status.order and still answers 200.
+ */
+public class HealthCheckRegistryHealthIndicator extends AbstractHealthIndicator {
+
+    public static final Status        DEGRADED = new Status("DEGRADED");
+
+    private final HealthCheckRegistry healthCheckRegistry;
+
+    private final Set<String>         criticalChecks;
+
+    public HealthCheckRegistryHealthIndicator(HealthCheckRegistry healthCheckRegistry, Set<String> criticalChecks) {
+        this.healthCheckRegistry = healthCheckRegistry;
+        this.criticalChecks = criticalChecks;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        Status status = Status.UP;
+        for (Map.Entry<String, Result> entry : healthCheckRegistry.runHealthChecks().entrySet()) {
+            Result result = entry.getValue();
+            if (!result.isHealthy()) {
+                status = criticalChecks.contains(entry.getKey()) ? Status.DOWN
+                        : Status.DOWN.equals(status) ? status : DEGRADED;
+            }
+            builder.withDetail(entry.getKey(), result.getMessage() == null ? "OK" : result.getMessage());
+        }
+        builder.status(status);
+    }
+}
@@ -0,0 +1,28 @@
+package org.infinity.passport.health;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.MessagingException;
+
+import org.infinity.passport.config.ApplicationProperties.Metrics.Health.Threshold;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+/**
+ * Measures the time to connect to the mail server and close the connection again in milliseconds.
+ */
+public class MailTransportHealthCheck extends ThresholdHealthCheck {
+
+    private final JavaMailSenderImpl javaMailSender;
+
+    public MailTransportHealthCheck(JavaMailSenderImpl javaMailSender, Threshold threshold, long cacheInMillis) {
+        super(threshold, "ms", cacheInMillis);
+        this.javaMailSender = javaMailSender;
+    }
+
+    @Override
+    protected double measure() throws MessagingException {
+        long startTime = System.nanoTime();
+        javaMailSender.testConnection();
+        return (System.nanoTime() - startTime) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,28 @@
+package org.infinity.passport.health;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinity.passport.config.ApplicationProperties.Metrics.Health.Threshold;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Measures the round trip of a ping command to MongoDB in milliseconds.
+ */
+public class MongoPingHealthCheck extends ThresholdHealthCheck {
+
+    private static final String PING = "{ ping: 1 }";
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoPingHealthCheck(MongoTemplate mongoTemplate, Threshold threshold, long cacheInMillis) {
+        super(threshold, "ms", cacheInMillis);
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    protected double measure() {
+        long startTime = System.nanoTime();
+        mongoTemplate.executeCommand(PING);
+        return (System.nanoTime() - startTime) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
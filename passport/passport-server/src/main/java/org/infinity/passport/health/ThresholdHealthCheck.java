@@ -0,0 +1,95 @@
+package org.infinity.passport.health;
+
+import java.util.Locale;
+
+import org.infinity.passport.config.ApplicationProperties.Metrics.Health.Threshold;
+
+import com.codahale.metrics.health.HealthCheck;
+
+/**
+ * Health check comparing a measured value, e.g. a latency or a saturation ratio, with a degraded and an unhealthy
+ * threshold. A degraded check is still healthy, its message starts with {@link #DEGRADED}. The result is cached, so
+ * frequent probes do not add load to the checked resource.
+ */
+public abstract class ThresholdHealthCheck extends HealthCheck {
+
+    public static final String DEGRADED = "Degraded";
+
+    private final Threshold    threshold;
+
+    private final String       unit;
+
+    private final long         cacheInMillis;
+
+    private volatile Result    cachedResult;
+
+    private volatile long      expirationTime;
+
+    /**
+     * @param threshold degraded and unhealthy thresholds
+     * @param unit unit of the measured value used in the messages
+     * @param cacheInMillis time to keep a result
+     */
+    protected ThresholdHealthCheck(Threshold threshold, String unit, long cacheInMillis) {
+        this.threshold = threshold;
+        this.unit = unit;
+        this.cacheInMillis = cacheInMillis;
+    }
+
+    /**
+     * Measure the checked value, higher values are worse.
+     *
+     * @return measured value
+     * @throws Exception if the resource is not available at all
+     */
+    protected abstract double measure() throws Exception;
+
+    @Override
+    protected Result check() {
+        Result result = cachedResult;
+        if (result != null && System.currentTimeMillis() < expirationTime) {
+            return result;
+        }
+        synchronized (this) {
+            // Concurrent probes wait for the one evaluating instead of measuring again
+            if (cachedResult != null && System.currentTimeMillis() < expirationTime) {
+                return cachedResult;
+            }
+            result = evaluate();
+            cachedResult = result;
+            expirationTime = System.currentTimeMillis() + cacheInMillis;
+            return result;
+        }
+    }
+
+    /**
+     * Whether the result is healthy but degraded.
+     *
+     * @param result result of a health check
+     * @return {@code true} if degraded
+     */
+    public static boolean isDegraded(Result result) {
+        return result.isHealthy() && result.getMessage() != null && result.getMessage().startsWith(DEGRADED);
+    }
+
+    private Result evaluate() {
+        double value;
+        try {
+            value = measure();
+        } catch (Exception e) {
+            return Result.unhealthy(e);
+        }
+        if (value >= threshold.getUnhealthy()) {
+            return Result.unhealthy("%s, unhealthy threshold %s", format(value), format(threshold.getUnhealthy()));
+        }
+        if (value >= threshold.getDegraded()) {
+            return Result.healthy("%s: %s, degraded threshold %s", DEGRADED, format(value),
+                    format(threshold.getDegraded()));
+        }
+        return Result.healthy(format(value));
+    }
+
+    private String format(double value) {
+        return String.format(Locale.ROOT, "%.2f %s", value, unit).trim();
+    }
+}
@@ -0,0 +1,17 @@
+package org.infinity.passport.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.infinity.passport.domain.ActiveUserSketch;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Spring Data MongoDB repository for the ActiveUserSketch entity.
+ */
+public interface ActiveUserSketchRepository extends MongoRepository<ActiveUserSketch, String> {
+
+    List<ActiveUserSketch> findByDayIn(Collection<String> days);
+
+    List<ActiveUserSketch> findByClientIdAndDayIn(String clientId, Collection<String> days);
+}
@@ -0,0 +1,426 @@
+package org.infinity.passport.repository;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.infinity.passport.config.ApplicationProperties;
+import org.infinity.passport.domain.PersistentAuditEvent;
+import org.infinity.passport.exception.CustomParameterizedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Repository for the archived audit events on local disk.
+ * Each archive holds the events of one bucket collection in date order as rolling gzip compressed NDJSON files, and
+ * an index file listing the files with their date range and event count. Events of the same time are never split
+ * across files, so the date ranges of the files do not overlap.
+ */
+@Repository
+public class AuditEventArchiveRepository {
+
+    private static final String   DATA_SUFFIX  = ".ndjson.gz";
+
+    private static final String   INDEX_SUFFIX = ".index.json";
+
+    private static final String   FIELD_DATE   = "auditEventDate";
+
+    @Autowired
+    private ObjectMapper          objectMapper;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    /**
+     * Get the files of an archive in date order.
+     *
+     * @param archive archive name, which is the bucket collection name
+     * @return archived files
+     */
+    public List<ArchiveFile> findArchiveFiles(String archive) {
+        Path indexFile = getDirectory().resolve(archive + INDEX_SUFFIX);
+        if (!Files.exists(indexFile)) {
+            return new ArrayList<>();
+        }
+        try {
+            return new ArrayList<>(Arrays.asList(objectMapper.readValue(indexFile.toFile(), ArchiveFile[].class)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read audit event archive index " + indexFile, e);
+        }
+    }
+
+    /**
+     * Get the archived files of all archives overlapping the time range, ordered by their first event time.
+     *
+     * @param fromDate inclusive start time
+     * @param toDate inclusive end time
+     * @return archived files
+     */
+    public List<ArchiveFile> findArchiveFiles(Instant fromDate, Instant toDate) {
+        Path directory = getDirectory();
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        List<ArchiveFile> results = new ArrayList<>();
+        try (DirectoryStream<Path> indexFiles = Files.newDirectoryStream(directory, "*" + INDEX_SUFFIX)) {
+            for (Path indexFile : indexFiles) {
+                String fileName = indexFile.getFileName().toString();
+                String archive = fileName.substring(0, fileName.length() - INDEX_SUFFIX.length());
+                for (ArchiveFile file : findArchiveFiles(archive)) {
+                    if (!file.getFirstDate().isAfter(toDate) && !file.getLastDate().isBefore(fromDate)) {
+                        results.add(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list audit event archives in " + directory, e);
+        }
+        results.sort(Comparator.comparing(ArchiveFile::getFirstDate));
+        return results;
+    }
+
+    /**
+     * Append the events to the archive, rolling to a new file after the configured number of events. Each file is
+     * synced to disk and recorded in the index before it is handed to the callback, so the callback may delete the
+     * archived events from the database.
+     *
+     * @param archive archive name, which is the bucket collection name
+     * @param events events in date order, all after the last archived file
+     * @param onArchived called with each completed file
+     */
+    public void append(String archive, Iterator<PersistentAuditEvent> events, Consumer<ArchiveFile> onArchived) {
+        int maxEventsPerFile = applicationProperties.getUserAuditEvent().getArchive().getMaxEventsPerFile();
+        List<ArchiveFile> files = findArchiveFiles(archive);
+        ArchiveWriter writer = null;
+        try {
+            while (events.hasNext()) {
+                PersistentAuditEvent event = events.next();
+                if (writer != null && writer.file.getCount() >= maxEventsPerFile
+                        && !event.getAuditEventDate().equals(writer.file.getLastDate())) {
+                    complete(archive, files, writer, onArchived);
+                    writer = null;
+                }
+                if (writer == null) {
+                    writer = new ArchiveWriter(archive, files.size() + 1);
+                }
+                writer.write(event);
+            }
+            if (writer != null) {
+                complete(archive, files, writer, onArchived);
+                writer = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive audit events of " + archive, e);
+        } finally {
+            if (writer != null) {
+                // The incomplete file is not in the index, its events are still in the database
+                writer.discard();
+            }
+        }
+    }
+
+    /**
+     * Page through the archived events of the time range in date order, which is ascending unless the page is sorted
+     * by auditEventDate descending. Only the files overlapping the page are read, the other files fully inside the
+     * range are counted by the index.
+     */
+    public Page<PersistentAuditEvent> findByAuditEventDateBetween(Pageable pageable, Instant fromDate,
+            Instant toDate) {
+        boolean descending = isDescending(pageable.getSort());
+        List<ArchiveFile> files = findArchiveFiles(fromDate, toDate);
+        if (descending) {
+            Collections.reverse(files);
+        }
+        long total = 0;
+        long skip = pageable.getOffset();
+        List<PersistentAuditEvent> content = new ArrayList<>(pageable.getPageSize());
+        for (ArchiveFile file : files) {
+            boolean inside = !file.getFirstDate().isBefore(fromDate) && !file.getLastDate().isAfter(toDate);
+            // The index count is exact for the files fully inside the range, only the boundary files are counted
+            long count = inside ? file.getCount() : countEvents(file, fromDate, toDate);
+            total += count;
+            int wanted = pageable.getPageSize() - content.size();
+            if (wanted == 0 || skip >= count) {
+                skip -= Math.min(skip, count);
+                continue;
+            }
+            // Positions of the page among the events of the range in the file, in date order
+            long end = Math.min(count, skip + wanted);
+            List<PersistentAuditEvent> events = readEvents(file, fromDate, toDate, descending ? count - end : skip,
+                    descending ? count - skip : end);
+            if (descending) {
+                Collections.reverse(events);
+            }
+            content.addAll(events);
+            skip = 0;
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Read the ids of the events of an archived file.
+     *
+     * @param file archived file
+     * @return ids in date order
+     */
+    public List<String> findArchivedIds(ArchiveFile file) {
+        List<String> ids = new ArrayList<>((int) file.getCount());
+        try (BufferedReader reader = newReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ids.add(objectMapper.readValue(line, PersistentAuditEvent.class).getId());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read audit event archive " + file.getFileName(), e);
+        }
+        return ids;
+    }
+
+    /**
+     * Record in the index that the events of an archived file have been deleted from the database.
+     *
+     * @param archive archive name, which is the bucket collection name
+     * @param file archived file
+     */
+    public void markDeleted(String archive, ArchiveFile file) {
+        file.setDeleted(true);
+        List<ArchiveFile> files = findArchiveFiles(archive);
+        for (ArchiveFile indexedFile : files) {
+            if (indexedFile.getFileName().equals(file.getFileName())) {
+                indexedFile.setDeleted(true);
+            }
+        }
+        try {
+            writeIndex(archive, files);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write audit event archive index of " + archive, e);
+        }
+    }
+
+    private void complete(String archive, List<ArchiveFile> files, ArchiveWriter writer,
+            Consumer<ArchiveFile> onArchived) throws IOException {
+        ArchiveFile file = writer.close();
+        files.add(file);
+        writeIndex(archive, files);
+        onArchived.accept(file);
+    }
+
+    private void writeIndex(String archive, List<ArchiveFile> files) throws IOException {
+        Path indexFile = getDirectory().resolve(archive + INDEX_SUFFIX);
+        Path tempFile = getDirectory().resolve(archive + INDEX_SUFFIX + ".tmp");
+        objectMapper.writeValue(tempFile.toFile(), files);
+        Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static boolean isDescending(Sort sort) {
+        if (sort == null) {
+            return false;
+        }
+        boolean descending = false;
+        for (Sort.Order order : sort) {
+            if (!FIELD_DATE.equals(order.getProperty())) {
+                throw new CustomParameterizedException("auditArchiveSort",
+                        "Archived events can only be sorted by " + FIELD_DATE, order.getProperty());
+            }
+            descending = order.isDescending();
+        }
+        return descending;
+    }
+
+    private long countEvents(ArchiveFile file, Instant fromDate, Instant toDate) {
+        long count = 0;
+        try (BufferedReader reader = newReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (isBetween(objectMapper.readValue(line, PersistentAuditEvent.class), fromDate, toDate)) {
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read audit event archive " + file.getFileName(), e);
+        }
+        return count;
+    }
+
+    /**
+     * Read the events of the range at the positions from first inclusive to last exclusive among them.
+     */
+    private List<PersistentAuditEvent> readEvents(ArchiveFile file, Instant fromDate, Instant toDate, long first,
+            long last) {
+        List<PersistentAuditEvent> events = new ArrayList<>((int) (last - first));
+        long position = 0;
+        try (BufferedReader reader = newReader(file)) {
+            String line;
+            while (position < last && (line = reader.readLine()) != null) {
+                PersistentAuditEvent event = objectMapper.readValue(line, PersistentAuditEvent.class);
+                if (!isBetween(event, fromDate, toDate)) {
+                    continue;
+                }
+                if (position >= first) {
+                    events.add(event);
+                }
+                position++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read audit event archive " + file.getFileName(), e);
+        }
+        return events;
+    }
+
+    private static boolean isBetween(PersistentAuditEvent event, Instant fromDate, Instant toDate) {
+        return !event.getAuditEventDate().isBefore(fromDate) && !event.getAuditEventDate().isAfter(toDate);
+    }
+
+    private BufferedReader newReader(ArchiveFile file) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(getDirectory().resolve(file.getFileName()))),
+                StandardCharsets.UTF_8));
+    }
+
+    private Path getDirectory() {
+        return Paths.get(applicationProperties.getUserAuditEvent().getArchive().getDirectory());
+    }
+
+    private class ArchiveWriter {
+
+        private final ArchiveFile      file = new ArchiveFile();
+
+        private final Path             path;
+
+        private final FileOutputStream outputStream;
+
+        private final GZIPOutputStream gzipStream;
+
+        private final BufferedWriter   writer;
+
+        ArchiveWriter(String archive, int sequence) throws IOException {
+            Files.createDirectories(getDirectory());
+            file.setFileName(String.format("%s-%05d%s", archive, sequence, DATA_SUFFIX));
+            path = getDirectory().resolve(file.getFileName());
+            outputStream = new FileOutputStream(path.toFile());
+            gzipStream = new GZIPOutputStream(outputStream, 65536);
+            writer = new BufferedWriter(new OutputStreamWriter(gzipStream, StandardCharsets.UTF_8));
+        }
+
+        void write(PersistentAuditEvent event) throws IOException {
+            writer.write(objectMapper.writeValueAsString(event));
+            writer.newLine();
+            if (file.getFirstDate() == null) {
+                file.setFirstDate(event.getAuditEventDate());
+            }
+            file.setLastDate(event.getAuditEventDate());
+            file.setCount(file.getCount() + 1);
+        }
+
+        ArchiveFile close() throws IOException {
+            writer.flush();
+            gzipStream.finish();
+            // The file must be durable before the index references it and the events are deleted
+            outputStream.getFD().sync();
+            writer.close();
+            file.setSize(Files.size(path));
+            return file;
+        }
+
+        void discard() {
+            try {
+                writer.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                // Ignore, the file is not in the index
+            }
+        }
+    }
+
+    public static class ArchiveFile {
+
+        private String  fileName;
+
+        private Instant firstDate;
+
+        private Instant lastDate;
+
+        private long    count;
+
+        private long    size;
+
+        private boolean deleted;
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public void setFileName(String fileName) {
+            this.fileName = fileName;
+        }
+
+        public Instant getFirstDate() {
+            return firstDate;
+        }
+
+        public void setFirstDate(Instant firstDate) {
+            this.firstDate = firstDate;
+        }
+
+        public Instant getLastDate() {
+            return lastDate;
+        }
+
+        public void setLastDate(Instant lastDate) {
+            this.lastDate = lastDate;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public void setSize(long size) {
+            this.size = size;
+        }
+
+        /**
+         * @return true if the events of the file have been deleted from the database
+         */
+        public boolean isDeleted() {
+            return deleted;
+        }
+
+        public void setDeleted(boolean deleted) {
+            this.deleted = deleted;
+        }
+    }
+}
@@ -1,17 +1,22 @@
 package org.infinity.passport.repository;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
-import org.infinity.passport.annotation.ExecutionSwitch;
+import org.infinity.passport.component.AuditEventBroadcaster;
 import org.infinity.passport.component.AuditEventConverter;
+import org.infinity.passport.component.AuditEventFolder;
+import org.infinity.passport.component.AuditEventWriter;
+import org.infinity.passport.config.ApplicationProperties;
 import org.infinity.passport.domain.Authority;
 import org.infinity.passport.domain.PersistentAuditEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.boot.actuate.audit.AuditEventRepository;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * An implementation of Spring Boot's AuditEventRepository.
@@ -19,58 +24,84 @@ import org.springframework.transaction.annotation.Transactional;
 @Repository
 public class CustomAuditEventRepository implements AuditEventRepository {
 
+    private static final Logger                   LOGGER                = LoggerFactory
+            .getLogger(CustomAuditEventRepository.class);
+
     private static final String                   AUTHORIZATION_FAILURE = "AUTHORIZATION_FAILURE";
 
     private final PersistenceAuditEventRepository persistenceAuditEventRepository;
 
     private final AuditEventConverter             auditEventConverter;
 
+    private final AuditEventWriter                auditEventWriter;
+
+    private final AuditEventFolder                auditEventFolder;
+
+    private final AuditEventBroadcaster           auditEventBroadcaster;
+
+    private final ApplicationProperties           applicationProperties;
+
     public CustomAuditEventRepository(PersistenceAuditEventRepository persistenceAuditEventRepository,
-            AuditEventConverter auditEventConverter) {
+            AuditEventConverter auditEventConverter, AuditEventWriter auditEventWriter,
+            AuditEventFolder auditEventFolder, AuditEventBroadcaster auditEventBroadcaster,
+            ApplicationProperties applicationProperties) {
 
         this.persistenceAuditEventRepository = persistenceAuditEventRepository;
         this.auditEventConverter = auditEventConverter;
+        this.auditEventWriter = auditEventWriter;
+        this.auditEventFolder = auditEventFolder;
+        this.auditEventBroadcaster = auditEventBroadcaster;
+        this.applicationProperties = applicationProperties;
     }
 
     @Override
     public List<AuditEvent> find(Date after) {
-        Iterable<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository
-                .findByAuditEventDateAfter(after.toInstant());
-        return auditEventConverter.convertToAuditEvent(persistentAuditEvents);
+        return find(null, after, null);
     }
 
     @Override
     public List<AuditEvent> find(String principal, Date after) {
-        Iterable<PersistentAuditEvent> persistentAuditEvents;
-        if (principal == null && after == null) {
-            persistentAuditEvents = persistenceAuditEventRepository.findAll();
-        } else if (after == null) {
-            persistentAuditEvents = persistenceAuditEventRepository.findByPrincipal(principal);
-        } else {
-            persistentAuditEvents = persistenceAuditEventRepository.findByPrincipalAndAuditEventDateAfter(principal,
-                    after.toInstant());
-        }
-        return auditEventConverter.convertToAuditEvent(persistentAuditEvents);
+        return find(principal, after, null);
     }
 
+    /**
+     * Read the newest events from a cursor up to the configured cap, so an old date can not load the whole audit
+     * history into memory.
+     */
     @Override
     public List<AuditEvent> find(String principal, Date after, String type) {
-        Iterable<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository
-                .findByPrincipalAndAuditEventDateAfterAndAuditEventType(principal, after.toInstant(), type);
-        return auditEventConverter.convertToAuditEvent(persistentAuditEvents);
+        int maxResults = applicationProperties.getUserAuditEvent().getMaxFindResults();
+        List<AuditEvent> auditEvents = new ArrayList<>();
+        int count = persistenceAuditEventRepository.streamNewest(principal, after == null ? null : after.toInstant(),
+                type, maxResults, event -> auditEvents.add(auditEventConverter.convertToAuditEvent(event)));
+        if (count >= maxResults) {
+            LOGGER.warn("Audit event query of principal {} after {} truncated to the newest {} events", principal,
+                    after, maxResults);
+        }
+        // Oldest first as before
+        Collections.reverse(auditEvents);
+        return auditEvents;
     }
 
+    /**
+     * Called on the authentication thread, the event is written by the AuditEventWriter in the background.
+     */
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    @ExecutionSwitch(on = "application.user-audit-event.enabled")
     public void add(AuditEvent event) {
+        if (!applicationProperties.getUserAuditEvent().isEnabled()) {
+            return;
+        }
         if (!AUTHORIZATION_FAILURE.equals(event.getType()) && !Authority.ANONYMOUS.equals(event.getPrincipal())) {
             PersistentAuditEvent persistentAuditEvent = new PersistentAuditEvent();
             persistentAuditEvent.setPrincipal(event.getPrincipal());
             persistentAuditEvent.setAuditEventType(event.getType());
             persistentAuditEvent.setAuditEventDate(event.getTimestamp().toInstant());
             persistentAuditEvent.setData(auditEventConverter.convertDataToStrings(event.getData()));
-            persistenceAuditEventRepository.save(persistentAuditEvent);
+            // The live stream shows every event, also the ones folded for storage
+            auditEventBroadcaster.publish(persistentAuditEvent);
+            if (!auditEventFolder.fold(persistentAuditEvent)) {
+                auditEventWriter.write(persistentAuditEvent);
+            }
         }
     }
 }
@@ -21,4 +21,8 @@ public interface DictItemRepository extends MongoRepository<DictItem, String> {
     Page<DictItem> findByDictCode(Pageable pageable, String dictCode);
 
     Page<DictItem> findByDictItemName(Pageable pageable, String dictItemName);
+
+    List<DictItem> findByEnabled(Boolean enabled);
+
+    List<DictItem> findByRevisionGreaterThan(Long revision);
 }
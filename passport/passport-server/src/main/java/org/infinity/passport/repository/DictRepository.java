@@ -18,4 +18,6 @@ public interface DictRepository extends MongoRepository<Dict, String> {
     Optional<Dict> findOneByDictCode(String dictCode);
 
     List<Dict> findByEnabled(Boolean enabled);
+
+    List<Dict> findByRevisionGreaterThan(Long revision);
 }
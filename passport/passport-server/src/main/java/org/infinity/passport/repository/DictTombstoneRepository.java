@@ -0,0 +1,20 @@
+package org.infinity.passport.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.infinity.passport.domain.DictTombstone;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Spring Data MongoDB repository for the DictTombstone entity.
+ */
+public interface DictTombstoneRepository extends MongoRepository<DictTombstone, String> {
+
+    List<DictTombstone> findByRevisionGreaterThan(Long revision);
+
+    Optional<DictTombstone> findFirstByDeletedTimeBeforeOrderByRevisionDesc(Instant deletedTime);
+
+    Long deleteByRevisionLessThanEqual(Long revision);
+}
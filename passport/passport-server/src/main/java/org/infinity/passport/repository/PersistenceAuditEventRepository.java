@@ -1,26 +1,430 @@
 package org.infinity.passport.repository;
 
 import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import org.infinity.passport.domain.PersistentAuditEvent;
+import org.infinity.passport.exception.CustomParameterizedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Repository;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
 
 /**
- * Spring Data MongoDB repository for the PersistentAuditEvent entity.
+ * Repository for the PersistentAuditEvent entity, which is stored in monthly bucket collections named like
+ * PersistentAuditEvent_201711. Queries fan out only to the buckets overlapping the requested time range, and the
+ * retention drops whole buckets. The collection used before the partitioning is kept as the oldest bucket until it
+ * expires. The queries of a method fanning out over the buckets share the query budget of the method call.
  */
-public interface PersistenceAuditEventRepository extends MongoRepository<PersistentAuditEvent, String> {
+@Repository
+public class PersistenceAuditEventRepository {
+
+    private static final Logger            LOGGER             = LoggerFactory
+            .getLogger(PersistenceAuditEventRepository.class);
+
+    public static final String             LEGACY_COLLECTION  = "PersistentAuditEvent";
+
+    private static final String            BUCKET_PREFIX      = LEGACY_COLLECTION + "_";
+
+    private static final DateTimeFormatter BUCKET_FORMATTER   = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String            FIELD_DATE         = "auditEventDate";
+
+    private static final long              NAMES_CACHE_MILLIS = 10_000L;
+
+    @Autowired
+    private MongoTemplate                  mongoTemplate;
+
+    private final Set<String>              indexedBuckets     = ConcurrentHashMap.newKeySet();
+
+    private volatile CollectionNames       collectionNames;
+
+    /**
+     * Stream the newest events matching the optional conditions from a cursor, newest first, without materializing
+     * more than one event at a time.
+     *
+     * @param principal principal, null means any
+     * @param after exclusive start time, null means unbounded
+     * @param type event type, null means any
+     * @param limit maximum number of events
+     * @param consumer receives the events
+     * @return number of events streamed
+     */
+    public int streamNewest(String principal, Instant after, String type, int limit,
+            Consumer<PersistentAuditEvent> consumer) {
+        Criteria criteria = new Criteria();
+        if (principal != null) {
+            criteria.and("principal").is(principal);
+        }
+        if (after != null) {
+            criteria.and(FIELD_DATE).gt(after);
+        }
+        if (type != null) {
+            criteria.and("auditEventType").is(type);
+        }
+        List<String> buckets = findBuckets(after, null);
+        Collections.reverse(buckets);
+        int count = 0;
+        for (String bucket : buckets) {
+            if (count >= limit) {
+                break;
+            }
+            Query query = Query.query(criteria).with(new Sort(Sort.Direction.DESC, FIELD_DATE)).limit(limit - count);
+            // Only the fields needed by the actuator AuditEvent
+            query.fields().exclude("id");
+            try (CloseableIterator<PersistentAuditEvent> iterator = mongoTemplate.stream(query,
+                    PersistentAuditEvent.class, bucket)) {
+                while (iterator.hasNext()) {
+                    consumer.accept(iterator.next());
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Page through the events of the time range. The buckets are visited in time order (reversed when sorted by
+     * auditEventDate descending), so the page only touches the buckets it overlaps. Any other sort order would only
+     * apply within each bucket, so it is rejected.
+     */
+    public Page<PersistentAuditEvent> findByAuditEventDateBetween(Pageable pageable, Instant fromDate,
+            Instant toDate) {
+        Criteria criteria = Criteria.where(FIELD_DATE).gt(fromDate).lt(toDate);
+        List<String> buckets = findBuckets(fromDate, toDate);
+        if (isDescending(pageable.getSort())) {
+            Collections.reverse(buckets);
+        }
+
+        long total = 0;
+        long skip = pageable.getOffset();
+        List<PersistentAuditEvent> content = new ArrayList<>(pageable.getPageSize());
+        for (String bucket : buckets) {
+            long count = mongoTemplate.count(Query.query(criteria), PersistentAuditEvent.class, bucket);
+            total += count;
+            if (content.size() >= pageable.getPageSize() || count == 0) {
+                continue;
+            }
+            if (skip >= count) {
+                skip -= count;
+                continue;
+            }
+            Query query = Query.query(criteria).with(pageable.getSort()).skip((int) skip)
+                    .limit(pageable.getPageSize() - content.size());
+            content.addAll(mongoTemplate.find(query, PersistentAuditEvent.class, bucket));
+            skip = 0;
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Count the events of the time range grouped by the formatted event time and the event type.
+     *
+     * @param fromDate inclusive start time
+     * @param toDate exclusive end time
+     * @param dateFormat $dateToString format of the time bucket, the time is in UTC
+     * @return time bucket to event type to count map
+     */
+    public Map<String, Map<String, Long>> countByTimeBucketAndType(Instant fromDate, Instant toDate,
+            String dateFormat) {
+        TypedAggregation<PersistentAuditEvent> aggregation = Aggregation.newAggregation(PersistentAuditEvent.class,
+                Aggregation.match(Criteria.where(FIELD_DATE).gte(fromDate).lt(toDate)),
+                Aggregation.project().and(FIELD_DATE).dateAsFormattedString(dateFormat).as("key")
+                        .and("auditEventType").as("type").and(foldedCount()).as("weight"),
+                Aggregation.group("key", "type").sum("weight").as("count"));
+        return aggregateCounts(aggregation, fromDate, toDate);
+    }
+
+    /**
+     * Count the events of the time range grouped by the principal and the event type, for the principals with the
+     * most events. The pipeline sorts and limits the principals, which is exact when the range lies in a single
+     * bucket. The totals of a principal spanning several buckets are only known after merging them, so the limit is
+     * applied after the merge then.
+     *
+     * @param fromDate inclusive start time
+     * @param toDate exclusive end time
+     * @param limit maximum number of principals
+     * @return principal to event type to count map, the principals with the most events first
+     */
+    public Map<String, Map<String, Long>> countByPrincipalAndType(Instant fromDate, Instant toDate, int limit) {
+        List<String> buckets = findBuckets(fromDate, toDate);
+        List<AggregationOperation> operations = new ArrayList<>(Arrays.asList(
+                Aggregation.match(Criteria.where(FIELD_DATE).gte(fromDate).lt(toDate)),
+                Aggregation.project().and("principal").as("key").and("auditEventType").as("type")
+                        .and(foldedCount()).as("weight"),
+                Aggregation.group("key", "type").sum("weight").as("count"),
+                Aggregation.group("key").sum("count").as("total")
+                        .push(new BasicDBObject("type", "$_id.type").append("count", "$count")).as("counts"),
+                Aggregation.sort(Sort.Direction.DESC, "total")));
+        if (buckets.size() == 1) {
+            operations.add(Aggregation.limit(limit));
+        }
+        TypedAggregation<PersistentAuditEvent> aggregation = Aggregation.newAggregation(PersistentAuditEvent.class,
+                operations);
+
+        Map<String, Map<String, Long>> results = new HashMap<>();
+        Map<String, Long> totals = new HashMap<>();
+        for (String bucket : buckets) {
+            for (DBObject result : mongoTemplate.aggregate(aggregation, bucket, DBObject.class)) {
+                String principal = String.valueOf(result.get("_id"));
+                totals.merge(principal, ((Number) result.get("total")).longValue(), Long::sum);
+                Map<String, Long> counts = results.computeIfAbsent(principal, key -> new HashMap<>());
+                for (Object item : (List<?>) result.get("counts")) {
+                    DBObject typeCount = (DBObject) item;
+                    counts.merge(String.valueOf(typeCount.get("type")),
+                            ((Number) typeCount.get("count")).longValue(), Long::sum);
+                }
+            }
+        }
+        return totals.entrySet().stream()
+                .sorted(Map.Entry.<String, Long> comparingByValue().reversed()).limit(limit)
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> results.get(entry.getKey()),
+                        (first, second) -> first, LinkedHashMap::new));
+    }
+
+    /**
+     * Get the bucket collection of the event time.
+     *
+     * @param auditEventDate event time
+     * @return collection name
+     */
+    public String getBucket(Instant auditEventDate) {
+        String bucket = BUCKET_PREFIX
+                + BUCKET_FORMATTER.format(YearMonth.from(auditEventDate.atOffset(ZoneOffset.UTC)));
+        if (!indexedBuckets.contains(bucket)) {
+            // Buckets are created on demand, so the indexes of the entity do not exist there yet. A failed index
+            // creation is retried by the next event, and concurrent creations of the same index are harmless.
+            mongoTemplate.indexOps(bucket).ensureIndex(new Index().on(FIELD_DATE, Sort.Direction.ASC));
+            mongoTemplate.indexOps(bucket)
+                    .ensureIndex(new Index().on("principal", Sort.Direction.ASC).on(FIELD_DATE, Sort.Direction.ASC));
+            indexedBuckets.add(bucket);
+            // The index creation created the collection as well
+            CollectionNames cached = collectionNames;
+            if (cached != null) {
+                cached.names.add(bucket);
+            }
+        }
+        return bucket;
+    }
+
+    /**
+     * Find the existing buckets overlapping the time range in time order, the legacy collection included.
+     *
+     * @param fromDate inclusive start time, null means unbounded
+     * @param toDate inclusive end time, null means unbounded
+     * @return collection names
+     */
+    public List<String> findBuckets(Instant fromDate, Instant toDate) {
+        String fromBucket = fromDate == null ? null
+                : BUCKET_PREFIX + BUCKET_FORMATTER.format(fromDate.atOffset(ZoneOffset.UTC));
+        String toBucket = toDate == null ? null
+                : BUCKET_PREFIX + BUCKET_FORMATTER.format(toDate.atOffset(ZoneOffset.UTC));
+        Set<String> collectionNames = getCollectionNames();
+        // Fixed width month suffixes make the lexical order the time order
+        List<String> buckets = collectionNames.stream()
+                .filter(name -> name.startsWith(BUCKET_PREFIX) && name.length() == BUCKET_PREFIX.length() + 6)
+                .filter(name -> fromBucket == null || name.compareTo(fromBucket) >= 0)
+                .filter(name -> toBucket == null || name.compareTo(toBucket) <= 0).sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (collectionNames.contains(LEGACY_COLLECTION)) {
+            buckets.add(0, LEGACY_COLLECTION);
+        }
+        return buckets;
+    }
+
+    /**
+     * Drop the buckets whose whole month is before the given time.
+     *
+     * @param before expiration time
+     * @param droppable whether an expired bucket may be dropped
+     * @return dropped collection names
+     */
+    public List<String> dropBucketsBefore(Instant before, Predicate<String> droppable) {
+        YearMonth expiredMonth = YearMonth.from(before.atOffset(ZoneOffset.UTC)).minusMonths(1);
+        List<String> droppedBuckets = new ArrayList<>();
+        for (String bucket : findBuckets(null, expiredMonth.atEndOfMonth().atStartOfDay().toInstant(ZoneOffset.UTC))) {
+            if (LEGACY_COLLECTION.equals(bucket)) {
+                // The legacy collection spans any time range, so it expires with its newest event
+                PersistentAuditEvent newest = mongoTemplate.findOne(
+                        new Query().with(new Sort(Sort.Direction.DESC, FIELD_DATE)), PersistentAuditEvent.class,
+                        bucket);
+                if (newest != null && !newest.getAuditEventDate().isBefore(before)) {
+                    continue;
+                }
+            }
+            if (!droppable.test(bucket)) {
+                continue;
+            }
+            dropBucket(bucket);
+            droppedBuckets.add(bucket);
+            LOGGER.info("Dropped audit event bucket {}", bucket);
+        }
+        return droppedBuckets;
+    }
+
+    /**
+     * Stream the events of a bucket in time order from a cursor, the caller must close the iterator.
+     *
+     * @param bucket collection name
+     * @param after exclusive start time, null means unbounded
+     * @param before exclusive end time
+     * @return events oldest first
+     */
+    public CloseableIterator<PersistentAuditEvent> streamOldest(String bucket, Instant after, Instant before) {
+        Criteria criteria = Criteria.where(FIELD_DATE).lt(before);
+        if (after != null) {
+            criteria.gt(after);
+        }
+        // The ids are kept, the archived events are deleted by them
+        Query query = Query.query(criteria).with(new Sort(Sort.Direction.ASC, FIELD_DATE));
+        return mongoTemplate.stream(query, PersistentAuditEvent.class, bucket);
+    }
+
+    /**
+     * Delete the events from a bucket by id in small batches, so a large deletion neither holds a long running write
+     * nor floods the replication.
+     *
+     * @param bucket collection name
+     * @param ids event ids
+     * @param batchSize number of events deleted per batch
+     * @return number of deleted events
+     */
+    public long deleteByIds(String bucket, List<String> ids, int batchSize) {
+        long deleted = 0;
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            List<String> batch = ids.subList(i, Math.min(ids.size(), i + batchSize));
+            deleted += mongoTemplate
+                    .remove(Query.query(Criteria.where("id").in(batch)), PersistentAuditEvent.class, bucket).getN();
+        }
+        return deleted;
+    }
+
+    /**
+     * Check whether a bucket has events after a time.
+     *
+     * @param bucket collection name
+     * @param after exclusive start time, null means any event
+     * @return true if there are such events
+     */
+    public boolean existsAfter(String bucket, Instant after) {
+        Query query = after == null ? new Query() : Query.query(Criteria.where(FIELD_DATE).gt(after));
+        return mongoTemplate.exists(query, PersistentAuditEvent.class, bucket);
+    }
+
+    /**
+     * Drop the bucket if it has no events left.
+     *
+     * @param bucket collection name
+     * @return true if dropped
+     */
+    public boolean dropBucketIfEmpty(String bucket) {
+        if (mongoTemplate.count(new Query(), bucket) > 0) {
+            return false;
+        }
+        dropBucket(bucket);
+        LOGGER.info("Dropped empty audit event bucket {}", bucket);
+        return true;
+    }
+
+    private void dropBucket(String bucket) {
+        mongoTemplate.dropCollection(bucket);
+        indexedBuckets.remove(bucket);
+        CollectionNames cached = collectionNames;
+        if (cached != null) {
+            cached.names.remove(bucket);
+        }
+    }
+
+    /**
+     * Every query lists the buckets, the names are cached briefly so they are not listed per request. The buckets
+     * created or dropped by this node are applied to the cache at once, the ones of the other nodes after it expires.
+     */
+    private Set<String> getCollectionNames() {
+        CollectionNames cached = collectionNames;
+        if (cached == null || System.currentTimeMillis() - cached.loadedTime > NAMES_CACHE_MILLIS) {
+            Set<String> names = ConcurrentHashMap.newKeySet();
+            names.addAll(mongoTemplate.getCollectionNames());
+            cached = new CollectionNames(names, System.currentTimeMillis());
+            collectionNames = cached;
+        }
+        return cached.names;
+    }
+
+    private static boolean isDescending(Sort sort) {
+        if (sort == null) {
+            return false;
+        }
+        boolean descending = false;
+        for (Sort.Order order : sort) {
+            if (!FIELD_DATE.equals(order.getProperty())) {
+                throw new CustomParameterizedException("auditEventSort",
+                        "Audit events can only be sorted by " + FIELD_DATE, order.getProperty());
+            }
+            descending = order.isDescending();
+        }
+        return descending;
+    }
+
+    /**
+     * A folded record stands for count events, a verbatim one for a single event.
+     */
+    private static ConditionalOperators.IfNull foldedCount() {
+        return ConditionalOperators.ifNull("count").then(1);
+    }
 
-    List<PersistentAuditEvent> findByPrincipal(String principal);
+    private Map<String, Map<String, Long>> aggregateCounts(TypedAggregation<PersistentAuditEvent> aggregation,
+            Instant fromDate, Instant toDate) {
+        Map<String, Map<String, Long>> results = new HashMap<>();
+        for (String bucket : findBuckets(fromDate, toDate)) {
+            for (DBObject result : mongoTemplate.aggregate(aggregation, bucket, DBObject.class)) {
+                DBObject id = (DBObject) result.get("_id");
+                long count = ((Number) result.get("count")).longValue();
+                results.computeIfAbsent(String.valueOf(id.get("key")), key -> new HashMap<>())
+                        .merge(String.valueOf(id.get("type")), count, Long::sum);
+            }
+        }
+        return results;
+    }
 
-    List<PersistentAuditEvent> findByAuditEventDateAfter(Instant after);
+    private static final class CollectionNames {
 
-    List<PersistentAuditEvent> findByPrincipalAndAuditEventDateAfter(String principal, Instant after);
+        private final Set<String> names;
 
-    List<PersistentAuditEvent> findByPrincipalAndAuditEventDateAfterAndAuditEventType(String principle, Instant after,
-            String type);
+        private final long        loadedTime;
 
-    Page<PersistentAuditEvent> findByAuditEventDateBetween(Pageable pageable, Instant fromDate, Instant toDate);
+        CollectionNames(Set<String> names, long loadedTime) {
+            this.names = names;
+            this.loadedTime = loadedTime;
+        }
+    }
 }
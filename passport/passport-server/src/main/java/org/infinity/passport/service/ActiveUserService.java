@@ -0,0 +1,14 @@
+package org.infinity.passport.service;
+
+import java.time.LocalDate;
+
+import org.infinity.passport.dto.ActiveUserStatsDTO;
+
+public interface ActiveUserService {
+
+    void recordActivity(String clientId, String userName);
+
+    ActiveUserStatsDTO getStatistics(String clientId, LocalDate from, LocalDate to);
+
+    void persistSketches();
+}
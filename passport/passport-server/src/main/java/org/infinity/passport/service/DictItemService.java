@@ -1,6 +1,7 @@
 package org.infinity.passport.service;
 
 import org.infinity.passport.domain.DictItem;
+import org.infinity.passport.entity.DictItemSnapshot;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -11,4 +12,8 @@ public interface DictItemService {
     void update(String id, String dictCode, String dictItemCode, String dictItemName, String remark, Boolean enabled);
 
     Page<DictItem> findByDictCodeAndDictItemNameCombinations(Pageable pageable, String dictCode, String dictItemName);
+
+    DictItemSnapshot getEnabledDictItemSnapshot();
+
+    void evictEnabledDictItemSnapshot();
 }
\ No newline at end of file
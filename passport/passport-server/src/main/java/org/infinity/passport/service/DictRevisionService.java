@@ -0,0 +1,18 @@
+package org.infinity.passport.service;
+
+import java.util.Collection;
+
+import org.infinity.passport.dto.DictChangesDTO;
+
+public interface DictRevisionService {
+
+    long nextRevision();
+
+    void recordDeletion(String type, Collection<String> entityIds);
+
+    void requireFullSync();
+
+    DictChangesDTO findChangesSince(long since);
+
+    void compactTombstones();
+}
@@ -0,0 +1,6 @@
+package org.infinity.passport.service;
+
+public interface SchedulerLeaseService {
+
+    boolean acquire(String name, long durationInMillis);
+}
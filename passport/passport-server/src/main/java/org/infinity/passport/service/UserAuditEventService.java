@@ -0,0 +1,21 @@
+package org.infinity.passport.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.infinity.passport.domain.PersistentAuditEvent;
+import org.infinity.passport.dto.UserAuditEventStatsDTO;
+import org.infinity.passport.dto.UserAuditEventStatsDTO.Interval;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface UserAuditEventService {
+
+    UserAuditEventStatsDTO getStatistics(LocalDate from, LocalDate to, Interval interval, int topPrincipalCount);
+
+    void dropExpiredBuckets();
+
+    void archiveExpiredEvents();
+
+    Page<PersistentAuditEvent> findArchivedEvents(Pageable pageable, Instant fromDate, Instant toDate);
+}
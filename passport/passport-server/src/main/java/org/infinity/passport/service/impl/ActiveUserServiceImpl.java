@@ -0,0 +1,142 @@
+package org.infinity.passport.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.infinity.passport.domain.ActiveUserSketch;
+import org.infinity.passport.dto.ActiveUserStatsDTO;
+import org.infinity.passport.repository.ActiveUserSketchRepository;
+import org.infinity.passport.service.ActiveUserService;
+import org.infinity.passport.utils.HyperLogLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps one HyperLogLog sketch per (client, day) in memory and merges the changed ones into the stored sketches
+ * periodically, the stored sketches are the union of all nodes.
+ */
+@Service
+public class ActiveUserServiceImpl implements ActiveUserService, DisposableBean {
+
+    private static final Logger            LOGGER             = LoggerFactory.getLogger(ActiveUserServiceImpl.class);
+
+    private static final int               MAX_SAVE_ATTEMPTS  = 3;
+
+    private static final int               MAX_STATISTIC_DAYS = 366;
+
+    @Autowired
+    private ActiveUserSketchRepository     activeUserSketchRepository;
+
+    private final Map<String, HyperLogLog> sketches           = new ConcurrentHashMap<>();
+
+    private final Set<String>              dirtySketchIds     = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void recordActivity(String clientId, String userName) {
+        if (clientId == null || userName == null) {
+            return;
+        }
+        String id = new ActiveUserSketch(clientId, LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE)).getId();
+        if (sketches.computeIfAbsent(id, key -> new HyperLogLog()).offer(userName)) {
+            dirtySketchIds.add(id);
+        }
+    }
+
+    @Override
+    public ActiveUserStatsDTO getStatistics(String clientId, LocalDate from, LocalDate to) {
+        List<String> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to) && days.size() < MAX_STATISTIC_DAYS; day = day.plusDays(1)) {
+            days.add(day.format(DateTimeFormatter.ISO_LOCAL_DATE));
+        }
+        List<ActiveUserSketch> storedSketches = clientId == null ? activeUserSketchRepository.findByDayIn(days)
+                : activeUserSketchRepository.findByClientIdAndDayIn(clientId, days);
+
+        Map<String, HyperLogLog> dailySketches = new LinkedHashMap<>();
+        days.forEach(day -> dailySketches.put(day, new HyperLogLog()));
+        storedSketches.forEach(
+                stored -> dailySketches.get(stored.getDay()).merge(new HyperLogLog(stored.getRegisters())));
+        // The local sketches contain the activities which have not been persisted yet
+        sketches.forEach((id, sketch) -> {
+            int separator = id.lastIndexOf(':');
+            HyperLogLog daily = dailySketches.get(id.substring(separator + 1));
+            if (daily != null && (clientId == null || clientId.equals(id.substring(0, separator)))) {
+                daily.merge(sketch);
+            }
+        });
+
+        Map<String, Long> dailyActiveUsers = new LinkedHashMap<>();
+        HyperLogLog union = new HyperLogLog();
+        dailySketches.forEach((day, sketch) -> {
+            dailyActiveUsers.put(day, sketch.cardinality());
+            union.merge(sketch);
+        });
+        return new ActiveUserStatsDTO(clientId, from.toString(), to.toString(), dailyActiveUsers,
+                union.cardinality());
+    }
+
+    @Override
+    @Scheduled(fixedDelay = 60000L)
+    public void persistSketches() {
+        for (String id : new ArrayList<>(dirtySketchIds)) {
+            dirtySketchIds.remove(id);
+            HyperLogLog sketch = sketches.get(id);
+            boolean saved = sketch == null;
+            try {
+                saved = saved || save(id, sketch);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to save active user sketch " + id, e);
+            } finally {
+                // Keep the sketch dirty so that the next run retries it
+                if (!saved) {
+                    dirtySketchIds.add(id);
+                }
+            }
+        }
+        // Only today and yesterday still receive activities
+        String yesterday = LocalDate.now().minusDays(1).format(DateTimeFormatter.ISO_LOCAL_DATE);
+        sketches.keySet().removeIf(id -> id.substring(id.lastIndexOf(':') + 1).compareTo(yesterday) < 0
+                && !dirtySketchIds.contains(id));
+    }
+
+    @Override
+    public void destroy() {
+        persistSketches();
+    }
+
+    private boolean save(String id, HyperLogLog sketch) {
+        for (int attempt = 1; attempt <= MAX_SAVE_ATTEMPTS; attempt++) {
+            ActiveUserSketch stored = activeUserSketchRepository.findOne(id);
+            if (stored == null) {
+                int separator = id.lastIndexOf(':');
+                stored = new ActiveUserSketch(id.substring(0, separator), id.substring(separator + 1));
+            } else {
+                // Pull in the activities of the other nodes, merging is idempotent
+                sketch.merge(new HyperLogLog(stored.getRegisters()));
+            }
+            stored.setRegisters(sketch.toByteArray());
+            stored.setModifiedTime(Instant.now());
+            try {
+                activeUserSketchRepository.save(stored);
+                return true;
+            } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                // A concurrent update bumps the version, a concurrent first insert collides on the id
+                LOGGER.debug("Active user sketch {} was saved by another node, retrying", id);
+            }
+        }
+        LOGGER.warn("Failed to save active user sketch {} after {} attempts", id, MAX_SAVE_ATTEMPTS);
+        return false;
+    }
+}
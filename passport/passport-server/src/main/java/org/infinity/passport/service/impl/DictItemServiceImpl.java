@@ -1,12 +1,23 @@
 package org.infinity.passport.service.impl;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
+import org.infinity.passport.config.ApplicationProperties;
 import org.infinity.passport.domain.DictItem;
+import org.infinity.passport.dto.DictItemDTO;
+import org.infinity.passport.entity.DictItemSnapshot;
 import org.infinity.passport.repository.DictItemRepository;
 import org.infinity.passport.service.DictItemService;
 import org.infinity.passport.service.DictService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,11 +26,23 @@ import org.springframework.stereotype.Service;
 @Service
 public class DictItemServiceImpl implements DictItemService {
 
+    private static final Logger       LOGGER             = LoggerFactory.getLogger(DictItemServiceImpl.class);
+
+    @Autowired
+    private DictItemRepository        dictItemRepository;
+
     @Autowired
-    private DictItemRepository dictItemRepository;
+    private DictService               dictService;
 
     @Autowired
-    private DictService        dictService;
+    private ApplicationProperties     applicationProperties;
+
+    private volatile DictItemSnapshot enabledDictItemSnapshot;
+
+    /**
+     * Incremented by each eviction, a snapshot loaded across an eviction is stale and must not stay cached
+     */
+    private final AtomicLong          evictionGeneration = new AtomicLong();
 
     @Override
     public DictItem insert(String dictCode, String dictItemCode, String dictItemName, String remark, Boolean enabled) {
@@ -57,4 +80,48 @@ public class DictItemServiceImpl implements DictItemService {
             return dictItemRepository.findByDictItemName(pageable, dictItemName);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public DictItemSnapshot getEnabledDictItemSnapshot() {
+        DictItemSnapshot snapshot = enabledDictItemSnapshot;
+        if (snapshot == null || isExpired(snapshot)) {
+            synchronized (this) {
+                snapshot = enabledDictItemSnapshot;
+                if (snapshot == null || isExpired(snapshot)) {
+                    long generation = evictionGeneration.get();
+                    snapshot = loadEnabledDictItemSnapshot();
+                    enabledDictItemSnapshot = snapshot;
+                    // An eviction after the load started may have run before the store, undo the store then. The
+                    // eviction increments the generation before clearing, so one after this check clears it itself.
+                    if (evictionGeneration.get() != generation) {
+                        enabledDictItemSnapshot = null;
+                    }
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void evictEnabledDictItemSnapshot() {
+        // The next read rebuilds the snapshot, so a burst of writes only costs one reload
+        evictionGeneration.incrementAndGet();
+        enabledDictItemSnapshot = null;
+    }
+
+    private boolean isExpired(DictItemSnapshot snapshot) {
+        long timeToLive = TimeUnit.SECONDS
+                .toMillis(applicationProperties.getDict().getSnapshotTimeToLiveInSeconds());
+        return System.currentTimeMillis() - snapshot.getCreatedTime() > timeToLive;
+    }
+
+    private DictItemSnapshot loadEnabledDictItemSnapshot() {
+        Map<String, List<DictItemDTO>> dictItems = dictItemRepository.findByEnabled(true).stream()
+                .filter(dictItem -> dictItem.getDictCode() != null).map(DictItem::asDTO)
+                .sorted(Comparator.comparing(DictItemDTO::getDictItemCode,
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .collect(Collectors.groupingBy(DictItemDTO::getDictCode, TreeMap::new, Collectors.toList()));
+        LOGGER.debug("Loaded enabled dict item snapshot with {} dict codes", dictItems.size());
+        return new DictItemSnapshot(dictItems);
+    }
+}
@@ -0,0 +1,185 @@
+package org.infinity.passport.service.impl;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.infinity.passport.config.ApplicationConstants;
+import org.infinity.passport.config.ApplicationProperties;
+import org.infinity.passport.domain.Dict;
+import org.infinity.passport.domain.DictItem;
+import org.infinity.passport.domain.DictRevision;
+import org.infinity.passport.domain.DictTombstone;
+import org.infinity.passport.domain.base.RevisionedDomain;
+import org.infinity.passport.dto.DictChangesDTO;
+import org.infinity.passport.dto.DictDTO;
+import org.infinity.passport.dto.DictItemDTO;
+import org.infinity.passport.repository.DictItemRepository;
+import org.infinity.passport.repository.DictRepository;
+import org.infinity.passport.repository.DictTombstoneRepository;
+import org.infinity.passport.service.DictRevisionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+public class DictRevisionServiceImpl implements DictRevisionService {
+
+    private static final Logger     LOGGER = LoggerFactory.getLogger(DictRevisionServiceImpl.class);
+
+    @Autowired
+    private MongoTemplate           mongoTemplate;
+
+    @Autowired
+    private DictRepository          dictRepository;
+
+    @Autowired
+    private DictItemRepository      dictItemRepository;
+
+    @Autowired
+    private DictTombstoneRepository dictTombstoneRepository;
+
+    @Autowired
+    private ApplicationProperties   applicationProperties;
+
+    @Override
+    public long nextRevision() {
+        return reserveRevisions(1);
+    }
+
+    @Override
+    public void recordDeletion(String type, Collection<String> entityIds) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        // One round trip reserves the revisions of all the tombstones, and one batch insert writes them
+        long revision = reserveRevisions(entityIds.size()) - entityIds.size();
+        List<DictTombstone> tombstones = new ArrayList<>(entityIds.size());
+        for (String entityId : entityIds) {
+            tombstones.add(new DictTombstone(type, entityId, ++revision, now));
+        }
+        dictTombstoneRepository.insert(tombstones);
+    }
+
+    @Override
+    public void requireFullSync() {
+        raiseFullSyncRevision(nextRevision());
+    }
+
+    @Override
+    public DictChangesDTO findChangesSince(long since) {
+        DictRevision dictRevision = mongoTemplate.findOne(sequenceQuery(), DictRevision.class);
+        long fullSyncRevision = dictRevision == null || dictRevision.getFullSyncRevision() == null ? 0L
+                : dictRevision.getFullSyncRevision();
+
+        // The revision of a write is taken before the write is visible, so a write still in flight may hold a lower
+        // revision than a visible one. Only the revisions taken before the sync lag are handed out as settled.
+        Instant settledTime = Instant.now().minusSeconds(applicationProperties.getDict().getSyncLagInSeconds());
+        if (since <= 0 || since < fullSyncRevision) {
+            List<Dict> dicts = dictRepository.findAll();
+            List<DictItem> dictItems = dictItemRepository.findAll();
+            long revision = maxSettledRevision(fullSyncRevision, settledTime, dicts, dictItems, null);
+            return new DictChangesDTO(revision, true,
+                    dicts.stream().map(Dict::asDTO).collect(Collectors.toList()),
+                    dictItems.stream().map(DictItem::asDTO).collect(Collectors.toList()), null, null);
+        }
+
+        List<Dict> dicts = dictRepository.findByRevisionGreaterThan(since);
+        List<DictItem> dictItems = dictItemRepository.findByRevisionGreaterThan(since);
+        List<DictTombstone> tombstones = dictTombstoneRepository.findByRevisionGreaterThan(since);
+        long revision = maxSettledRevision(since, settledTime, dicts, dictItems, tombstones);
+
+        // Drop the records which were deleted after they had been written
+        Map<String, Long> deletedRevisions = new HashMap<>(tombstones.size());
+        tombstones.forEach(t -> deletedRevisions.merge(t.getEntityId(), t.getRevision(), Math::max));
+        List<DictDTO> dictDTOs = dicts.stream()
+                .filter(dict -> dict.getRevision() > deletedRevisions.getOrDefault(dict.getId(), 0L))
+                .map(Dict::asDTO).collect(Collectors.toList());
+        List<DictItemDTO> dictItemDTOs = dictItems.stream()
+                .filter(dictItem -> dictItem.getRevision() > deletedRevisions.getOrDefault(dictItem.getId(), 0L))
+                .map(DictItem::asDTO).collect(Collectors.toList());
+        List<String> deletedDictIds = tombstones.stream().filter(t -> DictTombstone.TYPE_DICT.equals(t.getType()))
+                .map(DictTombstone::getEntityId).distinct().collect(Collectors.toList());
+        List<String> deletedDictItemIds = tombstones.stream()
+                .filter(t -> DictTombstone.TYPE_DICT_ITEM.equals(t.getType())).map(DictTombstone::getEntityId)
+                .distinct().collect(Collectors.toList());
+        return new DictChangesDTO(revision, false, dictDTOs, dictItemDTOs, deletedDictIds, deletedDictItemIds);
+    }
+
+    @Override
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void compactTombstones() {
+        LOGGER.info(ApplicationConstants.SCHEDULE_LOG_PATTERN, "compactTombstones");
+        Instant threshold = Instant.now().minus(applicationProperties.getDict().getTombstoneRetentionInDays(),
+                ChronoUnit.DAYS);
+        dictTombstoneRepository.findFirstByDeletedTimeBeforeOrderByRevisionDesc(threshold).ifPresent(latest -> {
+            // Raise the full sync revision before removing the tombstones, so that no client can miss a deletion
+            raiseFullSyncRevision(latest.getRevision());
+            Long count = dictTombstoneRepository.deleteByRevisionLessThanEqual(latest.getRevision());
+            LOGGER.info("Compacted {} dict tombstones up to revision {}", count, latest.getRevision());
+        });
+    }
+
+    private void raiseFullSyncRevision(long revision) {
+        mongoTemplate.upsert(sequenceQuery(), new Update().max("fullSyncRevision", revision), DictRevision.class);
+    }
+
+    private Query sequenceQuery() {
+        return Query.query(Criteria.where("_id").is(DictRevision.SEQUENCE_ID));
+    }
+
+    /**
+     * Reserve a block of revisions with one atomic increment shared by all the nodes.
+     *
+     * @return last revision of the block
+     */
+    private long reserveRevisions(int count) {
+        DictRevision dictRevision = mongoTemplate.findAndModify(sequenceQuery(),
+                new Update().inc("revision", (long) count), FindAndModifyOptions.options().returnNew(true).upsert(true),
+                DictRevision.class);
+        return dictRevision.getRevision();
+    }
+
+    /**
+     * The highest revision of the records written before the settled time. A write in flight took its revision after
+     * them, so its revision is higher and it is still delivered after this one. The records written after the settled
+     * time are delivered now and once more by the next request, which clients apply idempotently.
+     */
+    private long maxSettledRevision(long min, Instant settledTime, List<Dict> dicts, List<DictItem> dictItems,
+            List<DictTombstone> tombstones) {
+        long max = min;
+        for (RevisionedDomain domain : dicts) {
+            max = maxSettled(max, domain.getRevision(), domain.getModifiedTime(), settledTime);
+        }
+        for (RevisionedDomain domain : dictItems) {
+            max = maxSettled(max, domain.getRevision(), domain.getModifiedTime(), settledTime);
+        }
+        if (tombstones != null) {
+            for (DictTombstone tombstone : tombstones) {
+                max = maxSettled(max, tombstone.getRevision(), tombstone.getDeletedTime(), settledTime);
+            }
+        }
+        return max;
+    }
+
+    private static long maxSettled(long max, Long revision, Instant time, Instant settledTime) {
+        // Records written before the auditing had no modified time, they are settled long ago
+        if (revision == null || time != null && time.isAfter(settledTime)) {
+            return max;
+        }
+        return Math.max(max, revision);
+    }
+}
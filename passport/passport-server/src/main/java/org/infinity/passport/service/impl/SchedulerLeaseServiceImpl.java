@@ -0,0 +1,60 @@
+package org.infinity.passport.service.impl;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+
+import org.infinity.passport.domain.SchedulerLease;
+import org.infinity.passport.service.SchedulerLeaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cluster wide leases of the scheduled jobs, taken with one atomic findAndModify on the lease document of the job,
+ * the same way as the dict revision sequence. A node gets the lease if it is free, expired or already its own, the
+ * upsert of a node finding the lease held by another node fails on the _id and is refused.
+ */
+@Service
+public class SchedulerLeaseServiceImpl implements SchedulerLeaseService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchedulerLeaseServiceImpl.class);
+
+    /**
+     * pid@host of this JVM
+     */
+    private static final String OWNER  = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Autowired
+    private MongoTemplate       mongoTemplate;
+
+    /**
+     * Acquire the lease of a scheduled job. The lease is not released when the job ends, so the job runs once per
+     * schedule even if the clocks of the nodes differ by less than the lease.
+     *
+     * @param name name of the job
+     * @param durationInMillis duration of the lease
+     * @return true if this node holds the lease until the duration has passed
+     */
+    @Override
+    public boolean acquire(String name, long durationInMillis) {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("id").is(name).orOperator(Criteria.where("lockedUntil").lt(now),
+                Criteria.where("owner").is(OWNER)));
+        Update update = new Update().set("owner", OWNER).set("lockedUntil", now.plusMillis(durationInMillis));
+        try {
+            mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true).upsert(true),
+                    SchedulerLease.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            LOGGER.info("Lease of {} is held by another node", name);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package org.infinity.passport.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.infinity.passport.config.ApplicationConstants;
+import org.infinity.passport.config.ApplicationProperties;
+import org.infinity.passport.domain.PersistentAuditEvent;
+import org.infinity.passport.dto.UserAuditEventStatsDTO;
+import org.infinity.passport.dto.UserAuditEventStatsDTO.Interval;
+import org.infinity.passport.dto.UserAuditEventStatsDTO.PrincipalStats;
+import org.infinity.passport.dto.UserAuditEventStatsDTO.TimeBucketStats;
+import org.infinity.passport.exception.CustomParameterizedException;
+import org.infinity.passport.repository.AuditEventArchiveRepository;
+import org.infinity.passport.repository.AuditEventArchiveRepository.ArchiveFile;
+import org.infinity.passport.repository.PersistenceAuditEventRepository;
+import org.infinity.passport.service.SchedulerLeaseService;
+import org.infinity.passport.service.UserAuditEventService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+public class UserAuditEventServiceImpl implements UserAuditEventService {
+
+    private static final Logger                   LOGGER                       = LoggerFactory
+            .getLogger(UserAuditEventServiceImpl.class);
+
+    private static final String                   FAILURE_SUFFIX               = "_FAILURE";
+
+    private static final int                      MAX_CACHED_TIME_BUCKET_COUNT = 10000;
+
+    private static final int                      MAX_TIME_BUCKET_COUNT        = 1000;
+
+    private static final int                      MAX_TOP_PRINCIPAL_COUNT      = 100;
+
+    private static final String                   ARCHIVE_LEASE                = "archiveExpiredEvents";
+
+    @Autowired
+    private PersistenceAuditEventRepository       persistenceAuditEventRepository;
+
+    @Autowired
+    private AuditEventArchiveRepository           auditEventArchiveRepository;
+
+    @Autowired
+    private SchedulerLeaseService                 schedulerLeaseService;
+
+    @Autowired
+    private ApplicationProperties                 applicationProperties;
+
+    /**
+     * Counts of the time buckets which have closed, they never change and are kept in a small LRU map.
+     */
+    private final Map<String, Map<String, Long>>  closedTimeBucketCounts       = Collections
+            .synchronizedMap(new LinkedHashMap<String, Map<String, Long>>(16, 0.75F, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<String, Long>> eldest) {
+                    return size() > MAX_CACHED_TIME_BUCKET_COUNT;
+                }
+            });
+
+    /**
+     * Retention drops whole buckets, an archive running later than the retention would lose the events it has not
+     * reached yet.
+     */
+    @PostConstruct
+    public void validateRetention() {
+        ApplicationProperties.UserAuditEvent config = applicationProperties.getUserAuditEvent();
+        if (config.getArchive().isEnabled() && config.getRetentionInMonths() > 0
+                && config.getArchive().getAfterInMonths() >= config.getRetentionInMonths()) {
+            throw new IllegalStateException("application.user-audit-event.archive.after-in-months "
+                    + config.getArchive().getAfterInMonths() + " must be below retention-in-months "
+                    + config.getRetentionInMonths());
+        }
+    }
+
+    @Override
+    public UserAuditEventStatsDTO getStatistics(LocalDate from, LocalDate to, Interval interval,
+            int topPrincipalCount) {
+        if (topPrincipalCount < 0 || topPrincipalCount > MAX_TOP_PRINCIPAL_COUNT) {
+            throw new CustomParameterizedException("auditStatisticsTop",
+                    "Top must be between 0 and " + MAX_TOP_PRINCIPAL_COUNT, String.valueOf(topPrincipalCount));
+        }
+        if (from.isAfter(to)) {
+            throw new CustomParameterizedException("auditStatisticsRange", "From must not be after to",
+                    String.valueOf(from), String.valueOf(to));
+        }
+        LocalDateTime rangeStart = interval.truncate(from.atStartOfDay());
+        LocalDateTime rangeEnd = interval.truncate(to.plusDays(1).atStartOfDay().minusNanos(1))
+                .plus(1, interval.getUnit());
+        // Every time bucket of the range is listed and cached, so the range is bounded by their number
+        if (interval.getUnit().between(rangeStart, rangeEnd) > MAX_TIME_BUCKET_COUNT) {
+            throw new CustomParameterizedException("auditStatisticsRange",
+                    "Range must not exceed " + MAX_TIME_BUCKET_COUNT + " time buckets of " + interval,
+                    String.valueOf(from), String.valueOf(to));
+        }
+        LocalDateTime closedBefore = LocalDateTime.now(ZoneOffset.UTC).minus(getClosingGraceInMillis(),
+                ChronoUnit.MILLIS);
+        DateTimeFormatter formatter = interval.getFormatter();
+
+        // Only the time buckets after the first uncached or still open one are aggregated on the database
+        LocalDateTime aggregateStart = null;
+        for (LocalDateTime start = rangeStart; start.isBefore(rangeEnd); start = start.plus(1, interval.getUnit())) {
+            if (!isClosed(start, interval, closedBefore)
+                    || !closedTimeBucketCounts.containsKey(cacheKey(interval, formatter.format(start)))) {
+                aggregateStart = start;
+                break;
+            }
+        }
+        Map<String, Map<String, Long>> aggregatedCounts = aggregateStart == null ? Collections.emptyMap()
+                : persistenceAuditEventRepository.countByTimeBucketAndType(aggregateStart.toInstant(ZoneOffset.UTC),
+                        rangeEnd.toInstant(ZoneOffset.UTC), interval.getMongoDateFormat());
+
+        List<TimeBucketStats> timeBuckets = new ArrayList<>();
+        long total = 0;
+        long failures = 0;
+        for (LocalDateTime start = rangeStart; start.isBefore(rangeEnd); start = start.plus(1, interval.getUnit())) {
+            String timeBucket = formatter.format(start);
+            Map<String, Long> counts = aggregateStart == null || start.isBefore(aggregateStart)
+                    ? closedTimeBucketCounts.get(cacheKey(interval, timeBucket)) : null;
+            if (counts == null) {
+                counts = Collections.unmodifiableMap(
+                        new TreeMap<>(aggregatedCounts.getOrDefault(timeBucket, Collections.emptyMap())));
+                if (isClosed(start, interval, closedBefore)) {
+                    closedTimeBucketCounts.put(cacheKey(interval, timeBucket), counts);
+                }
+            }
+            long bucketTotal = sum(counts, false);
+            long bucketFailures = sum(counts, true);
+            timeBuckets.add(new TimeBucketStats(timeBucket, counts, bucketTotal, bucketFailures));
+            total += bucketTotal;
+            failures += bucketFailures;
+        }
+
+        List<PrincipalStats> topPrincipals = topPrincipalCount == 0 ? Collections.emptyList()
+                : persistenceAuditEventRepository
+                        .countByPrincipalAndType(rangeStart.toInstant(ZoneOffset.UTC),
+                                rangeEnd.toInstant(ZoneOffset.UTC), topPrincipalCount)
+                        .entrySet().stream().map(entry -> new PrincipalStats(entry.getKey(),
+                                sum(entry.getValue(), false), sum(entry.getValue(), true)))
+                        .collect(Collectors.toList());
+        return new UserAuditEventStatsDTO(interval.name(), timeBuckets, topPrincipals, total, failures);
+    }
+
+    @Override
+    @Scheduled(cron = "0 0 4 * * ?")
+    public void dropExpiredBuckets() {
+        LOGGER.info(ApplicationConstants.SCHEDULE_LOG_PATTERN, "dropExpiredBuckets");
+        int retentionInMonths = applicationProperties.getUserAuditEvent().getRetentionInMonths();
+        if (retentionInMonths <= 0) {
+            return;
+        }
+        Instant threshold = Instant.now().atOffset(ZoneOffset.UTC).minusMonths(retentionInMonths).toInstant();
+        boolean archiveEnabled = applicationProperties.getUserAuditEvent().getArchive().isEnabled();
+        List<String> droppedBuckets = persistenceAuditEventRepository.dropBucketsBefore(threshold,
+                bucket -> !archiveEnabled || isArchived(bucket));
+        LOGGER.info("Dropped {} expired audit event buckets before {}", droppedBuckets.size(), threshold);
+    }
+
+    /**
+     * Move the events older than the archive threshold to the compressed archive files, bucket by bucket. The events
+     * of a file are only deleted after the file has been synced and indexed, and the deletes of the indexed files not
+     * marked as deleted yet are retried on the next run, so an interrupted run leaves neither lost nor duplicated
+     * events behind. The files are written to the local disk of the node, so the job runs on the node holding the
+     * cluster wide lease only, instead of every node archiving and deleting the same events.
+     */
+    @Override
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void archiveExpiredEvents() {
+        LOGGER.info(ApplicationConstants.SCHEDULE_LOG_PATTERN, "archiveExpiredEvents");
+        ApplicationProperties.UserAuditEvent.Archive archive = applicationProperties.getUserAuditEvent().getArchive();
+        if (!archive.isEnabled()) {
+            return;
+        }
+        if (!schedulerLeaseService.acquire(ARCHIVE_LEASE, TimeUnit.MINUTES.toMillis(archive.getLeaseInMinutes()))) {
+            return;
+        }
+        Instant threshold = Instant.now().atOffset(ZoneOffset.UTC).minusMonths(archive.getAfterInMonths()).toInstant();
+        long archived = 0;
+        for (String bucket : persistenceAuditEventRepository.findBuckets(null, threshold)) {
+            List<ArchiveFile> files = auditEventArchiveRepository.findArchiveFiles(bucket);
+            for (ArchiveFile file : files) {
+                deleteArchived(bucket, file);
+            }
+            Instant after = files.isEmpty() ? null : files.get(files.size() - 1).getLastDate();
+            long[] bucketArchived = new long[1];
+            try (CloseableIterator<PersistentAuditEvent> events = persistenceAuditEventRepository.streamOldest(bucket,
+                    after, threshold)) {
+                auditEventArchiveRepository.append(bucket, events, file -> {
+                    deleteArchived(bucket, file);
+                    bucketArchived[0] += file.getCount();
+                    LOGGER.info("Archived {} audit events of {} to {}", file.getCount(), bucket, file.getFileName());
+                });
+            }
+            archived += bucketArchived[0];
+            persistenceAuditEventRepository.dropBucketIfEmpty(bucket);
+        }
+        LOGGER.info("Archived {} audit events before {}", archived, threshold);
+    }
+
+    /**
+     * The archive files are on the local disk of the node which archived them, the archived events are only found on
+     * that node.
+     */
+    @Override
+    public Page<PersistentAuditEvent> findArchivedEvents(Pageable pageable, Instant fromDate, Instant toDate) {
+        return auditEventArchiveRepository.findByAuditEventDateBetween(pageable, fromDate, toDate);
+    }
+
+    /**
+     * Delete the events of an archived file by their ids, so an event written late into the time range of the file
+     * after it was archived stays in the database, until the bucket expires, instead of being lost.
+     */
+    private void deleteArchived(String bucket, ArchiveFile file) {
+        if (file.isDeleted()) {
+            return;
+        }
+        persistenceAuditEventRepository.deleteByIds(bucket, auditEventArchiveRepository.findArchivedIds(file),
+                applicationProperties.getUserAuditEvent().getArchive().getDeleteBatchSize());
+        auditEventArchiveRepository.markDeleted(bucket, file);
+    }
+
+    /**
+     * A bucket may only be dropped once all its events are in the indexed archive files of this node, a failed or
+     * partial archive run, or a bucket archived by another node, keeps it.
+     */
+    private boolean isArchived(String bucket) {
+        List<ArchiveFile> files = auditEventArchiveRepository.findArchiveFiles(bucket);
+        Instant after = files.isEmpty() ? null : files.get(files.size() - 1).getLastDate();
+        if (persistenceAuditEventRepository.existsAfter(bucket, after)) {
+            LOGGER.warn("Kept expired audit event bucket {} with events not archived after {}", bucket, after);
+            return false;
+        }
+        return true;
+    }
+
+    private static long sum(Map<String, Long> counts, boolean failureOnly) {
+        return counts.entrySet().stream().filter(entry -> !failureOnly || entry.getKey().endsWith(FAILURE_SUFFIX))
+                .mapToLong(Map.Entry::getValue).sum();
+    }
+
+    /**
+     * A folded record is written up to a folding window after its first event, then waits for the writer flush, so a
+     * time bucket keeps changing that long after its end.
+     */
+    private long getClosingGraceInMillis() {
+        ApplicationProperties.UserAuditEvent config = applicationProperties.getUserAuditEvent();
+        return TimeUnit.SECONDS.toMillis(config.getFolding().getWindowInSeconds())
+                + config.getWriter().getFlushIntervalInMillis();
+    }
+
+    /**
+     * @param closedBefore current time minus the closing grace
+     */
+    private static boolean isClosed(LocalDateTime start, Interval interval, LocalDateTime closedBefore) {
+        return !start.plus(1, interval.getUnit()).isAfter(closedBefore);
+    }
+
+    private static String cacheKey(Interval interval, String timeBucket) {
+        return interval.name() + ":" + timeBucket;
+    }
+}
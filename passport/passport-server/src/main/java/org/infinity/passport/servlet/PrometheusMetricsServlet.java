@@ -0,0 +1,261 @@
+package org.infinity.passport.servlet;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.infinity.passport.component.RequestLatencyRecorder;
+import org.infinity.passport.component.RequestResourceRecorder;
+import org.infinity.passport.utils.HdrHistogramReservoir;
+
+import com.codahale.metrics.Counting;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.servlets.MetricsServlet;
+
+/**
+ * Exposes the metric registry in the Prometheus text format 0.0.4, written metric family by metric family straight to
+ * the response. The dotted metric names are sanitized into Prometheus names, the meters and counters become counters,
+ * and the timers and histograms become summaries with quantile labels, timers in seconds. The metrics of the request
+ * recorders share one family name with the HTTP method, route template and status class as labels.
+ * <p>
+ * The _sum of a summary is exact for the metrics backed by {@link HdrHistogramReservoir}, which keeps the sum of all
+ * the recorded values, the reservoirs of Dropwizard only keep samples, so it is estimated by the mean times the count
+ * for the others. The snapshots of an {@link HdrHistogramReservoir} are read-only views, reading them neither copies
+ * nor rotates the window.
+ */
+public class PrometheusMetricsServlet extends HttpServlet {
+
+    private static final long             serialVersionUID = -2118932711826381672L;
+
+    private static final String           CONTENT_TYPE     = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final Pattern          ILLEGAL_CHARS    = Pattern.compile("[^a-zA-Z0-9_:]");
+
+    private static final double[]         QUANTILES        = { 0.5, 0.75, 0.95, 0.98, 0.99, 0.999 };
+
+    private static final String[]         QUANTILE_LABELS  = { "quantile=\"0.5\"", "quantile=\"0.75\"",
+            "quantile=\"0.95\"", "quantile=\"0.98\"", "quantile=\"0.99\"", "quantile=\"0.999\"" };
+
+    private static final double           SECONDS_PER_NANO = 1.0D / TimeUnit.SECONDS.toNanos(1);
+
+    private static final String           LATENCY_PREFIX   = RequestLatencyRecorder.class.getName() + ".";
+
+    private static final String           RESOURCE_PREFIX  = RequestResourceRecorder.class.getName() + ".";
+
+    /**
+     * The registry names are stable, so each one is parsed once.
+     */
+    private final Map<String, MetricName> metricNames      = new ConcurrentHashMap<>();
+
+    private transient MetricRegistry      metricRegistry;
+
+    @Override
+    public void init() throws ServletException {
+        metricRegistry = (MetricRegistry) getServletContext().getAttribute(MetricsServlet.METRICS_REGISTRY);
+        if (metricRegistry == null) {
+            throw new ServletException("No metric registry in the servlet context");
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(CONTENT_TYPE);
+        response.setHeader("Cache-Control", "must-revalidate,no-cache,no-store");
+        Writer writer = response.getWriter();
+        // Different registry names may map to the same family, only the first one is written
+        Set<String> written = new HashSet<>();
+        write(writer, written, metricRegistry.getGauges(), "", "gauge", PrometheusMetricsServlet::writeGauge);
+        write(writer, written, metricRegistry.getCounters(), "_total", "counter", PrometheusMetricsServlet::writeCount);
+        write(writer, written, metricRegistry.getMeters(), "_total", "counter", PrometheusMetricsServlet::writeCount);
+        write(writer, written, metricRegistry.getHistograms(), "", "summary",
+                (out, name, histogram) -> writeSummary(out, name, histogram.getSnapshot(), histogram.getCount(), 1.0D));
+        write(writer, written, metricRegistry.getTimers(), "_seconds", "summary",
+                (out, name, timer) -> writeSummary(out, name, timer.getSnapshot(), timer.getCount(), SECONDS_PER_NANO));
+        writer.flush();
+    }
+
+    /**
+     * Write the metrics of one type in the name order of the registry. A metric without labels is a family of its own
+     * and is written directly, only the metrics of the request recorders are grouped into their families first.
+     */
+    private <T extends Metric> void write(Writer writer, Set<String> written, Map<String, T> metrics, String suffix,
+            String type, SampleWriter<T> sampleWriter) throws IOException {
+        Map<String, List<Map.Entry<MetricName, T>>> recorderFamilies = null;
+        for (Map.Entry<String, T> entry : metrics.entrySet()) {
+            MetricName name = getMetricName(entry.getKey(), suffix);
+            if (!name.labels.isEmpty()) {
+                if (recorderFamilies == null) {
+                    recorderFamilies = new LinkedHashMap<>();
+                }
+                recorderFamilies.computeIfAbsent(name.name, key -> new ArrayList<>())
+                        .add(new AbstractMap.SimpleImmutableEntry<>(name, entry.getValue()));
+            } else if (written.add(name.name)) {
+                writeType(writer, name.name, type);
+                sampleWriter.write(writer, name, entry.getValue());
+            }
+        }
+        if (recorderFamilies == null) {
+            return;
+        }
+        for (Map.Entry<String, List<Map.Entry<MetricName, T>>> family : recorderFamilies.entrySet()) {
+            if (written.add(family.getKey())) {
+                writeType(writer, family.getKey(), type);
+                for (Map.Entry<MetricName, T> member : family.getValue()) {
+                    sampleWriter.write(writer, member.getKey(), member.getValue());
+                }
+            }
+        }
+    }
+
+    private static void writeGauge(Writer writer, MetricName name, Gauge<?> gauge) throws IOException {
+        Object value;
+        try {
+            value = gauge.getValue();
+        } catch (RuntimeException e) {
+            // A failing gauge must not break the scrape
+            return;
+        }
+        double number;
+        if (value instanceof Number) {
+            number = ((Number) value).doubleValue();
+        } else if (value instanceof Boolean) {
+            number = ((Boolean) value) ? 1 : 0;
+        } else {
+            return;
+        }
+        writeSample(writer, name.name, "", name.labels, number);
+    }
+
+    private static void writeCount(Writer writer, MetricName name, Counting counting) throws IOException {
+        writeSample(writer, name.name, "", name.labels, counting.getCount());
+    }
+
+    private static void writeSummary(Writer writer, MetricName name, Snapshot snapshot, long count, double factor)
+            throws IOException {
+        String separator = name.labels.isEmpty() ? "" : ",";
+        for (int i = 0; i < QUANTILES.length; i++) {
+            writeSample(writer, name.name, "", name.labels + separator + QUANTILE_LABELS[i],
+                    snapshot.getValue(QUANTILES[i]) * factor);
+        }
+        double sum = snapshot instanceof HdrHistogramReservoir.HdrHistogramSnapshot
+                ? ((HdrHistogramReservoir.HdrHistogramSnapshot) snapshot).getSum() : snapshot.getMean() * count;
+        writeSample(writer, name.name, "_sum", name.labels, sum * factor);
+        writeSample(writer, name.name, "_count", name.labels, count);
+    }
+
+    private static void writeType(Writer writer, String name, String type) throws IOException {
+        writer.write("# TYPE ");
+        writer.write(name);
+        writer.write(' ');
+        writer.write(type);
+        writer.write('\n');
+    }
+
+    private static void writeSample(Writer writer, String name, String suffix, String labels, double value)
+            throws IOException {
+        writer.write(name);
+        writer.write(suffix);
+        if (!labels.isEmpty()) {
+            writer.write('{');
+            writer.write(labels);
+            writer.write('}');
+        }
+        writer.write(' ');
+        if (Double.isNaN(value)) {
+            writer.write("NaN");
+        } else if (Double.isInfinite(value)) {
+            writer.write(value > 0 ? "+Inf" : "-Inf");
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            writer.write(Long.toString((long) value));
+        } else {
+            writer.write(Double.toString(value));
+        }
+        writer.write('\n');
+    }
+
+    private MetricName getMetricName(String registryName, String suffix) {
+        String key = registryName + suffix;
+        MetricName name = metricNames.get(key);
+        if (name == null) {
+            name = parse(registryName, suffix);
+            metricNames.put(key, name);
+        }
+        return name;
+    }
+
+    /**
+     * The request recorders name their metrics by class, method, route and status class or resource, the route may
+     * contain dots, but the method, the status class and the resource do not.
+     */
+    private static MetricName parse(String registryName, String suffix) {
+        int methodEnd = registryName.indexOf('.', LATENCY_PREFIX.length());
+        int lastDot = registryName.lastIndexOf('.');
+        if (registryName.startsWith(LATENCY_PREFIX) && methodEnd > 0 && methodEnd < lastDot) {
+            return new MetricName(sanitize(LATENCY_PREFIX + "requests") + suffix,
+                    labels(registryName.substring(LATENCY_PREFIX.length(), methodEnd),
+                            registryName.substring(methodEnd + 1, lastDot), registryName.substring(lastDot + 1)));
+        }
+        methodEnd = registryName.indexOf('.', RESOURCE_PREFIX.length());
+        if (registryName.startsWith(RESOURCE_PREFIX) && methodEnd > 0 && methodEnd < lastDot) {
+            return new MetricName(sanitize(RESOURCE_PREFIX + registryName.substring(lastDot + 1)) + suffix,
+                    labels(registryName.substring(RESOURCE_PREFIX.length(), methodEnd),
+                            registryName.substring(methodEnd + 1, lastDot), null));
+        }
+        return new MetricName(sanitize(registryName) + suffix, "");
+    }
+
+    private static String labels(String method, String route, String status) {
+        StringBuilder labels = new StringBuilder();
+        labels.append("method=\"").append(escape(method)).append("\",route=\"").append(escape(route)).append('"');
+        if (status != null) {
+            labels.append(",status=\"").append(escape(status)).append('"');
+        }
+        return labels.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String sanitize(String name) {
+        String sanitized = ILLEGAL_CHARS.matcher(name).replaceAll("_");
+        return Character.isDigit(sanitized.charAt(0)) ? "_" + sanitized : sanitized;
+    }
+
+    private static class MetricName {
+
+        private final String name;
+
+        private final String labels;
+
+        MetricName(String name, String labels) {
+            this.name = name;
+            this.labels = labels;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SampleWriter<T extends Metric> {
+
+        void write(Writer writer, MetricName name, T metric) throws IOException;
+    }
+}
@@ -1,16 +1,24 @@
 package org.infinity.passport.setup;
 
 import java.util.Arrays;
+import java.util.List;
 
 import org.infinity.passport.domain.AdminMenu;
 import org.infinity.passport.domain.App;
 import org.infinity.passport.domain.AppAuthority;
 import org.infinity.passport.domain.Authority;
 import org.infinity.passport.domain.AuthorityAdminMenu;
+import org.infinity.passport.domain.Dict;
+import org.infinity.passport.domain.DictItem;
+import org.infinity.passport.domain.DictRevision;
 import org.infinity.passport.domain.OAuth2AuthenticationClientDetails;
 import org.infinity.passport.domain.User;
 import org.infinity.passport.domain.UserAuthority;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import com.github.mongobee.changeset.ChangeLog;
 import com.github.mongobee.changeset.ChangeSet;
@@ -195,4 +203,33 @@ public class DatabaseInitialSetup {
         oAuth2AuthenticationClientDetails.setRefreshTokenValiditySeconds(604800);
         mongoTemplate.save(oAuth2AuthenticationClientDetails);
     }
+
+    /**
+     * Stamps the dicts and dict items written before the delta-sync feed with revisions from the sequence, so a full
+     * sync hands out a revision the clients can continue from. The update leaves the other fields untouched.
+     */
+    @ChangeSet(order = "06", author = "Louis", id = "addDictRevisions")
+    public void addDictRevisions(MongoTemplate mongoTemplate) {
+        Query query = Query.query(Criteria.where("revision").exists(false));
+        List<Dict> dicts = mongoTemplate.find(query, Dict.class);
+        List<DictItem> dictItems = mongoTemplate.find(query, DictItem.class);
+        int count = dicts.size() + dictItems.size();
+        if (count == 0) {
+            return;
+        }
+        // Reserve the revisions with one atomic increment, like DictRevisionService, a node may be running already
+        DictRevision dictRevision = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(DictRevision.SEQUENCE_ID)),
+                new Update().inc("revision", (long) count), FindAndModifyOptions.options().returnNew(true).upsert(true),
+                DictRevision.class);
+        long revision = dictRevision.getRevision() - count;
+        for (Dict dict : dicts) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(dict.getId())),
+                    Update.update("revision", ++revision), Dict.class);
+        }
+        for (DictItem dictItem : dictItems) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(dictItem.getId())),
+                    Update.update("revision", ++revision), DictItem.class);
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package org.infinity.passport.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min sketch estimating the frequencies of the values of a stream in fixed memory, depth rows of width
+ * counters. An estimate is never below the true count and exceeds it by at most 2/width of the total count with a
+ * probability of 1 - 0.5^depth. The counters are atomic, so the sketch is updated without locking.
+ */
+public class CountMinSketch {
+
+    private final int             depth;
+
+    private final int             width;
+
+    private final AtomicLongArray counters;
+
+    public CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+
+    /**
+     * Add one occurrence of the value.
+     *
+     * @param value value
+     * @return estimated count of the value including this occurrence
+     */
+    public long add(String value) {
+        long hash = HyperLogLog.hash(value);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimate the count of the value.
+     *
+     * @param value value
+     * @return estimated count
+     */
+    public long estimate(String value) {
+        long hash = HyperLogLog.hash(value);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    /**
+     * The row hashes are derived from the two halves of one 64 bit hash, h1 + row * h2.
+     */
+    private int index(long hash, int row) {
+        int combined = (int) hash + row * (int) (hash >>> 32);
+        return row * width + (combined & Integer.MAX_VALUE) % width;
+    }
+}
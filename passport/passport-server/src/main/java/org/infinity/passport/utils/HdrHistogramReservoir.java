@@ -0,0 +1,203 @@
+package org.infinity.passport.utils;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.Recorder;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+
+/**
+ * Dropwizard reservoir keeping every recorded duration in an HdrHistogram with microsecond resolution and two
+ * significant digits, instead of sampling them. Recording is wait free and the histograms are auto-resizing, so an
+ * idle or fast reservoir stays a few KB. A shared clock tick publishes the recorded values at the end of each window,
+ * and the snapshots are read-only views of the last published window, so the readers neither reset nor copy
+ * anything and a window without values publishes an empty histogram.
+ * The updates and the snapshot values are in nanoseconds like the ones of a Timer.
+ */
+public class HdrHistogramReservoir implements Reservoir {
+
+    private static final long  HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toMicros(1);
+
+    private static final int   SIGNIFICANT_DIGITS      = 2;
+
+    private final Recorder     recorder                = new Recorder(SIGNIFICANT_DIGITS);
+
+    private final LongAdder    sum                     = new LongAdder();
+
+    private final long         windowInNanos;
+
+    private final long         originTime              = System.nanoTime();
+
+    private long               windowIndex;
+
+    private volatile Histogram publishedWindow         = new Histogram(SIGNIFICANT_DIGITS);
+
+    /**
+     * @param windowInSeconds length of a window
+     */
+    public HdrHistogramReservoir(long windowInSeconds) {
+        this.windowInNanos = TimeUnit.SECONDS.toNanos(Math.max(windowInSeconds, 1));
+        Rotator.register(this);
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(publishedWindow.getTotalCount(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(long value) {
+        sum.add(value);
+        recorder.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(value), 0), HIGHEST_TRACKABLE_VALUE));
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        return new HdrHistogramSnapshot(publishedWindow, sum.sum());
+    }
+
+    /**
+     * Publish the values recorded in the window just ended, only called by the rotator thread.
+     */
+    private void rotate(long now) {
+        long index = (now - originTime) / windowInNanos;
+        if (index == windowIndex) {
+            return;
+        }
+        // The histogram handed out by the recorder is never recycled, the snapshots may still read it
+        Histogram interval = recorder.getIntervalHistogram();
+        // Missed ticks, e.g. on a long GC pause, leave values older than the last window behind, they are dropped
+        publishedWindow = index == windowIndex + 1 ? interval : new Histogram(SIGNIFICANT_DIGITS);
+        windowIndex = index;
+    }
+
+    /**
+     * Snapshot over a published histogram, which is never changed again, the microsecond values are converted back to
+     * nanoseconds.
+     */
+    public static class HdrHistogramSnapshot extends Snapshot {
+
+        private final Histogram histogram;
+
+        private final long      sum;
+
+        HdrHistogramSnapshot(Histogram histogram, long sum) {
+            this.histogram = histogram;
+            this.sum = sum;
+        }
+
+        /**
+         * @return sum of all the values recorded since the reservoir was created, unlike the other statistics which
+         * cover the last window
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            return toNanos(histogram.getValueAtPercentile(quantile * 100));
+        }
+
+        /**
+         * Expands the histogram into one value per recorded duration, only meant for small windows.
+         */
+        @Override
+        public long[] getValues() {
+            long[] values = new long[size()];
+            int i = 0;
+            for (HistogramIterationValue value : histogram.recordedValues()) {
+                for (long count = 0; count < value.getCountAtValueIteratedTo() && i < values.length; count++) {
+                    values[i++] = toNanos(value.getValueIteratedTo());
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(histogram.getTotalCount(), Integer.MAX_VALUE);
+        }
+
+        @Override
+        public long getMax() {
+            return toNanos(histogram.getMaxValue());
+        }
+
+        @Override
+        public double getMean() {
+            return histogram.getMean() * 1000;
+        }
+
+        @Override
+        public long getMin() {
+            return histogram.getTotalCount() == 0 ? 0 : toNanos(histogram.getMinValue());
+        }
+
+        @Override
+        public double getStdDev() {
+            return histogram.getStdDeviation() * 1000;
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                for (long value : getValues()) {
+                    out.printf("%d%n", value);
+                }
+            }
+        }
+
+        private static long toNanos(long micros) {
+            return TimeUnit.MICROSECONDS.toNanos(micros);
+        }
+    }
+
+    /**
+     * Clock tick shared by all the reservoirs, a removed metric is released with its reservoir.
+     */
+    private static final class Rotator {
+
+        private static final long                                        TICK_IN_MILLIS = 1000L;
+
+        private static final Queue<WeakReference<HdrHistogramReservoir>> RESERVOIRS     = new ConcurrentLinkedQueue<>();
+
+        static {
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "hdr-histogram-rotator");
+                thread.setDaemon(true);
+                return thread;
+            }).scheduleAtFixedRate(Rotator::rotateAll, TICK_IN_MILLIS, TICK_IN_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        static void register(HdrHistogramReservoir reservoir) {
+            RESERVOIRS.add(new WeakReference<>(reservoir));
+        }
+
+        private static void rotateAll() {
+            long now = System.nanoTime();
+            Iterator<WeakReference<HdrHistogramReservoir>> iterator = RESERVOIRS.iterator();
+            while (iterator.hasNext()) {
+                HdrHistogramReservoir reservoir = iterator.next().get();
+                if (reservoir == null) {
+                    iterator.remove();
+                } else {
+                    reservoir.rotate(now);
+                }
+            }
+        }
+    }
+}
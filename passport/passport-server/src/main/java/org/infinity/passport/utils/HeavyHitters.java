@@ -0,0 +1,148 @@
+package org.infinity.passport.utils;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks the most frequent values of a stream over a sliding window in fixed memory. The window is split into
+ * buckets, each with a {@link CountMinSketch} and a bounded set of candidate heavy hitters, the bucket of the oldest
+ * period is reused for the current one. The count of a value over the window is the sum of its estimates in the
+ * buckets of the window.
+ * <p>
+ * An offer increments the atomic counters of the sketch, the candidates are a concurrent map. Resetting a bucket and
+ * trimming the candidates only happen under a try lock, a thread finding it taken does not wait. Occurrences offered
+ * while a bucket is reset may be lost, which does not matter for finding the heavy hitters.
+ */
+public class HeavyHitters {
+
+    private final Bucket[] buckets;
+
+    private final long     bucketInMillis;
+
+    private final int      capacity;
+
+    /**
+     * @param windowInSeconds sliding window
+     * @param bucketCount number of buckets of the window
+     * @param depth depth of the sketches
+     * @param width width of the sketches
+     * @param capacity number of candidates kept per bucket
+     */
+    public HeavyHitters(long windowInSeconds, int bucketCount, int depth, int width, int capacity) {
+        this.bucketInMillis = windowInSeconds * 1000 / bucketCount;
+        this.capacity = capacity;
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket(new CountMinSketch(depth, width));
+        }
+    }
+
+    /**
+     * Add one occurrence of the value.
+     *
+     * @param value value
+     */
+    public void offer(String value) {
+        long period = System.currentTimeMillis() / bucketInMillis;
+        Bucket bucket = buckets[(int) (period % buckets.length)];
+        if (bucket.period != period) {
+            bucket.reset(period);
+        }
+        long estimate = bucket.sketch.add(value);
+        if (estimate > bucket.threshold) {
+            bucket.candidates.put(value, estimate);
+            // Trimmed to the capacity when twice as large, so the trimming is rare
+            if (bucket.candidates.size() > 2 * capacity) {
+                bucket.trim(capacity);
+            }
+        }
+    }
+
+    /**
+     * Get the most frequent values of the window.
+     *
+     * @param limit maximum number of values
+     * @return values and their estimated counts, the most frequent first
+     */
+    public List<Entry<String, Long>> top(int limit) {
+        long oldestPeriod = System.currentTimeMillis() / bucketInMillis - buckets.length + 1;
+        List<Bucket> current = new ArrayList<>(buckets.length);
+        Set<String> values = new HashSet<>();
+        for (Bucket bucket : buckets) {
+            if (bucket.period >= oldestPeriod) {
+                current.add(bucket);
+                values.addAll(bucket.candidates.keySet());
+            }
+        }
+        List<Entry<String, Long>> results = new ArrayList<>(values.size());
+        for (String value : values) {
+            long count = 0;
+            for (Bucket bucket : current) {
+                count += bucket.sketch.estimate(value);
+            }
+            results.add(new SimpleImmutableEntry<>(value, count));
+        }
+        results.sort(Entry.<String, Long> comparingByValue().reversed());
+        return results.size() > limit ? results.subList(0, limit) : results;
+    }
+
+    private static class Bucket {
+
+        private final CountMinSketch    sketch;
+
+        private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+
+        private final ReentrantLock     lock       = new ReentrantLock();
+
+        private volatile long           period     = -1;
+
+        /**
+         * Estimate a value needs to become a candidate once the candidates were trimmed
+         */
+        private volatile long           threshold;
+
+        Bucket(CountMinSketch sketch) {
+            this.sketch = sketch;
+        }
+
+        void reset(long newPeriod) {
+            if (!lock.tryLock()) {
+                return;
+            }
+            try {
+                if (period != newPeriod) {
+                    sketch.clear();
+                    candidates.clear();
+                    threshold = 0;
+                    period = newPeriod;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void trim(int capacity) {
+            if (!lock.tryLock()) {
+                return;
+            }
+            try {
+                List<Entry<String, Long>> entries = new ArrayList<>(candidates.entrySet());
+                if (entries.size() <= capacity) {
+                    return;
+                }
+                entries.sort(Entry.<String, Long> comparingByValue().reversed());
+                threshold = entries.get(capacity - 1).getValue();
+                entries.subList(capacity, entries.size()).forEach(entry -> candidates.remove(entry.getKey()));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
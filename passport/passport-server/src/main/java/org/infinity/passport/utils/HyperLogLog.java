@@ -0,0 +1,120 @@
+package org.infinity.passport.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog cardinality sketch with 2^14 one byte registers, about 16KB per sketch with a standard error of 0.8%.
+ * Sketches are merged by taking the register maximums, so the sketches of several nodes or days can be combined
+ * into the cardinality of their union.
+ * Reads are lock free, a register is only updated under the lock of the sketch when the new rank is higher, which
+ * is rare once the sketch has warmed up.
+ */
+public class HyperLogLog {
+
+    public static final int     PRECISION      = 14;
+
+    public static final int     REGISTER_COUNT = 1 << PRECISION;
+
+    private static final double ALPHA          = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+
+    private final byte[]        registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTER_COUNT];
+    }
+
+    /**
+     * Restore a sketch from the registers returned by {@link #toByteArray()}.
+     *
+     * @param registers registers
+     */
+    public HyperLogLog(byte[] registers) {
+        if (registers.length != REGISTER_COUNT) {
+            throw new IllegalArgumentException("Expected " + REGISTER_COUNT + " registers, got " + registers.length);
+        }
+        this.registers = Arrays.copyOf(registers, REGISTER_COUNT);
+    }
+
+    /**
+     * Add the value to the sketch.
+     *
+     * @param value value
+     * @return true if a register was changed
+     */
+    public boolean offer(String value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // Rank of the first one bit in the remaining bits, the sentinel bit bounds it
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (registers[index] >= rank) {
+            return false;
+        }
+        synchronized (this) {
+            if (registers[index] >= rank) {
+                return false;
+            }
+            registers[index] = rank;
+            return true;
+        }
+    }
+
+    /**
+     * Merge the other sketch into this one.
+     *
+     * @param other other sketch
+     */
+    public synchronized void merge(HyperLogLog other) {
+        byte[] otherRegisters = other.toByteArray();
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            if (otherRegisters[i] > registers[i]) {
+                registers[i] = otherRegisters[i];
+            }
+        }
+    }
+
+    /**
+     * Estimate the number of distinct values.
+     *
+     * @return estimated cardinality
+     */
+    public long cardinality() {
+        double sum = 0;
+        int zeroRegisters = 0;
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            byte register = registers[i];
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeroRegisters++;
+            }
+        }
+        double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (estimate <= 2.5 * REGISTER_COUNT && zeroRegisters > 0) {
+            // Linear counting is more accurate for small cardinalities
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeroRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    public synchronized byte[] toByteArray() {
+        return Arrays.copyOf(registers, REGISTER_COUNT);
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the UTF-8 bytes followed by the MurmurHash3 finalizer for a good avalanche, shared with
+     * {@link CountMinSketch}.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb3fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,55 +1,114 @@
-package org.infinity.passport.utils;
-
-import java.text.MessageFormat;
-
-import javax.servlet.http.HttpServletRequest;
-
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.StringUtils;
-import org.infinity.passport.config.ApplicationConstants;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.util.Assert;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
-
-public final class LogUtils {
-
-    private static final Logger LOGGER = LoggerFactory.getLogger(LogUtils.class);
-
-    public static void error(String message) {
-        error(message, new Object[0]);
-    }
-
-    public static void error(String message, Object... arguments) {
-        error(null, message, arguments);
-    }
-
-    public static void error(Throwable throwable, String message) {
-        error(throwable, message, new Object[0]);
-    }
-
-    public static void error(Throwable throwable, String message, Object... arguments) {
-        Assert.hasText(message, "it must not be null, empty, or blank");
-
-        StringBuffer sb = new StringBuffer();
-        sb.append("Error details:").append(IOUtils.LINE_SEPARATOR);
-        if (RequestContextHolder.getRequestAttributes() != null) {
-            HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes())
-                    .getRequest();
-            String profile = request.getServletContext().getInitParameter(ApplicationConstants.SPRING_PROFILES_ACTIVE);
-            if (StringUtils.isNotEmpty(profile)) {
-                sb.append(MessageFormat.format("Profile: {0}", profile)).append(IOUtils.LINE_SEPARATOR);
-            }
-        }
-        String userName = SecurityUtils.getCurrentUserName() != null ? SecurityUtils.getCurrentUserName()
-                : ApplicationConstants.SYSTEM_ACCOUNT;
-        sb.append(MessageFormat.format("User: {0}", userName)).append(IOUtils.LINE_SEPARATOR);
-        sb.append(MessageFormat.format(message, arguments));
-        if (throwable == null) {
-            LOGGER.error(sb.toString());
-        } else {
-            LOGGER.error(sb.toString(), throwable);
-        }
-    }
-}
+package org.infinity.passport.utils;
+
+import java.lang.reflect.Method;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.infinity.passport.config.ApplicationConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public final class LogUtils {
+
+    private static final Logger                  LOGGER                    = LoggerFactory.getLogger(LogUtils.class);
+
+    private static final Pattern                 SENSITIVE_PARAMETER       = Pattern
+            .compile("(?i).*(password|secret|token|key).*");
+
+    private static final int                     MAX_ARGUMENT_LENGTH       = 64;
+
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    public static void error(String message) {
+        error(message, new Object[0]);
+    }
+
+    public static void error(String message, Object... arguments) {
+        error(null, message, arguments);
+    }
+
+    public static void error(Throwable throwable, String message) {
+        error(throwable, message, new Object[0]);
+    }
+
+    public static void error(Throwable throwable, String message, Object... arguments) {
+        Assert.hasText(message, "it must not be null, empty, or blank");
+
+        StringBuffer sb = new StringBuffer();
+        sb.append("Error details:").append(IOUtils.LINE_SEPARATOR);
+        if (RequestContextHolder.getRequestAttributes() != null) {
+            HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes())
+                    .getRequest();
+            String profile = request.getServletContext().getInitParameter(ApplicationConstants.SPRING_PROFILES_ACTIVE);
+            if (StringUtils.isNotEmpty(profile)) {
+                sb.append(MessageFormat.format("Profile: {0}", profile)).append(IOUtils.LINE_SEPARATOR);
+            }
+        }
+        String userName = SecurityUtils.getCurrentUserName() != null ? SecurityUtils.getCurrentUserName()
+                : ApplicationConstants.SYSTEM_ACCOUNT;
+        sb.append(MessageFormat.format("User: {0}", userName)).append(IOUtils.LINE_SEPARATOR);
+        sb.append(MessageFormat.format(message, arguments));
+        if (throwable == null) {
+            LOGGER.error(sb.toString());
+        } else {
+            LOGGER.error(sb.toString(), throwable);
+        }
+    }
+
+    /**
+     * Summarize the arguments of an invocation for a log line, the values of the parameters named like a credential
+     * are masked.
+     *
+     * @param method invoked method, compiled with the parameter names or not
+     * @param args arguments
+     * @return comma separated name=value pairs
+     */
+    public static String summarizeArguments(Method method, Object[] args) {
+        if (args == null || args.length == 0) {
+            return "";
+        }
+        String[] names = PARAMETER_NAME_DISCOVERER.getParameterNames(method);
+        List<String> summaries = new ArrayList<>(args.length);
+        for (int i = 0; i < args.length; i++) {
+            String name = names == null ? "arg" + i : names[i];
+            summaries.add(name + "=" + (SENSITIVE_PARAMETER.matcher(name).matches() ? "******" : summarize(args[i])));
+        }
+        return String.join(", ", summaries);
+    }
+
+    /**
+     * Summarize a value for a log line, only the type of a domain object is shown as it may carry credentials.
+     *
+     * @param arg value
+     * @return summary
+     */
+    public static String summarize(Object arg) {
+        if (arg == null || arg instanceof Number || arg instanceof Boolean || arg instanceof Enum) {
+            return String.valueOf(arg);
+        }
+        if (arg instanceof CharSequence) {
+            String value = arg.toString();
+            return value.length() > MAX_ARGUMENT_LENGTH ? value.substring(0, MAX_ARGUMENT_LENGTH) + "..." : value;
+        }
+        if (arg instanceof Collection) {
+            return arg.getClass().getSimpleName() + "[" + ((Collection<?>) arg).size() + "]";
+        }
+        if (arg instanceof Map) {
+            return arg.getClass().getSimpleName() + "[" + ((Map<?, ?>) arg).size() + "]";
+        }
+        return arg.getClass().getSimpleName();
+    }
+}
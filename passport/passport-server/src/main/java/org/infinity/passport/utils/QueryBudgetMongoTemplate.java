@@ -0,0 +1,342 @@
+package org.infinity.passport.utils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.infinity.passport.component.MongoCommandMetricsListener;
+import org.infinity.passport.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Meta;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import com.codahale.metrics.MetricRegistry;
+import com.mongodb.BasicDBObject;
+import com.mongodb.CommandResult;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.model.DBCollectionCountOptions;
+
+/**
+ * Mongo template setting a server side time limit, maxTimeMS, on the find, count, exists and aggregate queries and
+ * on the streams with a limit, so a pathological query gives up on the server instead of holding a connection and a
+ * request thread. The budget is looked up by the calling repository method, e.g. DictItemRepository.findByDictItemName,
+ * then by the repository, e.g. DictItemRepository, then the default applies, the same for the derived queries and the
+ * direct template calls. The budget covers the whole repository method call, see {@link #startDeadline()}, so the
+ * queries of a method fanning out, e.g. over the audit event buckets, share it instead of each getting a full one.
+ * A query with a time limit of its own keeps it, and is copied before a time limit is set, the caller's query is never
+ * changed.
+ * <p>
+ * Left without a budget are the lookups by id, which use the _id index, the writes, and the streams without a limit,
+ * e.g. the audit event archival, whose cursor may legitimately be read for longer than any request budget.
+ * <p>
+ * A query exceeding its budget fails with a {@link QueryTimeoutException} and is counted per caller.
+ */
+public class QueryBudgetMongoTemplate extends MongoTemplate {
+
+    private static final Logger            LOGGER              = LoggerFactory
+            .getLogger(QueryBudgetMongoTemplate.class);
+
+    private static final String            NO_CALLER           = "-";
+
+    /**
+     * Server error code of an operation exceeding its maxTimeMS, reported by a command rather than by a cursor
+     */
+    private static final int               MAX_TIME_MS_EXPIRED = 50;
+
+    /**
+     * Start time of the outermost repository method call of the current thread
+     */
+    private static final ThreadLocal<Long> DEADLINE_START      = new ThreadLocal<>();
+
+    private final ApplicationProperties    applicationProperties;
+
+    private final MetricRegistry           metricRegistry;
+
+    private final QueryMapper              queryMapper;
+
+    public QueryBudgetMongoTemplate(MongoDbFactory mongoDbFactory, MongoConverter mongoConverter,
+            ApplicationProperties applicationProperties, MetricRegistry metricRegistry) {
+        super(mongoDbFactory, mongoConverter);
+        this.applicationProperties = applicationProperties;
+        this.metricRegistry = metricRegistry;
+        this.queryMapper = new QueryMapper(mongoConverter);
+    }
+
+    /**
+     * Start the budget of a repository method call on the current thread, unless an enclosing call started it.
+     *
+     * @return previous start time, to be restored afterwards
+     */
+    public static Long startDeadline() {
+        Long previous = DEADLINE_START.get();
+        if (previous == null) {
+            DEADLINE_START.set(System.nanoTime());
+        }
+        return previous;
+    }
+
+    public static void restoreDeadline(Long previous) {
+        if (previous == null) {
+            DEADLINE_START.remove();
+        }
+    }
+
+    @Override
+    public <T> List<T> find(Query query, Class<T> entityClass, String collectionName) {
+        String caller = MongoCommandMetricsListener.getCaller();
+        long maxTime = query == null ? 0 : getMaxTimeInMillis(caller, collectionName, query);
+        if (maxTime <= 0) {
+            return super.find(query, entityClass, collectionName);
+        }
+        try {
+            return super.find(copy(query).maxTimeMsec(maxTime), entityClass, collectionName);
+        } catch (DataAccessException e) {
+            throw translate(e, caller, collectionName, maxTime);
+        }
+    }
+
+    @Override
+    public <T> T findOne(Query query, Class<T> entityClass, String collectionName) {
+        if (query == null || query.getSortObject() != null
+                || getBudgetInMillis(MongoCommandMetricsListener.getCaller()) <= 0) {
+            // The sorted lookup is a find limited to one document already
+            return super.findOne(query, entityClass, collectionName);
+        }
+        // The single document lookup of MongoTemplate ignores the meta of the query, a find limited to one applies it
+        List<T> results = find(copy(query).limit(1), entityClass, collectionName);
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    @Override
+    public long count(Query query, Class<?> entityClass, String collectionName) {
+        String caller = MongoCommandMetricsListener.getCaller();
+        long maxTime = getMaxTimeInMillis(caller, collectionName, query);
+        if (maxTime <= 0) {
+            return super.count(query, entityClass, collectionName);
+        }
+        DBObject mappedQuery = query == null ? null : mapQuery(query, entityClass);
+        try {
+            return execute(collectionName, collection -> collection.count(mappedQuery,
+                    new DBCollectionCountOptions().maxTime(maxTime, TimeUnit.MILLISECONDS)));
+        } catch (DataAccessException e) {
+            throw translate(e, caller, collectionName, maxTime);
+        }
+    }
+
+    @Override
+    public boolean exists(Query query, Class<?> entityClass, String collectionName) {
+        String caller = MongoCommandMetricsListener.getCaller();
+        long maxTime = query == null ? 0 : getMaxTimeInMillis(caller, collectionName, query);
+        if (maxTime <= 0) {
+            return super.exists(query, entityClass, collectionName);
+        }
+        DBObject mappedQuery = mapQuery(query, entityClass);
+        try {
+            return execute(collectionName, collection -> {
+                try (DBCursor cursor = collection.find(mappedQuery, new BasicDBObject("_id", 1)).limit(1)
+                        .maxTime(maxTime, TimeUnit.MILLISECONDS)) {
+                    return cursor.hasNext();
+                }
+            });
+        } catch (DataAccessException e) {
+            throw translate(e, caller, collectionName, maxTime);
+        }
+    }
+
+    /**
+     * The budget itself is set on the aggregate command by {@link #executeCommand(DBObject, ReadPreference)}, the
+     * pipeline is only turned into the command by the superclass.
+     */
+    @Override
+    protected <O> AggregationResults<O> aggregate(Aggregation aggregation, String collectionName, Class<O> outputType,
+            AggregationOperationContext context) {
+        try {
+            return super.aggregate(aggregation, collectionName, outputType, context);
+        } catch (DataAccessException e) {
+            String caller = MongoCommandMetricsListener.getCaller();
+            throw translate(e, caller, collectionName, getBudgetInMillis(caller));
+        }
+    }
+
+    @Override
+    public CommandResult executeCommand(DBObject command, ReadPreference readPreference) {
+        if (command != null && command.containsField("aggregate") && !command.containsField("maxTimeMS")) {
+            long maxTime = getMaxTimeInMillis(MongoCommandMetricsListener.getCaller(),
+                    String.valueOf(command.get("aggregate")), null);
+            if (maxTime > 0) {
+                command.put("maxTimeMS", maxTime);
+            }
+        }
+        return super.executeCommand(command, readPreference);
+    }
+
+    @Override
+    public <T> CloseableIterator<T> stream(Query query, Class<T> entityType, String collectionName) {
+        String caller = MongoCommandMetricsListener.getCaller();
+        long maxTime = query == null || query.getLimit() <= 0 ? 0 : getMaxTimeInMillis(caller, collectionName, query);
+        if (maxTime <= 0) {
+            return super.stream(query, entityType, collectionName);
+        }
+        // The cursor is only opened by the first hasNext, so the timeout surfaces while iterating
+        return new BudgetedIterator<>(super.stream(copy(query).maxTimeMsec(maxTime), entityType, collectionName),
+                caller, collectionName, maxTime);
+    }
+
+    /**
+     * Get the time limit of a query, the own limit of the query if any, else what is left of the budget of the
+     * repository method call.
+     *
+     * @return time limit, 0 if the query is left without one
+     */
+    private long getMaxTimeInMillis(String caller, String collectionName, Query query) {
+        long budget = getBudgetInMillis(caller);
+        if (budget <= 0) {
+            return 0;
+        }
+        if (query != null && query.getMeta().getMaxTimeMsec() != null) {
+            return query.getMeta().getMaxTimeMsec();
+        }
+        Long start = DEADLINE_START.get();
+        if (start == null) {
+            return budget;
+        }
+        long remaining = budget - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (remaining <= 0) {
+            // The server would fail the query at once, the previous queries of the call used up the budget
+            throw timeout(caller, collectionName, budget, null);
+        }
+        return remaining;
+    }
+
+    private long getBudgetInMillis(String caller) {
+        ApplicationProperties.QueryBudget config = applicationProperties.getQueryBudget();
+        if (!config.isEnabled()) {
+            return 0;
+        }
+        if (caller != null) {
+            Long budget = config.getMaxTimesInMillis().get(caller);
+            if (budget == null && caller.indexOf('.') > 0) {
+                budget = config.getMaxTimesInMillis().get(caller.substring(0, caller.indexOf('.')));
+            }
+            if (budget != null) {
+                return budget;
+            }
+        }
+        return config.getDefaultMaxTimeInMillis();
+    }
+
+    /**
+     * The exception translator of Spring Data MongoDB leaves the time limit error of the server uncategorized.
+     */
+    private DataAccessException translate(DataAccessException e, String caller, String collectionName,
+            long maxTimeInMillis) {
+        Throwable cause = e.getCause();
+        if (!(cause instanceof MongoExecutionTimeoutException) && !(cause instanceof MongoCommandException
+                && ((MongoCommandException) cause).getErrorCode() == MAX_TIME_MS_EXPIRED)) {
+            return e;
+        }
+        return timeout(caller, collectionName, maxTimeInMillis, cause);
+    }
+
+    private QueryTimeoutException timeout(String caller, String collectionName, long maxTimeInMillis,
+            Throwable cause) {
+        String name = caller == null ? NO_CALLER : caller;
+        metricRegistry.counter(MetricRegistry.name(QueryBudgetMongoTemplate.class, name, "timeouts")).inc();
+        LOGGER.warn("Mongo query on {} called by {} exceeded its budget of {} ms", collectionName, name,
+                maxTimeInMillis);
+        return new QueryTimeoutException(
+                "Query on " + collectionName + " exceeded its budget of " + maxTimeInMillis + " ms", cause);
+    }
+
+    private DBObject mapQuery(Query query, Class<?> entityClass) {
+        return queryMapper.getMappedObject(query.getQueryObject(),
+                entityClass == null ? null : getConverter().getMappingContext().getPersistentEntity(entityClass));
+    }
+
+    /**
+     * Query has no copy constructor in this Spring Data MongoDB version, the copy carries the mapped parts of the
+     * original, which is left unchanged.
+     */
+    private static Query copy(Query query) {
+        BasicQuery copy = new BasicQuery(query.getQueryObject(), query.getFieldsObject());
+        copy.setSortObject(query.getSortObject());
+        copy.skip(query.getSkip()).limit(query.getLimit());
+        if (query.getHint() != null) {
+            copy.withHint(query.getHint());
+        }
+        Meta meta = query.getMeta();
+        Meta metaCopy = new Meta();
+        if (meta.getMaxTimeMsec() != null) {
+            metaCopy.setMaxTimeMsec(meta.getMaxTimeMsec());
+        }
+        if (meta.getMaxScan() != null) {
+            metaCopy.setMaxScan(meta.getMaxScan());
+        }
+        if (meta.getComment() != null) {
+            metaCopy.setComment(meta.getComment());
+        }
+        metaCopy.setSnapshot(meta.getSnapshot());
+        meta.getFlags().forEach(metaCopy::addFlag);
+        copy.setMeta(metaCopy);
+        return copy;
+    }
+
+    /**
+     * Translates the timeout of a budgeted stream, raised by the cursor while it is read.
+     */
+    private class BudgetedIterator<T> implements CloseableIterator<T> {
+
+        private final CloseableIterator<T> iterator;
+
+        private final String               caller;
+
+        private final String               collectionName;
+
+        private final long                 maxTimeInMillis;
+
+        BudgetedIterator(CloseableIterator<T> iterator, String caller, String collectionName, long maxTimeInMillis) {
+            this.iterator = iterator;
+            this.caller = caller;
+            this.collectionName = collectionName;
+            this.maxTimeInMillis = maxTimeInMillis;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return iterator.hasNext();
+            } catch (DataAccessException e) {
+                throw translate(e, caller, collectionName, maxTimeInMillis);
+            }
+        }
+
+        @Override
+        public T next() {
+            try {
+                return iterator.next();
+            } catch (DataAccessException e) {
+                throw translate(e, caller, collectionName, maxTimeInMillis);
+            }
+        }
+
+        @Override
+        public void close() {
+            iterator.close();
+        }
+    }
+}
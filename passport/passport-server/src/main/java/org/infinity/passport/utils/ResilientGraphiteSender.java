@@ -0,0 +1,137 @@
+package org.infinity.passport.utils;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.graphite.GraphiteSender;
+
+/**
+ * Graphite sender wrapper which never fails a report. After a failed connect or send it backs off exponentially
+ * before connecting again, and the values which could not be sent are counted as dropped instead. The metric names
+ * are sanitized, so route templates and other names with path characters stay one Graphite node each.
+ */
+public class ResilientGraphiteSender implements GraphiteSender {
+
+    private static final Logger  LOGGER          = LoggerFactory.getLogger(ResilientGraphiteSender.class);
+
+    private static final Pattern ILLEGAL_CHARS   = Pattern.compile("[^A-Za-z0-9_\\-.]");
+
+    private final GraphiteSender delegate;
+
+    private final long           initialBackoffInMillis;
+
+    private final long           maxBackoffInMillis;
+
+    private final Meter          sentMeter;
+
+    private final Meter          droppedMeter;
+
+    private final Counter        connectFailures;
+
+    private long                 backoffInMillis;
+
+    private long                 nextConnectTime;
+
+    private long                 pendingSends;
+
+    /**
+     * @param delegate sender writing to Graphite
+     * @param metricRegistry registry of the own metrics of the sender
+     * @param initialBackoffInMillis delay before connecting again after the first failure
+     * @param maxBackoffInMillis maximum delay before connecting again
+     */
+    public ResilientGraphiteSender(GraphiteSender delegate, MetricRegistry metricRegistry, long initialBackoffInMillis,
+            long maxBackoffInMillis) {
+        this.delegate = delegate;
+        this.initialBackoffInMillis = initialBackoffInMillis;
+        this.maxBackoffInMillis = maxBackoffInMillis;
+        this.sentMeter = metricRegistry.meter(MetricRegistry.name(ResilientGraphiteSender.class, "sent"));
+        this.droppedMeter = metricRegistry.meter(MetricRegistry.name(ResilientGraphiteSender.class, "dropped"));
+        this.connectFailures = metricRegistry
+                .counter(MetricRegistry.name(ResilientGraphiteSender.class, "connect-failures"));
+    }
+
+    @Override
+    public void connect() {
+        if (delegate.isConnected() || System.currentTimeMillis() < nextConnectTime) {
+            return;
+        }
+        try {
+            delegate.connect();
+            backoffInMillis = 0;
+        } catch (IOException | IllegalStateException e) {
+            connectFailures.inc();
+            failed("connect", e);
+        }
+    }
+
+    @Override
+    public void send(String name, String value, long timestamp) {
+        if (!delegate.isConnected()) {
+            droppedMeter.mark();
+            return;
+        }
+        try {
+            pendingSends++;
+            delegate.send(ILLEGAL_CHARS.matcher(name).replaceAll("_"), value, timestamp);
+        } catch (IOException e) {
+            failed("send", e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (!delegate.isConnected()) {
+            return;
+        }
+        try {
+            delegate.flush();
+            sentMeter.mark(pendingSends);
+            pendingSends = 0;
+        } catch (IOException e) {
+            failed("flush", e);
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return delegate.isConnected();
+    }
+
+    @Override
+    public int getFailures() {
+        return delegate.getFailures();
+    }
+
+    @Override
+    public void close() {
+        closeDelegate();
+    }
+
+    /**
+     * The values of the batch in flight are lost with the connection.
+     */
+    private void failed(String operation, Exception e) {
+        droppedMeter.mark(pendingSends);
+        pendingSends = 0;
+        closeDelegate();
+        backoffInMillis = backoffInMillis == 0 ? initialBackoffInMillis
+                : Math.min(backoffInMillis * 2, maxBackoffInMillis);
+        nextConnectTime = System.currentTimeMillis() + backoffInMillis;
+        LOGGER.warn("Failed to {} Graphite, reconnecting in {} ms: {}", operation, backoffInMillis, e.getMessage());
+    }
+
+    private void closeDelegate() {
+        try {
+            delegate.close();
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close Graphite connection: {}", e.getMessage());
+        }
+    }
+}
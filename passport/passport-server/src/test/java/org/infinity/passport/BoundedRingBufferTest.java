@@ -0,0 +1,156 @@
+package org.infinity.passport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.infinity.passport.utils.BoundedRingBuffer;
+import org.junit.Test;
+
+/**
+ * Checks the ring buffer alone and under concurrent producers and consumers.
+ */
+public class BoundedRingBufferTest {
+
+    @Test
+    public void roundCapacityUpToPowerOfTwo() {
+        assertEquals(2, new BoundedRingBuffer<Integer>(2).capacity());
+        assertEquals(8, new BoundedRingBuffer<Integer>(5).capacity());
+        assertEquals(8, new BoundedRingBuffer<Integer>(8).capacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectTooSmallCapacity() {
+        new BoundedRingBuffer<Integer>(1);
+    }
+
+    @Test
+    public void fullAndEmpty() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertEquals(4, buffer.size());
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void wrapAround() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        // Several laps with the buffer half full, so that head and tail cross the end of the slots
+        for (int i = 0; i < 4 * 10; i++) {
+            assertTrue(buffer.offer(i));
+            assertTrue(buffer.offer(i + 1000));
+            assertEquals(Integer.valueOf(i), buffer.poll());
+            assertEquals(Integer.valueOf(i + 1000), buffer.poll());
+        }
+        // Filling up after the laps still stops at the capacity
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(Integer.valueOf(0), buffer.poll());
+    }
+
+    @Test
+    public void dropOldest() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        int dropped = 0;
+        // The same make-room loop as the audit event broadcaster
+        for (int i = 0; i < 10; i++) {
+            while (!buffer.offer(i)) {
+                if (buffer.poll() != null) {
+                    dropped++;
+                }
+            }
+        }
+        assertEquals(6, dropped);
+        for (int i = 6; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    public void concurrentProducersAndConsumers() throws Exception {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 50000;
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(64);
+        AtomicIntegerArray received = new AtomicIntegerArray(producers * perProducer);
+        AtomicInteger remaining = new AtomicInteger(producers * perProducer);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int first = p * perProducer;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = first; i < first + perProducer; i++) {
+                        while (!buffer.offer(i)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int c = 0; c < consumers; c++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int[] lastSeen = new int[producers];
+                    Arrays.fill(lastSeen, -1);
+                    while (remaining.get() > 0) {
+                        Integer element = buffer.poll();
+                        if (element == null) {
+                            Thread.yield();
+                            continue;
+                        }
+                        // Elements of one producer come out in the order they went in
+                        int producer = element / perProducer;
+                        assertTrue(element > lastSeen[producer]);
+                        lastSeen[producer] = element;
+                        received.incrementAndGet(element);
+                        remaining.decrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Every element is received exactly once
+        for (int i = 0; i < received.length(); i++) {
+            assertEquals("Element " + i, 1, received.get(i));
+        }
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+}
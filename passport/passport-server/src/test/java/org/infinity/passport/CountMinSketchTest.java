@@ -0,0 +1,70 @@
+package org.infinity.passport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.infinity.passport.utils.CountMinSketch;
+import org.junit.Test;
+
+/**
+ * Checks the frequency estimates of the sketch against the true counts of a skewed stream.
+ */
+public class CountMinSketchTest {
+
+    private static final int DEPTH = 4;
+
+    private static final int WIDTH = 2048;
+
+    @Test
+    public void estimateWithinErrorBound() {
+        CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+        Map<String, Integer> counts = new HashMap<>();
+        // A skewed stream, a few values are frequent and most are rare
+        Random random = new Random(42);
+        int total = 100000;
+        for (int i = 0; i < total; i++) {
+            String value = "key-" + (int) Math.pow(10000, random.nextDouble());
+            sketch.add(value);
+            counts.merge(value, 1, Integer::sum);
+        }
+
+        double errorBound = 2.0 * total / WIDTH;
+        int exceeded = 0;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            // Never below the true count
+            assertTrue(entry.getKey(), estimate >= entry.getValue());
+            if (estimate - entry.getValue() > errorBound) {
+                exceeded++;
+            }
+        }
+        // At most the stated 0.5^depth of the values exceed the error bound
+        assertTrue(String.valueOf(exceeded), exceeded <= counts.size() * Math.pow(0.5, DEPTH));
+    }
+
+    @Test
+    public void addReturnsEstimateIncludingOccurrence() {
+        CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+        assertEquals(0, sketch.estimate("key"));
+        assertEquals(1, sketch.add("key"));
+        assertEquals(2, sketch.add("key"));
+        assertEquals(1, sketch.add("other"));
+        assertEquals(2, sketch.estimate("key"));
+    }
+
+    @Test
+    public void clear() {
+        CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+        for (int i = 0; i < 100; i++) {
+            sketch.add("key-" + i % 10);
+        }
+        sketch.clear();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, sketch.estimate("key-" + i));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.infinity.passport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.infinity.passport.utils.ResilientGraphiteSender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.graphite.Graphite;
+import com.codahale.metrics.graphite.GraphiteReporter;
+import com.codahale.metrics.graphite.GraphiteSender;
+import com.codahale.metrics.graphite.PickledGraphite;
+
+/**
+ * Reports to a local server socket standing in for Graphite.
+ */
+public class GraphiteReporterTest {
+
+    private ServerSocket   standIn;
+
+    private MetricRegistry metricRegistry;
+
+    @Before
+    public void setUp() throws IOException {
+        standIn = new ServerSocket(0);
+        standIn.setSoTimeout(5000);
+        metricRegistry = new MetricRegistry();
+        metricRegistry.counter("passport.requests").inc(3);
+        metricRegistry.counter("passport.latency.GET./api/users/{id}.2xx").inc();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        standIn.close();
+    }
+
+    @Test
+    public void reportPlaintext() throws IOException {
+        newReporter(new Graphite("localhost", standIn.getLocalPort())).report();
+        String received;
+        try (Socket socket = standIn.accept()) {
+            received = readAll(socket.getInputStream());
+        }
+        assertTrue(received, received.contains("passport.requests.count 3 "));
+        // The route template is kept as one node without path characters
+        assertTrue(received, received.contains("passport.latency.GET._api_users__id_.2xx.count 1 "));
+        assertEquals(0, dropped());
+        assertTrue(metricRegistry.meter(MetricRegistry.name(ResilientGraphiteSender.class, "sent")).getCount() >= 2);
+    }
+
+    @Test
+    public void reportPickle() throws IOException {
+        newReporter(new PickledGraphite("localhost", standIn.getLocalPort(), 100)).report();
+        byte[] received;
+        try (Socket socket = standIn.accept()) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = socket.getInputStream().read(buffer)) != -1) {
+                output.write(buffer, 0, length);
+            }
+            received = output.toByteArray();
+        }
+        // A 4 byte big endian length header followed by the pickled batch
+        int payloadLength = ((received[0] & 0xff) << 24) | ((received[1] & 0xff) << 16) | ((received[2] & 0xff) << 8)
+                | (received[3] & 0xff);
+        assertEquals(received.length - 4, payloadLength);
+        assertTrue(new String(received, StandardCharsets.UTF_8).contains("passport.requests.count"));
+        assertEquals(0, dropped());
+    }
+
+    @Test
+    public void dropAndBackOffWhenUnreachable() throws IOException {
+        int port = standIn.getLocalPort();
+        standIn.close();
+        GraphiteReporter reporter = newReporter(new Graphite("localhost", port));
+
+        reporter.report();
+        long droppedAfterFirstReport = dropped();
+        assertTrue(droppedAfterFirstReport > 0);
+        assertEquals(1, connectFailures());
+
+        // Still backing off, the values are dropped without connecting again
+        reporter.report();
+        assertEquals(1, connectFailures());
+        assertTrue(dropped() > droppedAfterFirstReport);
+    }
+
+    private GraphiteReporter newReporter(GraphiteSender sender) {
+        return GraphiteReporter.forRegistry(metricRegistry).convertRatesTo(TimeUnit.SECONDS)
+                .convertDurationsTo(TimeUnit.MILLISECONDS)
+                .build(new ResilientGraphiteSender(sender, metricRegistry, 60000L, 300000L));
+    }
+
+    private long dropped() {
+        return metricRegistry.meter(MetricRegistry.name(ResilientGraphiteSender.class, "dropped")).getCount();
+    }
+
+    private long connectFailures() {
+        return metricRegistry.counter(MetricRegistry.name(ResilientGraphiteSender.class, "connect-failures"))
+                .getCount();
+    }
+
+    private static String readAll(InputStream input) throws IOException {
+        StringBuilder result = new StringBuilder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            result.append(line).append('\n');
+        }
+        return result.toString();
+    }
+}
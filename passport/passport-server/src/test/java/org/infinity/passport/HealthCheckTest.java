@@ -0,0 +1,132 @@
+package org.infinity.passport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinity.passport.config.ApplicationProperties.Metrics.Health.Threshold;
+import org.infinity.passport.health.MailTransportHealthCheck;
+import org.infinity.passport.health.ThresholdHealthCheck;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import com.codahale.metrics.health.HealthCheck.Result;
+
+/**
+ * Checks the mail transport against a local server socket standing in for SMTP.
+ */
+public class HealthCheckTest {
+
+    private ServerSocket  standIn;
+
+    private Thread        standInThread;
+
+    private AtomicInteger connections;
+
+    @Before
+    public void setUp() throws IOException {
+        standIn = new ServerSocket(0);
+        connections = new AtomicInteger();
+        standInThread = new Thread(this::serveSmtp, "smtp-stand-in");
+        standInThread.setDaemon(true);
+        standInThread.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        standIn.close();
+    }
+
+    @Test
+    public void mailTransportHealthy() {
+        Result result = newMailTransportHealthCheck(standIn.getLocalPort(), 0).execute();
+        assertTrue(String.valueOf(result.getMessage()), result.isHealthy());
+        assertFalse(ThresholdHealthCheck.isDegraded(result));
+        assertEquals(1, connections.get());
+    }
+
+    @Test
+    public void mailTransportUnhealthyWhenUnreachable() throws IOException {
+        int port = standIn.getLocalPort();
+        standIn.close();
+        Result result = newMailTransportHealthCheck(port, 0).execute();
+        assertFalse(result.isHealthy());
+    }
+
+    @Test
+    public void resultIsCached() {
+        MailTransportHealthCheck healthCheck = newMailTransportHealthCheck(standIn.getLocalPort(), 60000L);
+        assertTrue(healthCheck.execute().isHealthy());
+        assertTrue(healthCheck.execute().isHealthy());
+        assertEquals(1, connections.get());
+    }
+
+    @Test
+    public void degradedAndUnhealthyThresholds() {
+        assertTrue(newFixedHealthCheck(5).execute().isHealthy());
+        assertFalse(ThresholdHealthCheck.isDegraded(newFixedHealthCheck(5).execute()));
+
+        Result degraded = newFixedHealthCheck(50).execute();
+        assertTrue(degraded.isHealthy());
+        assertTrue(degraded.getMessage(), ThresholdHealthCheck.isDegraded(degraded));
+
+        assertFalse(newFixedHealthCheck(500).execute().isHealthy());
+    }
+
+    private MailTransportHealthCheck newMailTransportHealthCheck(int port, long cacheInMillis) {
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(port);
+        javaMailSender.getJavaMailProperties().setProperty("mail.smtp.connectiontimeout", "2000");
+        javaMailSender.getJavaMailProperties().setProperty("mail.smtp.timeout", "2000");
+        return new MailTransportHealthCheck(javaMailSender, new Threshold(1000, 5000), cacheInMillis);
+    }
+
+    private static ThresholdHealthCheck newFixedHealthCheck(double value) {
+        return new ThresholdHealthCheck(new Threshold(10, 100), "ms", 0) {
+            @Override
+            protected double measure() {
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Answers just enough SMTP for a connect and quit.
+     */
+    private void serveSmtp() {
+        while (!standIn.isClosed()) {
+            try (Socket socket = standIn.accept()) {
+                connections.incrementAndGet();
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                PrintWriter writer = new PrintWriter(socket.getOutputStream(), true);
+                writer.print("220 localhost ESMTP stand-in\r\n");
+                writer.flush();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.toUpperCase().startsWith("QUIT")) {
+                        writer.print("221 Bye\r\n");
+                        writer.flush();
+                        break;
+                    }
+                    writer.print("250 OK\r\n");
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                // Closed by the tear down
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.infinity.passport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.infinity.passport.utils.HeavyHitters;
+import org.junit.Test;
+
+/**
+ * Checks the top values, the candidate trimming and the expiry of the sliding window, the window ones use a one
+ * second window of two buckets and the wall clock.
+ */
+public class HeavyHittersTest {
+
+    private static final long BUCKET_IN_MILLIS = 500L;
+
+    @Test
+    public void topOrderedByCount() {
+        HeavyHitters heavyHitters = new HeavyHitters(3600L, 2, 4, 1024, 10);
+        offer(heavyHitters, "a", 30);
+        offer(heavyHitters, "b", 50);
+        offer(heavyHitters, "c", 10);
+
+        List<Entry<String, Long>> top = heavyHitters.top(2);
+        assertEquals(2, top.size());
+        assertEquals("b", top.get(0).getKey());
+        assertEquals(Long.valueOf(50), top.get(0).getValue());
+        assertEquals("a", top.get(1).getKey());
+        assertEquals(Long.valueOf(30), top.get(1).getValue());
+    }
+
+    @Test
+    public void trimCandidates() {
+        int capacity = 3;
+        HeavyHitters heavyHitters = new HeavyHitters(3600L, 2, 4, 1024, capacity);
+        offer(heavyHitters, "a", 50);
+        offer(heavyHitters, "b", 40);
+        offer(heavyHitters, "c", 30);
+        // Many rare values, the candidates are trimmed back to the capacity and the rare values stay below the
+        // threshold afterwards
+        for (int i = 0; i < 100; i++) {
+            heavyHitters.offer("rare-" + i);
+        }
+
+        List<Entry<String, Long>> top = heavyHitters.top(10);
+        assertEquals(top.toString(), capacity, top.size());
+        assertEquals("a", top.get(0).getKey());
+        assertEquals("b", top.get(1).getKey());
+        assertEquals("c", top.get(2).getKey());
+        assertTrue(top.get(2).getValue() >= 30);
+    }
+
+    @Test
+    public void sumBucketsOfWindow() throws InterruptedException {
+        HeavyHitters heavyHitters = new HeavyHitters(1L, 2, 4, 1024, 10);
+        awaitBucketStart();
+        offer(heavyHitters, "a", 10);
+        // Into the next bucket, the first one is still in the window
+        Thread.sleep(BUCKET_IN_MILLIS + 50);
+        offer(heavyHitters, "a", 5);
+
+        List<Entry<String, Long>> top = heavyHitters.top(10);
+        assertEquals(1, top.size());
+        assertEquals(Long.valueOf(15), top.get(0).getValue());
+    }
+
+    @Test
+    public void dropOutAfterWindow() throws InterruptedException {
+        HeavyHitters heavyHitters = new HeavyHitters(1L, 2, 4, 1024, 10);
+        offer(heavyHitters, "expired", 100);
+        assertEquals("expired", heavyHitters.top(10).get(0).getKey());
+
+        // Two buckets later the bucket of the first offers has left the window, however the offers were aligned
+        Thread.sleep(2 * BUCKET_IN_MILLIS + 100);
+        assertTrue(heavyHitters.top(10).isEmpty());
+
+        offer(heavyHitters, "current", 1);
+        List<Entry<String, Long>> top = heavyHitters.top(10);
+        assertEquals(1, top.size());
+        assertEquals("current", top.get(0).getKey());
+        assertEquals(Long.valueOf(1), top.get(0).getValue());
+    }
+
+    private static void offer(HeavyHitters heavyHitters, String value, int times) {
+        for (int i = 0; i < times; i++) {
+            heavyHitters.offer(value);
+        }
+    }
+
+    /**
+     * Wait for the start of a bucket, so that the offers of a test fall into the expected buckets.
+     */
+    private static void awaitBucketStart() throws InterruptedException {
+        Thread.sleep(BUCKET_IN_MILLIS - System.currentTimeMillis() % BUCKET_IN_MILLIS + 10);
+    }
+}
@@ -0,0 +1,94 @@
+package org.infinity.passport;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.infinity.passport.utils.HyperLogLog;
+import org.junit.Test;
+
+/**
+ * Checks the cardinality estimates of the sketch against the stated standard error, and merging and restoring.
+ */
+public class HyperLogLogTest {
+
+    private static final double STANDARD_ERROR = 0.008;
+
+    private static final int    TRIALS         = 64;
+
+    @Test
+    public void estimateWithinStandardError() {
+        for (int size : new int[] { 1000, 10000, 100000 }) {
+            double absoluteErrors = 0;
+            for (int trial = 0; trial < TRIALS; trial++) {
+                double error = relativeError(newSketch("trial-" + trial, 0, size).cardinality(), size);
+                // A single estimate may miss the standard error, but never by four times as much
+                assertTrue(size + ": " + error, Math.abs(error) < 4 * STANDARD_ERROR);
+                absoluteErrors += Math.abs(error);
+            }
+            // The mean absolute error of independent sketches stays below the standard error
+            double meanAbsoluteError = absoluteErrors / TRIALS;
+            assertTrue(size + ": " + meanAbsoluteError, meanAbsoluteError <= STANDARD_ERROR);
+        }
+    }
+
+    @Test
+    public void offerReportsChangedRegisters() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertTrue(sketch.offer("user"));
+        assertFalse(sketch.offer("user"));
+        assertEquals(1, sketch.cardinality());
+        assertEquals(0, new HyperLogLog().cardinality());
+    }
+
+    @Test
+    public void mergeIsUnion() {
+        // Two overlapping sets, as two nodes seeing some of the same users
+        HyperLogLog first = newSketch("user", 0, 60000);
+        HyperLogLog second = newSketch("user", 40000, 100000);
+        HyperLogLog union = newSketch("user", 0, 100000);
+
+        first.merge(second);
+        // Taking the register maximums gives exactly the sketch of the union
+        assertArrayEquals(union.toByteArray(), first.toByteArray());
+        assertEquals(union.cardinality(), first.cardinality());
+        assertTrue(Math.abs(relativeError(first.cardinality(), 100000)) < 4 * STANDARD_ERROR);
+
+        // Merging is idempotent
+        first.merge(second);
+        assertArrayEquals(union.toByteArray(), first.toByteArray());
+    }
+
+    @Test
+    public void byteArrayRoundTrip() {
+        HyperLogLog sketch = newSketch("user", 0, 50000);
+        byte[] registers = sketch.toByteArray();
+        assertEquals(HyperLogLog.REGISTER_COUNT, registers.length);
+
+        HyperLogLog restored = new HyperLogLog(registers);
+        assertArrayEquals(registers, restored.toByteArray());
+        assertEquals(sketch.cardinality(), restored.cardinality());
+
+        // The restored sketch keeps its own copy of the registers
+        registers[0] = Byte.MAX_VALUE;
+        assertEquals(sketch.cardinality(), restored.cardinality());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectWrongRegisterCount() {
+        new HyperLogLog(new byte[HyperLogLog.REGISTER_COUNT - 1]);
+    }
+
+    private static HyperLogLog newSketch(String prefix, int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.offer(prefix + "-" + i);
+        }
+        return sketch;
+    }
+
+    private static double relativeError(long estimate, int size) {
+        return (double) (estimate - size) / size;
+    }
+}